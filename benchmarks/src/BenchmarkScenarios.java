@@ -0,0 +1,200 @@
+import java.util.ArrayList;
+
+import javafx.geometry.Point2D;
+
+/**
+ * Creates the Simulations the benchmarks run on: either one of the shipped Levels
+ * (level1 to level8), or a generated Level with a given number of platforms
+ * (synthetic-N) made by a LevelGenerator. Generated Levels are always the same for
+ * the same arguments.
+ */
+public class BenchmarkScenarios {
+
+	public static final String LEVEL_PREFIX = "level";
+	public static final String SYNTHETIC_PREFIX = "synthetic-";
+
+	// The shipped Levels are made for a game area of this size
+	public static final int LEVEL_WIDTH = 700;
+	public static final int LEVEL_HEIGHT = 600;
+
+	// The ledges added to generated Levels, and how far they are from the start point
+	private static final double LEDGE_WIDTH = 200;
+	private static final double LEDGE_THICKNESS = 20;
+	private static final double LEDGE_GAP = 100;
+
+	/**
+	 * Creates a Simulation with the Level of the given scenario loaded
+	 * @param scenario level1 to level8, or synthetic-N
+	 * @return the Simulation
+	 */
+	public static Simulation create(String scenario) {
+
+		return create(scenario, 0);
+
+	}
+
+	/**
+	 * Creates a Simulation with the Level of the given scenario loaded,
+	 * adding Hazards to it if it's a generated Level
+	 * @param scenario level1 to level8, or synthetic-N
+	 * @param hazardCount the number of Hazards to add to a generated Level
+	 * @return the Simulation
+	 */
+	public static Simulation create(String scenario, int hazardCount) {
+
+		if (scenario.startsWith(LEVEL_PREFIX)) {
+
+			int levelNumber = Integer.parseInt(scenario.substring(LEVEL_PREFIX.length()));
+
+			Simulation simulation = new Simulation(LEVEL_WIDTH, LEVEL_HEIGHT);
+			simulation.loadLevel(new LevelManager(simulation).createLevel(levelNumber - 1));
+
+			return simulation;
+
+		} else if (scenario.startsWith(SYNTHETIC_PREFIX)) {
+
+			return createSynthetic(Integer.parseInt(scenario.substring(SYNTHETIC_PREFIX.length())), hazardCount);
+
+		}
+
+		throw new IllegalArgumentException("Unknown scenario: " + scenario);
+
+	}
+
+	/**
+	 * Creates a Simulation with a Level from a LevelGenerator loaded, seeded with the
+	 * number of platforms so each scenario is always the same Level. Two of the platforms
+	 * are ledges the width of the generator's shaft, just above and below the start point,
+	 * so that Portals can be placed close to the Player however big the Level is.
+	 * @param platformCount the number of platforms, including the walls and ledges
+	 * @param hazardCount the number of Hazards
+	 * @return the Simulation
+	 */
+	public static Simulation createSynthetic(int platformCount, int hazardCount) {
+
+		LevelGenerator generator = new LevelGenerator(platformCount);
+		generator.setPlatformCount(platformCount - 2);
+		generator.setHazardCount(hazardCount);
+
+		Simulation simulation = new Simulation((int) generator.getWidth(), (int) generator.getHeight());
+		Level generated = generator.generate(simulation);
+
+		Point2D startPoint = generated.getPlayerStartPoint();
+		double ledgeX = startPoint.getX() + simulation.getPlayer().getWidth() / 2 - LEDGE_WIDTH / 2;
+
+		ArrayList<AABB> platforms = generated.getPlatforms();
+		platforms.add(new AABB(ledgeX, startPoint.getY() - LEDGE_GAP - LEDGE_THICKNESS, LEDGE_WIDTH, LEDGE_THICKNESS));
+		platforms.add(new AABB(ledgeX, startPoint.getY() + LEDGE_GAP, LEDGE_WIDTH, LEDGE_THICKNESS));
+
+		simulation.loadLevel(new Level(platforms, generated.getHazards(), generated.getGoal(), startPoint, simulation));
+
+		return simulation;
+
+	}
+
+	/**
+	 * Launches both of the Player's Portals from a point, one straight down and one
+	 * straight up, so that the Player falls through them over and over. Points are tried
+	 * along the middle of the Level and outwards until one works: the Player fits there,
+	 * both Portals land, and the Player goes through them within a few seconds. The
+	 * Player is left at the point with no velocity.
+	 * @param simulation the Simulation to place the Portals in
+	 * @return true if the Portals were placed, false if no point worked
+	 */
+	public static boolean placeFallingPortals(Simulation simulation) {
+
+		Player player = simulation.getPlayer();
+		PlatformGrid platformGrid = simulation.getLevel().getPlatformGrid();
+		PlatformGrid.Result nearbyPlatforms = new PlatformGrid.Result();
+
+		SimulationSnapshot snapshot = new SimulationSnapshot();
+
+		Point2D startPoint = simulation.getLevel().getPlayerStartPoint();
+		double step = 37;
+
+		for (int attempt = 0; attempt < 400; attempt++) {
+
+			// Alternate right and left of the start point, moving up and down every 40 attempts
+			int offset = (attempt % 40 + 1) / 2 * ((attempt % 2 == 0) ? 1 : -1);
+			double x = startPoint.getX() + offset * step;
+			double y = startPoint.getY() - (attempt / 40) * step * 2;
+
+			platformGrid.query(x, y, player.getWidth(), player.getHeight(), nearbyPlatforms);
+			if (touchesAny(platformGrid, nearbyPlatforms, x, y, player.getWidth(), player.getHeight())) {
+
+				continue;
+
+			}
+
+			player.reset(new Point2D(x, y));
+			player.launchPortal("LEFT", 270);
+			player.launchPortal("RIGHT", 90);
+
+			for (int i = 0; i < 2000; i++) {
+
+				for (Portal portal : player.getPortals()) {
+
+					portal.update();
+
+				}
+
+			}
+
+			if (!player.getPortals().get(0).isPlacedOnWall() || !player.getPortals().get(1).isPlacedOnWall()) {
+
+				continue;
+
+			}
+
+			simulation.saveSnapshot(snapshot);
+
+			boolean transited = false;
+			for (int i = 0; i < 600 && !transited; i++) {
+
+				player.update();
+				transited = player.isInsidePortal();
+
+			}
+
+			simulation.restoreSnapshot(snapshot);
+
+			if (transited) {
+
+				return true;
+
+			}
+
+		}
+
+		return false;
+
+	}
+
+	/**
+	 * Checks if an area touches any of the platforms found by a query of the area
+	 * @param platformGrid the PlatformGrid that was queried
+	 * @param nearbyPlatforms the result of the query
+	 * @param x the x coordinate of the area
+	 * @param y the y coordinate of the area
+	 * @param width the width of the area
+	 * @param height the height of the area
+	 * @return true if a platform touches the area, false otherwise
+	 */
+	private static boolean touchesAny(PlatformGrid platformGrid, PlatformGrid.Result nearbyPlatforms,
+			double x, double y, double width, double height) {
+
+		for (int i = 0; i < nearbyPlatforms.size(); i++) {
+
+			if (platformGrid.getPlatform(nearbyPlatforms.get(i)).intersects(x, y, width, height)) {
+
+				return true;
+
+			}
+
+		}
+
+		return false;
+
+	}
+
+}
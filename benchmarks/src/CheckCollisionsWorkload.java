@@ -0,0 +1,78 @@
+import java.util.Random;
+
+import benchmarks.Workload;
+
+/**
+ * Measures Entity.checkCollisions: the Player is moved to one of a fixed set of
+ * positions and pushed out of any platforms it overlaps. Half of the positions
+ * overlap the edge of a platform and the other half are anywhere in the Level.
+ */
+public class CheckCollisionsWorkload implements Workload {
+
+	private static final int POSITION_COUNT = 1024;
+
+	private PlatformGrid platformGrid;
+	private Player player;
+
+	private double[] x = new double[POSITION_COUNT];
+	private double[] y = new double[POSITION_COUNT];
+	private int next = 0;
+
+	@Override
+	public void setUp(String scenario, String... options) {
+
+		Simulation simulation = BenchmarkScenarios.create(scenario);
+
+		platformGrid = simulation.getLevel().getPlatformGrid();
+		player = simulation.getPlayer();
+
+		Random random = new Random(POSITION_COUNT);
+		int platformCount = simulation.getLevel().getPlatforms().size();
+
+		for (int i = 0; i < POSITION_COUNT; i++) {
+
+			if (i % 2 == 0) {
+
+				// Put the Player's center somewhere on the platform's outline
+				AABB platform = platformGrid.getPlatform(random.nextInt(platformCount));
+				double along = random.nextDouble();
+
+				if (random.nextBoolean()) {
+
+					x[i] = platform.getX() + along * platform.getWidth();
+					y[i] = random.nextBoolean() ? platform.getY() : platform.getMaxY();
+
+				} else {
+
+					x[i] = random.nextBoolean() ? platform.getX() : platform.getMaxX();
+					y[i] = platform.getY() + along * platform.getHeight();
+
+				}
+
+				x[i] -= player.getWidth() / 2;
+				y[i] -= player.getHeight() / 2;
+
+			} else {
+
+				x[i] = random.nextDouble() * simulation.getWidth();
+				y[i] = random.nextDouble() * simulation.getHeight();
+
+			}
+
+		}
+
+	}
+
+	@Override
+	public long run() {
+
+		next = (next + 1) & (POSITION_COUNT - 1);
+
+		player.setLocation(x[next], y[next]);
+		player.checkCollisions(platformGrid);
+
+		return Double.doubleToRawLongBits(player.getX() + player.getY());
+
+	}
+
+}
@@ -0,0 +1,100 @@
+import benchmarks.Workload;
+
+/**
+ * Measures working out the dirty rectangles of one frame: a tick of the Simulation,
+ * then queueing what would be drawn, adding it to a DirtyRegion, and comparing it to
+ * the last frame.
+ * The Player is nudged left and right and jumps, so it moves the way it does when the
+ * game is played. Generated Levels get SYNTHETIC_HAZARDS Hazards, and only the part of
+ * them the game's Canvas would show is drawn.
+ * Every RESET_INTERVAL frames the Simulation is restored to where it started, which
+ * is drawn in full like a restarted Level.
+ *
+ * The number of pixels each frame touches is counted, and printed with how often the
+ * whole Canvas had to be drawn again when the Workload is torn down.
+ */
+public class DirtyRegionWorkload implements Workload {
+
+	private static final int RESET_INTERVAL = 512;
+	private static final int SYNTHETIC_HAZARDS = 100;
+
+	private Simulation simulation;
+	private DirtyRegion dirtyRegion;
+	private RenderQueue renderQueue = new RenderQueue();
+	private InputFrame input = new InputFrame();
+
+	private SimulationSnapshot start = new SimulationSnapshot();
+	private int frame = 0;
+
+	private long frames = 0;
+	private long fullRedraws = 0;
+	private long pixelsTouched = 0;
+
+	@Override
+	public void setUp(String scenario, String... options) {
+
+		simulation = BenchmarkScenarios.create(scenario, SYNTHETIC_HAZARDS);
+		dirtyRegion = new DirtyRegion(BenchmarkScenarios.LEVEL_WIDTH, BenchmarkScenarios.LEVEL_HEIGHT);
+
+		simulation.saveSnapshot(start);
+
+	}
+
+	@Override
+	public long run() {
+
+		if (++frame == RESET_INTERVAL) {
+
+			frame = 0;
+			simulation.restoreSnapshot(start);
+			dirtyRegion.invalidate();
+
+		}
+
+		input.clear();
+		if (frame % 60 == 0) {
+
+			input.setRightPresses(1);
+			input.setJumpPressed(true);
+
+		} else if (frame % 60 == 30) {
+
+			input.setLeftPresses(1);
+
+		}
+
+		simulation.step(input);
+
+		simulation.getPlayer().draw(renderQueue);
+		simulation.getPlayer().drawPortals(renderQueue);
+		simulation.getLevel().draw(renderQueue);
+
+		dirtyRegion.beginFrame();
+		dirtyRegion.add(renderQueue);
+		dirtyRegion.computeDirtyRectangles();
+		renderQueue.clear();
+
+		frames++;
+		pixelsTouched += dirtyRegion.getPixelsTouched();
+		if (dirtyRegion.isFullRedraw()) {
+
+			fullRedraws++;
+
+		}
+
+		return dirtyRegion.getPixelsTouched();
+
+	}
+
+	@Override
+	public void tearDown() {
+
+		long canvasPixels = (long) BenchmarkScenarios.LEVEL_WIDTH * BenchmarkScenarios.LEVEL_HEIGHT;
+
+		System.out.printf("%n%.0f pixels touched per frame (%.1f%% of the %d a full redraw touches), %.1f%% of frames drawn in full%n",
+				(double) pixelsTouched / frames, 100.0 * pixelsTouched / frames / canvasPixels, canvasPixels,
+				100.0 * fullRedraws / frames);
+
+	}
+
+}
@@ -0,0 +1,58 @@
+import java.util.concurrent.ForkJoinPool;
+
+import benchmarks.Workload;
+
+/**
+ * Measures Level.update on a Level. The first option is the number of Hazards added
+ * if the Level is generated, and the second is the number of threads the Hazards are
+ * updated on: "1" updates them on the calling thread, and any other number updates
+ * them in parallel on a ForkJoinPool of that many threads, however few Hazards there are.
+ */
+public class LevelUpdateWorkload implements Workload {
+
+	private Level level;
+	private ForkJoinPool pool;
+
+	@Override
+	public void setUp(String scenario, String... options) {
+
+		int hazardCount = Integer.parseInt(options[0]);
+		int threads = Integer.parseInt(options[1]);
+
+		level = BenchmarkScenarios.create(scenario, hazardCount).getLevel();
+
+		if (threads == 1) {
+
+			level.getHazards().setParallelThreshold(Integer.MAX_VALUE);
+
+		} else {
+
+			pool = new ForkJoinPool(threads);
+			level.getHazards().setPool(pool);
+			level.getHazards().setParallelThreshold(0);
+
+		}
+
+	}
+
+	@Override
+	public long run() {
+
+		level.update();
+
+		return level.isPlayerTouchingHazard() ? 1 : 0;
+
+	}
+
+	@Override
+	public void tearDown() {
+
+		if (pool != null) {
+
+			pool.shutdown();
+
+		}
+
+	}
+
+}
@@ -0,0 +1,69 @@
+import java.util.Random;
+
+import benchmarks.Workload;
+
+/**
+ * Measures the PlatformGrid. With the "query" option each run finds the platforms near
+ * a Player sized area at one of a fixed set of points, and with the "raycast" option
+ * each run casts a ray from one of the points in one of a fixed set of directions.
+ */
+public class PlatformGridWorkload implements Workload {
+
+	private static final int POSITION_COUNT = 1024;
+
+	private static final double AREA_SIZE = 40;
+
+	private PlatformGrid platformGrid;
+	private boolean raycast;
+
+	private PlatformGrid.Result nearbyPlatforms = new PlatformGrid.Result();
+	private RaycastHit hit = new RaycastHit();
+
+	private double[] x = new double[POSITION_COUNT];
+	private double[] y = new double[POSITION_COUNT];
+	private double[] directionX = new double[POSITION_COUNT];
+	private double[] directionY = new double[POSITION_COUNT];
+	private int next = 0;
+
+	@Override
+	public void setUp(String scenario, String... options) {
+
+		Simulation simulation = BenchmarkScenarios.create(scenario);
+		platformGrid = simulation.getLevel().getPlatformGrid();
+		raycast = options[0].equals("raycast");
+
+		Random random = new Random(POSITION_COUNT);
+
+		for (int i = 0; i < POSITION_COUNT; i++) {
+
+			x[i] = random.nextDouble() * simulation.getWidth();
+			y[i] = random.nextDouble() * simulation.getHeight();
+
+			double direction = random.nextDouble() * 2 * Math.PI;
+			directionX[i] = Math.cos(direction);
+			directionY[i] = Math.sin(direction);
+
+		}
+
+	}
+
+	@Override
+	public long run() {
+
+		next = (next + 1) & (POSITION_COUNT - 1);
+
+		if (raycast) {
+
+			platformGrid.raycast(x[next], y[next], directionX[next], directionY[next], hit);
+
+			return hit.getPlatformIndex();
+
+		}
+
+		platformGrid.query(x[next], y[next], AREA_SIZE, AREA_SIZE, nearbyPlatforms);
+
+		return nearbyPlatforms.size();
+
+	}
+
+}
@@ -0,0 +1,51 @@
+import benchmarks.Workload;
+
+/**
+ * Measures Player.update. With the "idle" option the Player has no Portals and falls
+ * from the start point onto whatever is below it. With the "transit" option the Player
+ * has a Portal below and above it and falls through them over and over. Every
+ * RESET_INTERVAL updates the Simulation is restored to where it started.
+ */
+public class PlayerUpdateWorkload implements Workload {
+
+	private static final int RESET_INTERVAL = 512;
+
+	private Simulation simulation;
+	private Player player;
+
+	private SimulationSnapshot start = new SimulationSnapshot();
+	private int updates = 0;
+
+	@Override
+	public void setUp(String scenario, String... options) {
+
+		simulation = BenchmarkScenarios.create(scenario);
+		player = simulation.getPlayer();
+
+		if (options[0].equals("transit") && !BenchmarkScenarios.placeFallingPortals(simulation)) {
+
+			throw new IllegalStateException("Couldn't place Portals in " + scenario);
+
+		}
+
+		simulation.saveSnapshot(start);
+
+	}
+
+	@Override
+	public long run() {
+
+		if (++updates == RESET_INTERVAL) {
+
+			updates = 0;
+			simulation.restoreSnapshot(start);
+
+		}
+
+		player.update();
+
+		return Double.doubleToRawLongBits(player.getX() + player.getY());
+
+	}
+
+}
@@ -0,0 +1,63 @@
+import benchmarks.Workload;
+
+/**
+ * Measures Player.resolvePortalCollisions while the Player falls through a Portal
+ * below it and out of a Portal above it. The Player's position and velocities are
+ * recorded over TRAJECTORY_LENGTH updates of the fall, and each run sets the Player
+ * back to the next recorded tick, applies its velocities, and resolves its collisions
+ * with the Portals.
+ */
+public class PortalCollisionsWorkload implements Workload {
+
+	private static final int TRAJECTORY_LENGTH = 512;
+
+	private Player player;
+
+	private double[] x = new double[TRAJECTORY_LENGTH];
+	private double[] y = new double[TRAJECTORY_LENGTH];
+	private double[] xVelocity = new double[TRAJECTORY_LENGTH];
+	private double[] yVelocity = new double[TRAJECTORY_LENGTH];
+	private int next = 0;
+
+	@Override
+	public void setUp(String scenario, String... options) {
+
+		Simulation simulation = BenchmarkScenarios.create(scenario);
+		player = simulation.getPlayer();
+
+		if (!BenchmarkScenarios.placeFallingPortals(simulation)) {
+
+			throw new IllegalStateException("Couldn't place Portals in " + scenario);
+
+		}
+
+		for (int i = 0; i < TRAJECTORY_LENGTH; i++) {
+
+			x[i] = player.getX();
+			y[i] = player.getY();
+			xVelocity[i] = player.getxVelocity();
+			yVelocity[i] = player.getyVelocity();
+
+			player.update();
+
+		}
+
+	}
+
+	@Override
+	public long run() {
+
+		next = (next + 1) & (TRAJECTORY_LENGTH - 1);
+
+		player.setLocation(x[next], y[next]);
+		player.setxVelocity(xVelocity[next]);
+		player.setyVelocity(yVelocity[next]);
+
+		player.applyVelocities();
+		player.resolvePortalCollisions();
+
+		return Double.doubleToRawLongBits(player.getX() + player.getY());
+
+	}
+
+}
@@ -0,0 +1,95 @@
+import java.util.Random;
+
+import benchmarks.Workload;
+
+/**
+ * Measures the Portal's movement. With the "flight" option each run is one
+ * Portal.update of a Portal launched from the Player's start point; when it lands it
+ * is launched again in the next of a fixed set of directions, so the cost of
+ * Portal.findTarget is spread over the updates of each flight. With the "stickToWall"
+ * option each run moves the Portal to one of a fixed set of points near the outline of
+ * a platform and calls Portal.stickToWall with that platform.
+ */
+public class PortalUpdateWorkload implements Workload {
+
+	private static final int POSITION_COUNT = 1024;
+
+	private static final double LAUNCH_VELOCITY = 10;
+
+	private PlatformGrid platformGrid;
+	private Portal portal;
+	private boolean flight;
+
+	private double launchX;
+	private double launchY;
+	private double[] directions = new double[POSITION_COUNT];
+
+	private double[] x = new double[POSITION_COUNT];
+	private double[] y = new double[POSITION_COUNT];
+	private AABB[] platforms = new AABB[POSITION_COUNT];
+
+	private int next = 0;
+
+	@Override
+	public void setUp(String scenario, String... options) {
+
+		Simulation simulation = BenchmarkScenarios.create(scenario);
+		platformGrid = simulation.getLevel().getPlatformGrid();
+		flight = options[0].equals("flight");
+
+		Player player = simulation.getPlayer();
+		launchX = player.getCenterX();
+		launchY = player.getCenterY();
+
+		portal = new Portal("A", launchX, launchY, 0, simulation);
+		portal.setVelocity(0);
+
+		Random random = new Random(POSITION_COUNT);
+		int platformCount = simulation.getLevel().getPlatforms().size();
+
+		for (int i = 0; i < POSITION_COUNT; i++) {
+
+			directions[i] = random.nextDouble() * 360;
+
+			platforms[i] = platformGrid.getPlatform(random.nextInt(platformCount));
+			x[i] = platforms[i].getX() - 10 + random.nextDouble() * (platforms[i].getWidth() + 20);
+			y[i] = platforms[i].getY() - 10 + random.nextDouble() * (platforms[i].getHeight() + 20);
+
+		}
+
+	}
+
+	@Override
+	public long run() {
+
+		if (flight) {
+
+			if (portal.getVelocity() == 0) {
+
+				next = (next + 1) & (POSITION_COUNT - 1);
+
+				portal.setCenterX(launchX);
+				portal.setCenterY(launchY);
+				portal.setVelocity(LAUNCH_VELOCITY);
+				portal.setDirection(directions[next]);
+				portal.findTarget(platformGrid);
+
+			}
+
+			portal.update();
+
+		} else {
+
+			next = (next + 1) & (POSITION_COUNT - 1);
+
+			portal.setCenterX(x[next]);
+			portal.setCenterY(y[next]);
+			portal.stickToWall(platforms[next]);
+
+		}
+
+		return Double.doubleToRawLongBits(portal.getCenterX() + portal.getCenterY());
+
+	}
+
+}
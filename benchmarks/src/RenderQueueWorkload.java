@@ -0,0 +1,176 @@
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+
+import benchmarks.Workload;
+
+/**
+ * Measures drawing the moving objects of one frame on a Canvas. With the "direct" mode
+ * they're drawn the way they were before the RenderQueue: the Player inside its own
+ * save and restore, and a setFill before every Portal and Hazard. With the "batched"
+ * mode they're queued in a RenderQueue and flushed.
+ *
+ * The options are the number of Hazards to add to a generated Level, how the Hazards
+ * are colored, and the mode. With "shared" colors every Hazard is filled with the same
+ * Color instance, with "decoded" colors each Hazard has its own instance of the same
+ * Color(which is what a LevelPack gives them), and with "mixed" colors four Colors take
+ * turns. A GraphicsContext only records a fill change when the Paint isn't the same
+ * instance as the current one, so "decoded" and "mixed" colors change the fill for
+ * every Hazard when they're drawn directly.
+ *
+ * The Canvas isn't shown, so this measures the GraphicsContext calls that build the
+ * command stream rather than drawing the pixels. Clearing the whole Canvas at the start
+ * of each frame throws away the commands of the last one, as it does in the game. The
+ * number of fills and fill changes recorded each frame is printed when the Workload is
+ * torn down.
+ */
+public class RenderQueueWorkload implements Workload {
+
+	private static final Color[] MIXED_COLORS = { Color.RED, Color.ORANGE, Color.PURPLE, Color.DARKRED };
+
+	private Simulation simulation;
+	private GraphicsContext gc;
+	private RenderQueue renderQueue = new RenderQueue();
+	private boolean batched;
+
+	private long frames = 0;
+	private long commands = 0;
+
+	@Override
+	public void setUp(String scenario, String... options) {
+
+		simulation = BenchmarkScenarios.create(scenario, Integer.parseInt(options[0]));
+		batched = options[2].equals("batched");
+
+		recolorHazards(simulation.getLevel(), options[1]);
+		BenchmarkScenarios.placeFallingPortals(simulation);
+
+		gc = new Canvas(BenchmarkScenarios.LEVEL_WIDTH, BenchmarkScenarios.LEVEL_HEIGHT).getGraphicsContext2D();
+
+	}
+
+	private static void recolorHazards(Level level, String colors) {
+
+		HazardStore hazards = level.getHazards();
+		HazardStore recolored = new HazardStore(hazards.size());
+
+		for (int i = 0; i < hazards.size(); i++) {
+
+			Color color;
+			if (colors.equals("shared")) {
+
+				color = Color.RED;
+
+			} else if (colors.equals("decoded")) {
+
+				color = Color.rgb(255, 0, 0);
+
+			} else if (colors.equals("mixed")) {
+
+				color = MIXED_COLORS[i % MIXED_COLORS.length];
+
+			} else {
+
+				throw new IllegalArgumentException("Unknown colors: " + colors);
+
+			}
+
+			recolored.add(hazards.getX(i), hazards.getY(i), hazards.getWidth(i), hazards.getHeight(i), color);
+
+		}
+
+		level.setHazards(recolored);
+
+	}
+
+	@Override
+	public long run() {
+
+		gc.clearRect(0, 0, BenchmarkScenarios.LEVEL_WIDTH, BenchmarkScenarios.LEVEL_HEIGHT);
+
+		int frameCommands;
+
+		if (batched) {
+
+			simulation.getPlayer().draw(renderQueue);
+			simulation.getPlayer().drawPortals(renderQueue);
+			simulation.getLevel().draw(renderQueue);
+			renderQueue.flush(gc);
+
+			frameCommands = renderQueue.getLastCommandCount();
+
+		} else {
+
+			frameCommands = drawDirectly();
+
+		}
+
+		frames++;
+		commands += frameCommands;
+
+		return frameCommands;
+
+	}
+
+	/**
+	 * Draws the moving objects the way they were drawn before the RenderQueue
+	 * @return the number of fills and fill changes the GraphicsContext recorded
+	 */
+	private int drawDirectly() {
+
+		Player player = simulation.getPlayer();
+		Paint lastFill = gc.getFill();
+		int calls = 0;
+
+		gc.save();
+		gc.setFill(player.getColor());
+		gc.fillRect(player.getX(), player.getY(), player.getWidth(), player.getHeight());
+		gc.restore();
+
+		// restore changes the fill back, which is recorded too
+		calls += player.getColor() != lastFill ? 3 : 1;
+
+		for (Portal portal : player.getPortals()) {
+
+			gc.setFill(portal.getColor());
+			gc.fillRect(portal.getCenterX() - portal.getWidth() / 2, portal.getCenterY() - portal.getHeight() / 2,
+					portal.getWidth(), portal.getHeight());
+
+			calls += portal.getColor() != lastFill ? 2 : 1;
+			lastFill = portal.getColor();
+
+		}
+
+		HazardStore hazards = simulation.getLevel().getHazards();
+		Paint savedFill = lastFill;
+
+		gc.save();
+		gc.setFill(Color.BLACK);
+
+		for (int i = 0; i < hazards.size(); i++) {
+
+			gc.setFill(hazards.getColor(i));
+			gc.fillRect(hazards.getX(i), hazards.getY(i), hazards.getWidth(i), hazards.getHeight(i));
+
+			calls += hazards.getColor(i) != lastFill ? 2 : 1;
+			lastFill = hazards.getColor(i);
+
+		}
+
+		gc.restore();
+
+		calls += lastFill != savedFill ? 1 : 0;
+
+		return calls;
+
+	}
+
+	@Override
+	public void tearDown() {
+
+		System.out.printf("%n%.1f fills and fill changes per frame%n", (double) commands / frames);
+
+	}
+
+}
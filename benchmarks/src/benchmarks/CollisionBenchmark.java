@@ -0,0 +1,15 @@
+package benchmarks;
+
+/**
+ * Measures Entity.checkCollisions for the Player at points on and around
+ * the platforms of each Level
+ */
+public class CollisionBenchmark extends WorkloadBenchmark {
+
+	public CollisionBenchmark() {
+
+		super("CheckCollisionsWorkload");
+
+	}
+
+}
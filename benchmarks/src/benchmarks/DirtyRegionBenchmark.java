@@ -0,0 +1,20 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+/**
+ * Measures a tick plus working out the dirty rectangles of the frame, and prints
+ * the number of pixels each frame touches compared to clearing the whole Canvas
+ */
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DirtyRegionBenchmark extends WorkloadBenchmark {
+
+	public DirtyRegionBenchmark() {
+
+		super("DirtyRegionWorkload");
+
+	}
+
+}
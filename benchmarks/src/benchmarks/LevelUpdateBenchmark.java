@@ -0,0 +1,33 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Measures Level.update on each Level, updating its Hazards on the calling thread(1 thread)
+ * or in parallel on a ForkJoinPool of the given number of threads. The number of Hazards
+ * is only added to generated Levels; the shipped Levels keep their own.
+ */
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LevelUpdateBenchmark extends WorkloadBenchmark {
+
+	@Param({"100", "10000", "100000"})
+	private String hazards;
+
+	@Param({"1", "2", "4", "8"})
+	private String threads;
+
+	public LevelUpdateBenchmark() {
+
+		super("LevelUpdateWorkload");
+
+	}
+
+	@Override
+	protected String[] getOptions() {
+		return new String[] {hazards, threads};
+	}
+
+}
@@ -0,0 +1,24 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Measures PlatformGrid.query and PlatformGrid.raycast at points spread over each Level
+ */
+public class PlatformGridBenchmark extends WorkloadBenchmark {
+
+	@Param({"query", "raycast"})
+	private String operation;
+
+	public PlatformGridBenchmark() {
+
+		super("PlatformGridWorkload");
+
+	}
+
+	@Override
+	protected String[] getOptions() {
+		return new String[] {operation};
+	}
+
+}
@@ -0,0 +1,25 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Measures Player.update with the Player falling onto a platform(idle),
+ * or falling through its Portals over and over(transit)
+ */
+public class PlayerUpdateBenchmark extends WorkloadBenchmark {
+
+	@Param({"idle", "transit"})
+	private String motion;
+
+	public PlayerUpdateBenchmark() {
+
+		super("PlayerUpdateWorkload");
+
+	}
+
+	@Override
+	protected String[] getOptions() {
+		return new String[] {motion};
+	}
+
+}
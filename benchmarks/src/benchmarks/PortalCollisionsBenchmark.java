@@ -0,0 +1,14 @@
+package benchmarks;
+
+/**
+ * Measures Player.resolvePortalCollisions while the Player falls through its Portals
+ */
+public class PortalCollisionsBenchmark extends WorkloadBenchmark {
+
+	public PortalCollisionsBenchmark() {
+
+		super("PortalCollisionsWorkload");
+
+	}
+
+}
@@ -0,0 +1,25 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Measures Portal.update of a launched Portal(flight), and Portal.stickToWall
+ * at points near the platforms of each Level(stickToWall)
+ */
+public class PortalUpdateBenchmark extends WorkloadBenchmark {
+
+	@Param({"flight", "stickToWall"})
+	private String mode;
+
+	public PortalUpdateBenchmark() {
+
+		super("PortalUpdateWorkload");
+
+	}
+
+	@Override
+	protected String[] getOptions() {
+		return new String[] {mode};
+	}
+
+}
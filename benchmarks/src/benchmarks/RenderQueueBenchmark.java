@@ -0,0 +1,41 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Measures drawing the moving objects of a frame directly on a Canvas, the way they
+ * were drawn before the RenderQueue, against queueing and flushing them in batches,
+ * with Hazards that share one Color, have their own instance of one Color, or take turns
+ * between four Colors, and prints the number of fills and fill changes each frame records
+ */
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RenderQueueBenchmark extends WorkloadBenchmark {
+
+	// Only generated Levels get the given number of Hazards, so the other scenarios are left out
+	@Param({"synthetic-1000"})
+	private String scenario;
+
+	@Param({"100", "10000"})
+	private String hazards;
+
+	@Param({"shared", "decoded", "mixed"})
+	private String colors;
+
+	@Param({"direct", "batched"})
+	private String mode;
+
+	public RenderQueueBenchmark() {
+
+		super("RenderQueueWorkload");
+
+	}
+
+	@Override
+	protected String[] getOptions() {
+		return new String[] {hazards, colors, mode};
+	}
+
+}
@@ -0,0 +1,48 @@
+package benchmarks;
+
+/**
+ * A piece of game code measured by a benchmark. JMH benchmarks have to be in a
+ * named package, but the game's classes are in the default package, which named
+ * packages can't refer to. So each Workload is written in the default package next
+ * to the game's classes, implements this interface, and is created by name.
+ */
+public interface Workload {
+
+	/**
+	 * Prepares the Workload
+	 * @param scenario the Level to run the Workload on: level1 to level8 for the shipped
+	 * Levels, or synthetic-N for a generated Level with N platforms
+	 * @param options options specific to the Workload
+	 * @throws Exception if the Workload can't be prepared
+	 */
+	void setUp(String scenario, String... options) throws Exception;
+
+	/**
+	 * Runs the measured code once
+	 * @return a value depending on the result, so the JIT can't remove the work
+	 */
+	long run();
+
+	/**
+	 * Releases anything the Workload holds on to, such as threads
+	 */
+	default void tearDown() {}
+
+	/**
+	 * Creates the Workload with the given class name and prepares it
+	 * @param className the name of the Workload's class
+	 * @param scenario the Level to run the Workload on
+	 * @param options options specific to the Workload
+	 * @return the prepared Workload
+	 * @throws Exception if the Workload can't be created or prepared
+	 */
+	static Workload create(String className, String scenario, String... options) throws Exception {
+
+		Workload workload = (Workload) Class.forName(className).getDeclaredConstructor().newInstance();
+		workload.setUp(scenario, options);
+
+		return workload;
+
+	}
+
+}
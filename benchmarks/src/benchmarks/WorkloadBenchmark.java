@@ -0,0 +1,76 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs a Workload on each scenario. Each benchmark extends this, naming its
+ * Workload and passing it any options of its own.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public abstract class WorkloadBenchmark {
+
+	@Param({"level1", "level2", "level3", "level4", "level5", "level6", "level7", "level8",
+			"synthetic-10", "synthetic-1000", "synthetic-100000"})
+	private String scenario;
+
+	private final String workloadName;
+	private Workload workload;
+
+	/**
+	 * Creates a benchmark of a Workload
+	 * @param workloadName the name of the Workload's class
+	 */
+	protected WorkloadBenchmark(String workloadName) {
+
+		this.workloadName = workloadName;
+
+	}
+
+	/**
+	 * Gets the options passed to the Workload, which are the benchmark's own parameters
+	 * @return the options
+	 */
+	protected String[] getOptions() {
+		return new String[0];
+	}
+
+	@Setup
+	public void setUp() throws Exception {
+
+		workload = Workload.create(workloadName, scenario, getOptions());
+
+	}
+
+	@TearDown
+	public void tearDown() {
+
+		workload.tearDown();
+
+	}
+
+	@Benchmark
+	public long run() {
+
+		return workload.run();
+
+	}
+
+}
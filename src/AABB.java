@@ -0,0 +1,172 @@
+
+/**
+ * A mutable axis-aligned bounding box defined by its top-left point (x, y), width,
+ * and height. AABBs are used for collision checking instead of javafx Rectangles so
+ * that the same AABB can be reused every tick instead of creating a new Node.
+ */
+public class AABB {
+
+	private double x;
+	private double y;
+	private double width;
+	private double height;
+
+	public AABB() {}
+
+	/**
+	 * Creates an AABB with a top-left point of (x, y) and a defined width and height
+	 * @param x the left x coordinate of the AABB
+	 * @param y the top y coordinate of the AABB
+	 * @param width the width of the AABB
+	 * @param height the height of the AABB
+	 */
+	public AABB(double x, double y, double width, double height) {
+
+		set(x, y, width, height);
+
+	}
+
+	/**
+	 * Sets the top-left point, width, and height of the AABB
+	 * @param x the new left x coordinate
+	 * @param y the new top y coordinate
+	 * @param width the new width
+	 * @param height the new height
+	 * @return this AABB
+	 */
+	public AABB set(double x, double y, double width, double height) {
+
+		this.x = x;
+		this.y = y;
+		this.width = width;
+		this.height = height;
+
+		return this;
+
+	}
+
+	/**
+	 * Checks if this AABB intersects another AABB. AABBs which only touch
+	 * along an edge are counted as intersecting.
+	 * @param other the other AABB
+	 * @return true if the AABBs intersect, false otherwise
+	 */
+	public boolean intersects(AABB other) {
+
+		return intersects(x, y, width, height, other.x, other.y, other.width, other.height);
+
+	}
+
+	/**
+	 * Checks if this AABB intersects the box with a top-left point of (x, y) and
+	 * the given width and height
+	 * @param x the left x coordinate of the box
+	 * @param y the top y coordinate of the box
+	 * @param width the width of the box
+	 * @param height the height of the box
+	 * @return true if the AABB intersects the box, false otherwise
+	 */
+	public boolean intersects(double x, double y, double width, double height) {
+
+		return intersects(this.x, this.y, this.width, this.height, x, y, width, height);
+
+	}
+
+	/**
+	 * Checks if two boxes, each given as a top-left point, width, and height,
+	 * intersect. Boxes which only touch along an edge are counted as intersecting.
+	 * @return true if the boxes intersect, false otherwise
+	 */
+	public static boolean intersects(double x1, double y1, double width1, double height1,
+			double x2, double y2, double width2, double height2) {
+
+		return x2 <= x1 + width1 && x1 <= x2 + width2 && y2 <= y1 + height1 && y1 <= y2 + height2;
+
+	}
+
+	/**
+	 * Gets the left x coordinate of the AABB
+	 * @return the left x coordinate
+	 */
+	public double getX() {
+		return x;
+	}
+
+	/**
+	 * Sets the left x coordinate of the AABB
+	 * @param x the new left x coordinate
+	 */
+	public void setX(double x) {
+		this.x = x;
+	}
+
+	/**
+	 * Gets the top y coordinate of the AABB
+	 * @return the top y coordinate
+	 */
+	public double getY() {
+		return y;
+	}
+
+	/**
+	 * Sets the top y coordinate of the AABB
+	 * @param y the new top y coordinate
+	 */
+	public void setY(double y) {
+		this.y = y;
+	}
+
+	/**
+	 * Gets the width of the AABB
+	 * @return the width
+	 */
+	public double getWidth() {
+		return width;
+	}
+
+	/**
+	 * Sets the width of the AABB
+	 * @param width the new width
+	 */
+	public void setWidth(double width) {
+		this.width = width;
+	}
+
+	/**
+	 * Gets the height of the AABB
+	 * @return the height
+	 */
+	public double getHeight() {
+		return height;
+	}
+
+	/**
+	 * Sets the height of the AABB
+	 * @param height the new height
+	 */
+	public void setHeight(double height) {
+		this.height = height;
+	}
+
+	/**
+	 * Gets the right x coordinate of the AABB
+	 * @return the right x coordinate
+	 */
+	public double getMaxX() {
+		return x + width;
+	}
+
+	/**
+	 * Gets the bottom y coordinate of the AABB
+	 * @return the bottom y coordinate
+	 */
+	public double getMaxY() {
+		return y + height;
+	}
+
+	@Override
+	public String toString() {
+		return "AABB [x=" + x + ", y=" + y + ", width=" + width + ", height=" + height + "]";
+	}
+
+}
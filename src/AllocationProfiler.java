@@ -0,0 +1,307 @@
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+
+/**
+ * Measures the bytes allocated by each phase of a tick(updating the Player, updating
+ * its Portals, updating the Level, and recording or rewinding the RewindBuffer) and by
+ * drawing, by sampling the thread's allocated bytes as each phase begins and ends.
+ * Phases can be nested: the bytes allocated by a phase which runs inside another
+ * one, like the Portals updating inside the Player's update, only count towards the
+ * inner phase.
+ *
+ * Starting the game with --profile=allocations profiles the game and prints the bytes
+ * allocated by each phase when it exits. Running the AllocationProfiler on its own
+ * plays each built in Level without a window, the way the game does(with rewinding
+ * turned on, launching Portals), and fails if a phase allocates too much, so new
+ * allocations in the hot path can be caught before they cause GC pauses. The build runs
+ * it in the verify phase. Ticks shouldn't allocate at all; the default maximum of 1
+ * byte per tick only lets through things which happen now and then, like restarting.
+ * Drawing has its own maximum, since the Canvas allocates a few bytes for each command
+ * sent to it.
+ *
+ * Usage: AllocationProfiler [ticks per level] [max bytes per tick] [max draw bytes per tick]
+ * The exit code is 0 if no phase went over its maximum, 1 if one did, and 2 if the
+ * JVM can't measure allocations.
+ */
+public class AllocationProfiler {
+
+	public static final int PLAYER_UPDATE = 0;
+	public static final int PORTAL_UPDATE = 1;
+	public static final int LEVEL_UPDATE = 2;
+	public static final int REWIND = 3;
+	public static final int DRAW = 4;
+
+	private static final String[] PHASE_NAMES = { "player update", "portal update", "level update", "rewind", "draw" };
+
+	private com.sun.management.ThreadMXBean threadBean;
+
+	private long[] bytes = new long[PHASE_NAMES.length];
+	private long[] runs = new long[PHASE_NAMES.length];
+	private long ticks = 0;
+
+	// The phases which have begun but not ended, innermost last
+	private int[] openPhases = new int[8];
+	private int openPhaseCount = 0;
+	private long lastSample = 0;
+
+	/**
+	 * Creates an AllocationProfiler for the calling thread
+	 * @throws UnsupportedOperationException if the JVM can't measure the allocations of a thread
+	 */
+	public AllocationProfiler() {
+
+		if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+
+			throw new UnsupportedOperationException("This JVM can't measure allocations");
+
+		}
+
+		threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+		if (!threadBean.isThreadAllocatedMemorySupported()) {
+
+			throw new UnsupportedOperationException("This JVM can't measure allocations");
+
+		}
+
+		threadBean.setThreadAllocatedMemoryEnabled(true);
+
+	}
+
+	/**
+	 * Starts counting allocations towards a phase
+	 * @param phase the phase, such as PLAYER_UPDATE
+	 */
+	public void begin(int phase) {
+
+		sample();
+
+		openPhases[openPhaseCount++] = phase;
+		runs[phase]++;
+
+	}
+
+	/**
+	 * Stops counting allocations towards the phase which began last, and goes back to
+	 * counting them towards the phase it began inside of, if there is one
+	 * @param phase the phase, which must be the one which began last
+	 */
+	public void end(int phase) {
+
+		sample();
+
+		if (openPhaseCount == 0 || openPhases[openPhaseCount - 1] != phase) {
+
+			throw new IllegalStateException(PHASE_NAMES[phase] + " ended without beginning");
+
+		}
+
+		openPhaseCount--;
+
+	}
+
+	/**
+	 * Counts the bytes allocated since the last sample towards the innermost open phase
+	 */
+	private void sample() {
+
+		long allocated = threadBean.getCurrentThreadAllocatedBytes();
+
+		if (openPhaseCount > 0) {
+
+			bytes[openPhases[openPhaseCount - 1]] += allocated - lastSample;
+
+		}
+
+		lastSample = allocated;
+
+	}
+
+	/**
+	 * Counts a tick, which the bytes of each phase are averaged over
+	 */
+	public void countTick() {
+
+		ticks++;
+
+	}
+
+	/**
+	 * Forgets everything counted so far, such as after warming up
+	 */
+	public void reset() {
+
+		for (int phase = 0; phase < PHASE_NAMES.length; phase++) {
+
+			bytes[phase] = 0;
+			runs[phase] = 0;
+
+		}
+
+		ticks = 0;
+
+	}
+
+	/**
+	 * Prints the bytes allocated by each phase per tick, and per run of the phase
+	 * @param out the PrintStream to print to
+	 */
+	public void printReport(PrintStream out) {
+
+		out.printf("Allocations over %d ticks:%n", ticks);
+
+		for (int phase = 0; phase < PHASE_NAMES.length; phase++) {
+
+			out.printf("  %-14s %10.3f bytes/tick %10.1f bytes/run (%d runs)%n", PHASE_NAMES[phase],
+					getBytesPerTick(phase), runs[phase] == 0 ? 0 : (double) bytes[phase] / runs[phase], runs[phase]);
+
+		}
+
+	}
+
+	public static void main(String[] args) {
+
+		int ticksPerLevel = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+		double maxBytesPerTick = args.length > 1 ? Double.parseDouble(args[1]) : 1;
+		double maxDrawBytesPerTick = args.length > 2 ? Double.parseDouble(args[2]) : 32;
+
+		AllocationProfiler profiler;
+		try {
+
+			profiler = new AllocationProfiler();
+
+		} catch (UnsupportedOperationException e) {
+
+			System.err.println(e.getMessage());
+			System.exit(2);
+			return;
+
+		}
+
+		Simulation simulation = new Simulation(LevelPack.BUILT_IN_WIDTH, LevelPack.BUILT_IN_HEIGHT);
+		simulation.setAllocationProfiler(profiler);
+		simulation.setRewindBuffer(new RewindBuffer());
+
+		LevelManager levelManager = new LevelManager(simulation);
+
+		Canvas canvas = new Canvas(simulation.getWidth(), simulation.getHeight());
+		RenderQueue renderQueue = new RenderQueue();
+
+		boolean failed = false;
+
+		for (int levelIndex = 0; levelIndex < levelManager.getLevelCount(); levelIndex++) {
+
+			levelManager.openLevel(levelIndex);
+
+			// Warm up first, so the JIT has compiled(and removed what allocations it can from) the hot path
+			play(simulation, levelManager, canvas.getGraphicsContext2D(), renderQueue, ticksPerLevel);
+			profiler.reset();
+			play(simulation, levelManager, canvas.getGraphicsContext2D(), renderQueue, ticksPerLevel);
+
+			System.out.print("Level " + (levelIndex + 1) + ": ");
+			profiler.printReport(System.out);
+
+			for (int phase = 0; phase < PHASE_NAMES.length; phase++) {
+
+				double max = phase == DRAW ? maxDrawBytesPerTick : maxBytesPerTick;
+
+				if (profiler.getBytesPerTick(phase) > max) {
+
+					System.out.printf("  FAIL: %s allocates more than %.1f bytes/tick%n", PHASE_NAMES[phase], max);
+					failed = true;
+
+				}
+
+			}
+
+		}
+
+		System.exit(failed ? 1 : 0);
+
+	}
+
+	/**
+	 * Plays the current Level with scripted input, launching Portals, rewinding and
+	 * restarting it now and then, and draws every tick the way the game draws a frame
+	 * @param simulation the Simulation to play
+	 * @param levelManager the LevelManager whose current Level is being played
+	 * @param gc the GraphicsContext to draw on
+	 * @param renderQueue the RenderQueue to draw with
+	 * @param ticks the number of ticks to play
+	 */
+	private static void play(Simulation simulation, LevelManager levelManager, GraphicsContext gc,
+			RenderQueue renderQueue, int ticks) {
+
+		InputFrame input = new InputFrame();
+
+		for (int tick = 0; tick < ticks; tick++) {
+
+			input.setRightPresses(tick % 8 == 0 ? 1 : 0);
+			input.setLeftPresses(tick % 13 == 0 ? 1 : 0);
+			input.setJumpPressed(tick % 90 == 0);
+			input.setRestartPressed(tick % 1200 == 1199);
+			input.setRewindPressed(tick % 600 >= 500 && tick % 600 < 530);
+
+			if (tick % 45 == 0) {
+
+				input.launchPortal(tick % 90 == 0 ? "LEFT" : "RIGHT", tick * 37 % 360);
+
+			}
+
+			simulation.step(input);
+			input.clear();
+
+			AllocationProfiler profiler = simulation.getAllocationProfiler();
+			profiler.begin(DRAW);
+
+			gc.clearRect(0, 0, simulation.getWidth(), simulation.getHeight());
+			simulation.getPlayer().draw(renderQueue);
+			simulation.getPlayer().drawPortals(renderQueue);
+			levelManager.drawCurrentLevel(renderQueue);
+			renderQueue.flush(gc);
+
+			profiler.end(DRAW);
+
+		}
+
+	}
+
+	/**
+	 * Gets the average bytes allocated by a phase in each tick
+	 * @param phase the phase, such as PLAYER_UPDATE
+	 * @return the bytes per tick
+	 */
+	public double getBytesPerTick(int phase) {
+		return ticks == 0 ? 0 : (double) bytes[phase] / ticks;
+	}
+
+	/**
+	 * Gets the bytes allocated by a phase
+	 * @param phase the phase, such as PLAYER_UPDATE
+	 * @return the number of bytes
+	 */
+	public long getBytes(int phase) {
+		return bytes[phase];
+	}
+
+	/**
+	 * Gets the number of times a phase has run
+	 * @param phase the phase, such as PLAYER_UPDATE
+	 * @return the number of runs
+	 */
+	public long getRuns(int phase) {
+		return runs[phase];
+	}
+
+	/**
+	 * Gets the number of ticks counted
+	 * @return the number of ticks
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+
+}
@@ -0,0 +1,325 @@
+import java.util.Arrays;
+
+import javafx.scene.paint.Paint;
+
+/**
+ * Works out which parts of a Canvas have to be drawn again from one frame to the next.
+ * Each frame, the bounds and fill of everything drawn on the Canvas are added in the
+ * order they are drawn, usually straight from the frame's RenderQueue. Whatever was
+ * added at the same position in the previous frame with the same bounds and fill looks
+ * the same, so only the places where the rest were and now are have to be cleared and
+ * drawn again. Bounds are rounded out to whole pixels, with an extra pixel on each side
+ * for the anti-aliased edges.
+ *
+ * When the dirty rectangles would cover too much of the Canvas, or there are too many
+ * of them to clip to cheaply, the whole Canvas is drawn again instead.
+ */
+public class DirtyRegion {
+
+	public static final int DEFAULT_MAX_RECTANGLES = 64;
+	public static final double DEFAULT_MAX_COVERAGE = 0.5;
+
+	private int width;
+	private int height;
+
+	private int maxRectangles = DEFAULT_MAX_RECTANGLES;
+	private double maxCoverage = DEFAULT_MAX_COVERAGE;
+
+	// The pixel bounds of what was drawn, as minX, minY, maxX, maxY(exclusive) for each
+	// object, and the Paint it was drawn with
+	private int[] previousBounds = new int[64];
+	private Paint[] previousFills = new Paint[16];
+	private int previousCount = 0;
+	private int[] currentBounds = new int[64];
+	private Paint[] currentFills = new Paint[16];
+	private int currentCount = 0;
+
+	private int[] dirtyBounds = new int[4 * DEFAULT_MAX_RECTANGLES];
+	private int dirtyCount = 0;
+	private long dirtyPixels = 0;
+	private boolean fullRedraw = true;
+	private boolean invalidated = true;
+
+	/**
+	 * Creates a DirtyRegion for a Canvas. The first frame is always drawn in full.
+	 * @param width the width of the Canvas
+	 * @param height the height of the Canvas
+	 */
+	public DirtyRegion(int width, int height) {
+
+		this.width = width;
+		this.height = height;
+
+	}
+
+	/**
+	 * Makes the next frame be drawn in full, for when the Canvas was changed some other way
+	 */
+	public void invalidate() {
+
+		invalidated = true;
+
+	}
+
+	/**
+	 * Starts a new frame, keeping what was added in the last one to compare against
+	 */
+	public void beginFrame() {
+
+		int[] bounds = previousBounds;
+		previousBounds = currentBounds;
+		currentBounds = bounds;
+
+		Paint[] fills = previousFills;
+		previousFills = currentFills;
+		currentFills = fills;
+
+		previousCount = currentCount;
+		currentCount = 0;
+
+	}
+
+	/**
+	 * Adds something drawn in this frame
+	 * @param x the left x coordinate of its bounds
+	 * @param y the top y coordinate of its bounds
+	 * @param width the width of its bounds
+	 * @param height the height of its bounds
+	 * @param fill the Paint it's drawn with
+	 */
+	public void add(double x, double y, double width, double height, Paint fill) {
+
+		if (currentCount == currentFills.length) {
+
+			currentFills = Arrays.copyOf(currentFills, currentCount * 2);
+			currentBounds = Arrays.copyOf(currentBounds, currentCount * 8);
+
+		}
+
+		int i = currentCount * 4;
+		currentBounds[i] = clamp((int) Math.floor(x) - 1, this.width);
+		currentBounds[i + 1] = clamp((int) Math.floor(y) - 1, this.height);
+		currentBounds[i + 2] = clamp((int) Math.ceil(x + width) + 1, this.width);
+		currentBounds[i + 3] = clamp((int) Math.ceil(y + height) + 1, this.height);
+		currentFills[currentCount] = fill;
+
+		currentCount++;
+
+	}
+
+	/**
+	 * Adds every shape in a RenderQueue, in the order they were queued
+	 * @param renderQueue the RenderQueue of the frame
+	 */
+	public void add(RenderQueue renderQueue) {
+
+		for (int i = 0; i < renderQueue.size(); i++) {
+
+			add(renderQueue.getX(i), renderQueue.getY(i), renderQueue.getWidth(i), renderQueue.getHeight(i),
+					renderQueue.getFill(i));
+
+		}
+
+	}
+
+	/**
+	 * Compares this frame to the last one and works out the dirty rectangles, or
+	 * that the whole Canvas has to be drawn again
+	 */
+	public void computeDirtyRectangles() {
+
+		dirtyCount = 0;
+		dirtyPixels = 0;
+		fullRedraw = invalidated;
+		invalidated = false;
+
+		int common = Math.min(previousCount, currentCount);
+
+		for (int i = 0; i < common && !fullRedraw; i++) {
+
+			int b = i * 4;
+
+			if (previousFills[i] == currentFills[i] && previousBounds[b] == currentBounds[b]
+					&& previousBounds[b + 1] == currentBounds[b + 1] && previousBounds[b + 2] == currentBounds[b + 2]
+					&& previousBounds[b + 3] == currentBounds[b + 3]) {
+
+				continue;
+
+			}
+
+			// Where it was and where it is are usually close together, so they're cleared as one rectangle
+			if (previousBounds[b] <= currentBounds[b + 2] && currentBounds[b] <= previousBounds[b + 2]
+					&& previousBounds[b + 1] <= currentBounds[b + 3] && currentBounds[b + 1] <= previousBounds[b + 3]) {
+
+				addDirty(Math.min(previousBounds[b], currentBounds[b]), Math.min(previousBounds[b + 1], currentBounds[b + 1]),
+						Math.max(previousBounds[b + 2], currentBounds[b + 2]), Math.max(previousBounds[b + 3], currentBounds[b + 3]));
+
+			} else {
+
+				addDirty(previousBounds, b);
+				addDirty(currentBounds, b);
+
+			}
+
+		}
+
+		for (int i = common; i < previousCount && !fullRedraw; i++) {
+
+			addDirty(previousBounds, i * 4);
+
+		}
+		for (int i = common; i < currentCount && !fullRedraw; i++) {
+
+			addDirty(currentBounds, i * 4);
+
+		}
+
+		if (fullRedraw) {
+
+			dirtyCount = 0;
+			dirtyPixels = (long) width * height;
+
+		}
+
+	}
+
+	private void addDirty(int[] bounds, int b) {
+
+		addDirty(bounds[b], bounds[b + 1], bounds[b + 2], bounds[b + 3]);
+
+	}
+
+	private void addDirty(int minX, int minY, int maxX, int maxY) {
+
+		if (minX >= maxX || minY >= maxY) {
+
+			return; // nothing of it is on the Canvas
+
+		}
+
+		dirtyPixels += (long) (maxX - minX) * (maxY - minY);
+
+		if (dirtyCount == maxRectangles || dirtyPixels > maxCoverage * width * height) {
+
+			fullRedraw = true;
+			return;
+
+		}
+
+		if (dirtyCount * 4 == dirtyBounds.length) {
+
+			dirtyBounds = Arrays.copyOf(dirtyBounds, dirtyBounds.length * 2);
+
+		}
+
+		int d = dirtyCount * 4;
+		dirtyBounds[d] = minX;
+		dirtyBounds[d + 1] = minY;
+		dirtyBounds[d + 2] = maxX;
+		dirtyBounds[d + 3] = maxY;
+		dirtyCount++;
+
+	}
+
+	private static int clamp(int value, int max) {
+
+		return Math.max(0, Math.min(max, value));
+
+	}
+
+	/**
+	 * Checks if the whole Canvas has to be drawn again this frame
+	 * @return true if the whole Canvas has to be drawn again, false if only the dirty rectangles do
+	 */
+	public boolean isFullRedraw() {
+		return fullRedraw;
+	}
+
+	/**
+	 * Gets the number of dirty rectangles this frame
+	 * @return the number of dirty rectangles, which is 0 if the whole Canvas has to be drawn again
+	 */
+	public int getDirtyCount() {
+		return dirtyCount;
+	}
+
+	/**
+	 * Gets the left x coordinate of a dirty rectangle
+	 * @param i the index of the dirty rectangle
+	 * @return the left x coordinate
+	 */
+	public int getDirtyX(int i) {
+		return dirtyBounds[i * 4];
+	}
+
+	/**
+	 * Gets the top y coordinate of a dirty rectangle
+	 * @param i the index of the dirty rectangle
+	 * @return the top y coordinate
+	 */
+	public int getDirtyY(int i) {
+		return dirtyBounds[i * 4 + 1];
+	}
+
+	/**
+	 * Gets the width of a dirty rectangle
+	 * @param i the index of the dirty rectangle
+	 * @return the width
+	 */
+	public int getDirtyWidth(int i) {
+		return dirtyBounds[i * 4 + 2] - dirtyBounds[i * 4];
+	}
+
+	/**
+	 * Gets the height of a dirty rectangle
+	 * @param i the index of the dirty rectangle
+	 * @return the height
+	 */
+	public int getDirtyHeight(int i) {
+		return dirtyBounds[i * 4 + 3] - dirtyBounds[i * 4 + 1];
+	}
+
+	/**
+	 * Gets the number of pixels cleared and drawn again this frame. Where dirty
+	 * rectangles overlap, their pixels are counted once for each rectangle.
+	 * @return the number of pixels
+	 */
+	public long getPixelsTouched() {
+		return dirtyPixels;
+	}
+
+	/**
+	 * Gets the largest number of dirty rectangles before the whole Canvas is drawn again instead
+	 * @return the maximum number of dirty rectangles
+	 */
+	public int getMaxRectangles() {
+		return maxRectangles;
+	}
+
+	/**
+	 * Sets the largest number of dirty rectangles before the whole Canvas is drawn again instead
+	 * @param maxRectangles the new maximum number of dirty rectangles
+	 */
+	public void setMaxRectangles(int maxRectangles) {
+		this.maxRectangles = maxRectangles;
+	}
+
+	/**
+	 * Gets the largest part of the Canvas the dirty rectangles can cover before the
+	 * whole Canvas is drawn again instead
+	 * @return the maximum coverage, from 0 to 1
+	 */
+	public double getMaxCoverage() {
+		return maxCoverage;
+	}
+
+	/**
+	 * Sets the largest part of the Canvas the dirty rectangles can cover before the
+	 * whole Canvas is drawn again instead
+	 * @param maxCoverage the new maximum coverage, from 0 to 1
+	 */
+	public void setMaxCoverage(double maxCoverage) {
+		this.maxCoverage = maxCoverage;
+	}
+
+}
@@ -0,0 +1,148 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live metrics of the game engine, published as an MBean so the game can be watched
+ * from JConsole or VisualVM. The game thread records each tick, and the counters are
+ * LongAdders, so reading them from the JMX thread doesn't contend with it. The Player's
+ * collision tests and portal transits are counted by the Simulation in plain fields,
+ * and only added to the counters once per tick.
+ */
+public class EngineMetrics implements EngineMetricsMBean {
+
+	public static final String OBJECT_NAME = "PortalGame:type=EngineMetrics";
+
+	private com.sun.management.ThreadMXBean threadBean = null; // null if the JVM can't measure allocations
+
+	private LongAdder ticks = new LongAdder();
+	private LongAdder tickNanos = new LongAdder();
+	private LongAccumulator peakTickNanos = new LongAccumulator(Math::max, 0);
+	private LongAdder collisionTests = new LongAdder();
+	private LongAdder portalTransits = new LongAdder();
+	private LongAdder allocatedBytes = new LongAdder();
+
+	private volatile int hazardCount = 0;
+	private volatile int currentLevelIndex = -1;
+
+	// The Simulation's counts when the last tick was recorded
+	private long lastCollisionTests = 0;
+	private long lastPortalTransits = 0;
+
+	/**
+	 * Creates EngineMetrics, measuring allocations if the JVM supports it
+	 */
+	public EngineMetrics() {
+
+		if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+
+			threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+			if (!threadBean.isThreadAllocatedMemorySupported() || !threadBean.isThreadAllocatedMemoryEnabled()) {
+
+				threadBean = null;
+
+			}
+
+		}
+
+	}
+
+	/**
+	 * Gets the number of bytes allocated by the calling thread so far, to be passed to
+	 * recordTick after the tick
+	 * @return the number of bytes, or 0 if the JVM can't measure them
+	 */
+	public long getAllocatedBytes() {
+
+		return threadBean != null ? threadBean.getCurrentThreadAllocatedBytes() : 0;
+
+	}
+
+	/**
+	 * Records a tick of the Simulation
+	 * @param simulation the Simulation which was stepped
+	 * @param levelIndex the index of the current Level
+	 * @param startNanos System.nanoTime() from before the tick
+	 * @param startAllocatedBytes getAllocatedBytes() from before the tick
+	 */
+	public void recordTick(Simulation simulation, int levelIndex, long startNanos, long startAllocatedBytes) {
+
+		long nanos = System.nanoTime() - startNanos;
+
+		ticks.increment();
+		tickNanos.add(nanos);
+		peakTickNanos.accumulate(nanos);
+		allocatedBytes.add(getAllocatedBytes() - startAllocatedBytes);
+
+		collisionTests.add(simulation.getCollisionTests() - lastCollisionTests);
+		portalTransits.add(simulation.getPortalTransits() - lastPortalTransits);
+		lastCollisionTests = simulation.getCollisionTests();
+		lastPortalTransits = simulation.getPortalTransits();
+
+		hazardCount = simulation.getLevel().getHazards().size();
+		currentLevelIndex = levelIndex;
+
+	}
+
+	@Override
+	public void reset() {
+
+		ticks.reset();
+		tickNanos.reset();
+		peakTickNanos.reset();
+		collisionTests.reset();
+		portalTransits.reset();
+		allocatedBytes.reset();
+
+	}
+
+	@Override
+	public long getTicksExecuted() {
+		return ticks.sum();
+	}
+
+	@Override
+	public double getAverageTickMillis() {
+		return perTick(tickNanos) / 1e6;
+	}
+
+	@Override
+	public double getPeakTickMillis() {
+		return peakTickNanos.get() / 1e6;
+	}
+
+	@Override
+	public double getCollisionTestsPerTick() {
+		return perTick(collisionTests);
+	}
+
+	@Override
+	public long getPortalTransits() {
+		return portalTransits.sum();
+	}
+
+	@Override
+	public int getHazardCount() {
+		return hazardCount;
+	}
+
+	@Override
+	public int getCurrentLevelIndex() {
+		return currentLevelIndex;
+	}
+
+	@Override
+	public double getAllocatedBytesPerTick() {
+		return threadBean != null ? perTick(allocatedBytes) : -1;
+	}
+
+	private double perTick(LongAdder counter) {
+
+		long ticks = this.ticks.sum();
+
+		return ticks == 0 ? 0 : (double) counter.sum() / ticks;
+
+	}
+
+}
@@ -0,0 +1,60 @@
+/**
+ * The attributes of EngineMetrics, which can be watched from JConsole or VisualVM
+ * while the game is running
+ */
+public interface EngineMetricsMBean {
+
+	/**
+	 * Gets the number of ticks simulated
+	 * @return the number of ticks
+	 */
+	long getTicksExecuted();
+
+	/**
+	 * Gets the average time taken by a tick
+	 * @return the average tick time in milliseconds
+	 */
+	double getAverageTickMillis();
+
+	/**
+	 * Gets the longest time taken by a tick
+	 * @return the peak tick time in milliseconds
+	 */
+	double getPeakTickMillis();
+
+	/**
+	 * Gets the average number of platforms the Player was checked for collisions against in a tick
+	 * @return the number of collision tests per tick
+	 */
+	double getCollisionTestsPerTick();
+
+	/**
+	 * Gets the number of times the Player went all the way through a Portal
+	 * @return the number of portal transits
+	 */
+	long getPortalTransits();
+
+	/**
+	 * Gets the number of Hazards in the current Level
+	 * @return the number of Hazards
+	 */
+	int getHazardCount();
+
+	/**
+	 * Gets the index of the current Level
+	 * @return the index of the current Level
+	 */
+	int getCurrentLevelIndex();
+
+	/**
+	 * Gets the average number of bytes allocated by a tick
+	 * @return the bytes allocated per tick, or -1 if the JVM can't measure them
+	 */
+	double getAllocatedBytesPerTick();
+
+	/**
+	 * Forgets every tick counted so far, such as after the game has warmed up
+	 */
+	void reset();
+
+}
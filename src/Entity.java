@@ -1,11 +1,6 @@
 
-import java.util.ArrayList;
-
-import javafx.geometry.Bounds;
 import javafx.geometry.Point2D;
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
-import javafx.scene.shape.Rectangle;
 
 public abstract class Entity {
 	
@@ -17,6 +12,19 @@ public abstract class Entity {
 	private double xVelocity;
 	private double yVelocity;
 	
+	// Reused by the bounds methods so that collision checks don't create new objects
+	private AABB bounds = new AABB();
+	private AABB topBounds = new AABB();
+	private AABB bottomBounds = new AABB();
+	private AABB leftBounds = new AABB();
+	private AABB rightBounds = new AABB();
+	
+	private PlatformGrid.Result nearbyPlatforms = new PlatformGrid.Result();
+	private AABB searchedArea = new AABB();
+	
+	// How far past the Entity's bounds to look for platforms it may collide with
+	private static final double COLLISION_QUERY_PADDING = 16;
+	
 	public Entity() {}
 	
 	/**
@@ -48,15 +56,12 @@ public abstract class Entity {
 	}
 	
 	/**
-	 * Draws the Entity on a canvas
-	 * @param gc the GraphicsContext of the Canvas to draw the Entity on
+	 * Queues the Entity to be drawn
+	 * @param renderQueue the RenderQueue of the Canvas to draw the Entity on
 	 */
-	public void draw(GraphicsContext gc) {
+	public void draw(RenderQueue renderQueue) {
 		
-		gc.save();
-		gc.setFill(getColor());
-		gc.fillRect(getX(), getY(), getWidth(), getHeight());
-		gc.restore();
+		renderQueue.fillRect(RenderQueue.ENTITY_LAYER, getColor(), getX(), getY(), getWidth(), getHeight());
 		
 	}
 	
@@ -203,138 +208,201 @@ public abstract class Entity {
 	}
 	
 	/**
-	 * Gets a Rectangle object which contains the dimensions of the Entity
-	 * @return a Rectangle representation of the Entity
+	 * Gets an AABB which contains the dimensions of the Entity. The same AABB
+	 * is returned(and updated) every time this method is called.
+	 * @return an AABB representation of the Entity
 	 */
-	public Rectangle getRectangle() {
+	public AABB getBounds() {
 
-		return new Rectangle(getX(), getY(), getWidth(), getHeight());
+		return bounds.set(getX(), getY(), getWidth(), getHeight());
 
 	}
 
 	/**
-	 * Gets a Rectangle representing a portion of the top side of the Entity's Rectangle, in which
-	 * the left and right corners of the top of the Entity's Rectangle have been removed for 
+	 * Gets an AABB representing a portion of the top side of the Entity's bounds, in which
+	 * the left and right corners of the top of the Entity's bounds have been removed for 
 	 * collision handling purposes
-	 * @return a Rectangle representing the top collision area of the Entity
+	 * @return an AABB representing the top collision area of the Entity
 	 */
-	public Rectangle getTopBounds() {
-		return new Rectangle(getX() + getWidth() / 4, getY(), getWidth() / 2, getHeight() / 8);
+	public AABB getTopBounds() {
+		return topBounds.set(getX() + getWidth() / 4, getY(), getWidth() / 2, getHeight() / 8);
 	}
 
 	/**
-	 * Gets a Rectangle representing a portion of the right side of the Entity's Rectangle, in which
-	 * the top and bottom corners of the right side of the Entity's Rectangle have been removed for 
+	 * Gets an AABB representing a portion of the right side of the Entity's bounds, in which
+	 * the top and bottom corners of the right side of the Entity's bounds have been removed for 
 	 * collision handling purposes
-	 * @return a Rectangle representing the right collision area of the Entity
+	 * @return an AABB representing the right collision area of the Entity
 	 */
-	public Rectangle getRightBounds() {
-		return new Rectangle(getX() + (5 * getWidth()) / 6, getY() + getHeight() / 8, getWidth() / 6,
+	public AABB getRightBounds() {
+		return rightBounds.set(getX() + (5 * getWidth()) / 6, getY() + getHeight() / 8, getWidth() / 6,
 				(6 * getHeight() / 8));
 	}
 
 	/**
-	 * Gets a Rectangle representing a portion of the left side of the Entity's Rectangle, in which
-	 * the top and bottom corners of the left side of the Entity's Rectangle have been removed for 
+	 * Gets an AABB representing a portion of the left side of the Entity's bounds, in which
+	 * the top and bottom corners of the left side of the Entity's bounds have been removed for 
 	 * collision handling purposes
-	 * @return a Rectangle representing the left collision area of the Entity
+	 * @return an AABB representing the left collision area of the Entity
 	 */
-	public Rectangle getLeftBounds() {
+	public AABB getLeftBounds() {
 		// old: return new Rectangle(getX(), getY() + getHeight() / 8, getWidth() / 8, (6 * getHeight() / 8));
-		return new Rectangle(getX(), getY() + getHeight() / 8, getWidth() / 6, (6 * getHeight() / 8));
+		return leftBounds.set(getX(), getY() + getHeight() / 8, getWidth() / 6, (6 * getHeight() / 8));
 	}
 
 	/**
-	 * Gets a Rectangle representing a portion of the bottom side of the Entity's Rectangle, in which
-	 * the left and right corners of the bottom side of the Entity's Rectangle have been removed for 
+	 * Gets an AABB representing a portion of the bottom side of the Entity's bounds, in which
+	 * the left and right corners of the bottom side of the Entity's bounds have been removed for 
 	 * collision handling purposes
-	 * @return a Rectangle representing the bottom collision area of the Entity
+	 * @return an AABB representing the bottom collision area of the Entity
 	 */
-	public Rectangle getBottomBounds() {
-		return new Rectangle(getX() + getWidth() / 4, getY() + (7 * getHeight() / 8), getWidth() / 2,
+	public AABB getBottomBounds() {
+		return bottomBounds.set(getX() + getWidth() / 4, getY() + (7 * getHeight() / 8), getWidth() / 2,
 				(getHeight() / 8) + 0);
 	}
 	
 	/**
-	 * Checks for collisions(intersections) between the Entity and a
-	 * given ArrayList of Rectangle objects, which represent platforms
-	 * or boundaries in the game. If a collision is occurring, this method 
+	 * Checks for collisions(intersections) between the Entity and the
+	 * platforms in a PlatformGrid, which represent platforms
+	 * or boundaries in the game. Only the platforms near the Entity are
+	 * checked, in the same order as the Level's platforms list.
+	 * @param platformGrid the PlatformGrid of the current Level
+	 * @return the number of platforms checked
+	 */
+	public int checkCollisions(PlatformGrid platformGrid) {
+
+		queryNearbyPlatforms(platformGrid);
+
+		int lastCheckedPlatform = -1;
+		int checkedPlatforms = 0;
+
+		for (int i = 0; i < nearbyPlatforms.size(); i++) {
+
+			int platformIndex = nearbyPlatforms.get(i);
+
+			if (platformIndex > lastCheckedPlatform) {
+
+				checkCollision(platformGrid.getPlatform(platformIndex));
+				lastCheckedPlatform = platformIndex;
+				checkedPlatforms++;
+
+				// If resolving the collision moved the Entity out of the searched area, 
+				// search again and continue with the platforms after this one
+				if (!isInsideArea(searchedArea)) {
+
+					queryNearbyPlatforms(platformGrid);
+					i = -1;
+
+				}
+
+			}
+
+		}
+
+		return checkedPlatforms;
+
+	}
+
+	/**
+	 * Finds the platforms near the Entity and stores their indices in nearbyPlatforms
+	 * @param platformGrid the PlatformGrid to search
+	 */
+	private void queryNearbyPlatforms(PlatformGrid platformGrid) {
+
+		// The search area is padded so that small movements don't need a new search
+		searchedArea.set(getX() - COLLISION_QUERY_PADDING, getY() - COLLISION_QUERY_PADDING, 
+				getWidth() + 2 * COLLISION_QUERY_PADDING, getHeight() + 2 * COLLISION_QUERY_PADDING);
+
+		platformGrid.query(searchedArea.getX(), searchedArea.getY(), searchedArea.getWidth(), 
+				searchedArea.getHeight(), nearbyPlatforms);
+
+	}
+
+	/**
+	 * Checks if the Entity is completely inside the given area
+	 * @param area the area to check
+	 * @return true if the Entity is inside the area, false otherwise
+	 */
+	public boolean isInsideArea(AABB area) {
+
+		return getX() >= area.getX() && getY() >= area.getY() 
+				&& getX() + getWidth() <= area.getMaxX() && getY() + getHeight() <= area.getMaxY();
+
+	}
+
+	/**
+	 * Checks for a collision(intersection) between the Entity and a
+	 * platform or boundary in the game. If a collision is occurring, this method 
 	 * determines what type of collision it is by determining what 
 	 * part of the Entity is colliding with another object, and then calls 
 	 * an appropriate method to resolve the collision.
-	 * @param rectangles an ArrayList of Rectangles representing game objects
+	 * @param platform an AABB representing a game object
 	 */
-	public void checkCollisions(ArrayList<Rectangle> rectangles) {
+	public void checkCollision(AABB platform) {
 
 		boolean topCollision;
 		boolean bottomCollision;
 		boolean leftCollision;
 		boolean rightCollision;
 
-		for (Rectangle rectangle : rectangles) {
+		// If the platform intersects the Entity somewhere
+		if (getBounds().intersects(platform)) {
 
-			// If the rectangle intersects the Entity somewhere
-			if (getRectangle().intersects(rectangle.getLayoutBounds())) {
+			// Determine what kind of collision is occurring
+			bottomCollision = getBottomBounds().intersects(platform);
+			topCollision = getTopBounds().intersects(platform);
+			leftCollision = getLeftBounds().intersects(platform);
+			rightCollision = getRightBounds().intersects(platform);
 
-				Bounds otherRectangle = rectangle.getLayoutBounds();
 
-				// Determine what kind of collision is occurring
-				bottomCollision = getBottomBounds().intersects(otherRectangle);
-				topCollision = getTopBounds().intersects(otherRectangle);
-				leftCollision = getLeftBounds().intersects(otherRectangle);
-				rightCollision = getRightBounds().intersects(otherRectangle);
+			// Respond to the collision
+			if (bottomCollision) {
 
+				resolveBottomCollision(platform);
 
-				// Respond to the collision
-				if (bottomCollision) {
-
-					resolveBottomCollision(rectangle);
-
-				}
-				if (topCollision) {
+			}
+			if (topCollision) {
 
-					resolveTopCollision(rectangle);
+				resolveTopCollision(platform);
 
-				}
-				if (leftCollision) {
+			}
+			if (leftCollision) {
 
-					resolveLeftCollision(rectangle);
+				resolveLeftCollision(platform);
 
-				} 
-				if (rightCollision) {
+			} 
+			if (rightCollision) {
 
-					resolveRightCollision(rectangle);
+				resolveRightCollision(platform);
 
-				}
 			}
-
 		}
 
 	}
 
 	/**
 	 * Determines how the Entity should react to a collision on its top side
-	 * @param rectangle the Rectangle which collided with the top side of the Entity
+	 * @param platform the AABB which collided with the top side of the Entity
 	 */
-	public abstract void resolveTopCollision(Rectangle rectangle);
+	public abstract void resolveTopCollision(AABB platform);
 
 	/**
 	 * Determines how the Entity should react to a collision on its bottom side
-	 * @param rectangle the Rectangle which collided with the bottom of the Entity
+	 * @param platform the AABB which collided with the bottom of the Entity
 	 */
-	public abstract void resolveBottomCollision(Rectangle rectangle);
+	public abstract void resolveBottomCollision(AABB platform);
 
 	/**
 	 * Determines how the Entity should react to a collision on its left side
-	 * @param rectangle the Rectangle which collided with the left side of the Entity
+	 * @param platform the AABB which collided with the left side of the Entity
 	 */
-	public abstract void resolveLeftCollision(Rectangle rectangle);
+	public abstract void resolveLeftCollision(AABB platform);
 
 	/**
 	 * Determines how the Entity should react to a collision on its right side
-	 * @param rectangle the Rectangle which collided with the right side of the Entity
+	 * @param platform the AABB which collided with the right side of the Entity
 	 */
-	public abstract void resolveRightCollision(Rectangle rectangle);
+	public abstract void resolveRightCollision(AABB platform);
 	
 	/**
 	 * @return the xVelocity
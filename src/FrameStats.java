@@ -0,0 +1,173 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+
+/**
+ * Times every frame of the GameLoop: the time between frames, the time spent simulating
+ * ticks, and the time spent drawing. The times can be shown over the game as a HUD, and
+ * written to a CSV file as histograms so runs on different builds or machines can be
+ * compared.
+ */
+public class FrameStats {
+
+	// About 4 seconds of frames at 60 frames per second
+	public static final int WINDOW_SIZE = 240;
+
+	private static final Font HUD_FONT = Font.font("Monospaced", FontWeight.BOLD, 13);
+	private static final Color HUD_BACKGROUND = Color.BLACK.deriveColor(0, 1, 1, 0.6);
+	private static final double HUD_WIDTH = 330;
+	private static final double HUD_HEIGHT = 82;
+
+	private FrameTimeHistogram frameTimes = new FrameTimeHistogram(WINDOW_SIZE);
+	private FrameTimeHistogram tickTimes = new FrameTimeHistogram(WINDOW_SIZE);
+	private FrameTimeHistogram renderTimes = new FrameTimeHistogram(WINDOW_SIZE);
+
+	/**
+	 * Records the times of a frame
+	 * @param frameNanos the time since the last frame, or 0 for the first frame after the GameLoop started
+	 * @param tickNanos the time spent simulating ticks this frame
+	 * @param renderNanos the time spent drawing this frame
+	 */
+	public void record(long frameNanos, long tickNanos, long renderNanos) {
+
+		if (frameNanos > 0) {
+
+			frameTimes.record(frameNanos);
+
+		}
+
+		tickTimes.record(tickNanos);
+		renderTimes.record(renderNanos);
+
+	}
+
+	/**
+	 * Draws the frames per second, and the mean, median(p50), p99 and max of each time
+	 * over the last WINDOW_SIZE frames, in the top left corner of a Canvas
+	 * @param gc the GraphicsContext of the Canvas
+	 */
+	public void draw(GraphicsContext gc) {
+
+		gc.clearRect(0, 0, HUD_WIDTH, HUD_HEIGHT);
+
+		gc.setFill(HUD_BACKGROUND);
+		gc.fillRect(0, 0, HUD_WIDTH, HUD_HEIGHT);
+
+		double meanFrameNanos = frameTimes.getMean();
+
+		gc.setFill(Color.WHITE);
+		gc.setFont(HUD_FONT);
+		gc.fillText(String.format("%5.1f FPS     mean   p50   p99   max", meanFrameNanos > 0 ? 1e9 / meanFrameNanos : 0), 6, 16);
+		gc.fillText(format("tick ms  ", tickTimes), 6, 36);
+		gc.fillText(format("render ms", renderTimes), 6, 54);
+		gc.fillText(format("frame ms ", frameTimes), 6, 72);
+
+	}
+
+	private static String format(String name, FrameTimeHistogram histogram) {
+
+		return String.format("%s %6.2f%6.2f%6.2f%6.2f", name, histogram.getMean() / 1e6,
+				histogram.getPercentile(50) / 1e6, histogram.getPercentile(99) / 1e6, histogram.getMax() / 1e6);
+
+	}
+
+	/**
+	 * Erases the HUD from a Canvas
+	 * @param gc the GraphicsContext of the Canvas
+	 */
+	public void clearHud(GraphicsContext gc) {
+
+		gc.clearRect(0, 0, HUD_WIDTH, HUD_HEIGHT);
+
+	}
+
+	/**
+	 * Writes the histograms of every frame recorded to a CSV file, replacing it if it
+	 * exists. Each line holds the number of frames, tick times, and render times
+	 * in one bucket; empty buckets are left out.
+	 * @param path the CSV file
+	 * @throws IOException if the file can't be written to
+	 */
+	public void writeCsv(Path path) throws IOException {
+
+		try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+
+			writer.write("from_ms,to_ms,frames,ticks,renders");
+			writer.newLine();
+
+			for (int bucket = 0; bucket < FrameTimeHistogram.BUCKET_COUNT; bucket++) {
+
+				long frames = frameTimes.getTotalCount(bucket);
+				long ticks = tickTimes.getTotalCount(bucket);
+				long renders = renderTimes.getTotalCount(bucket);
+
+				if (frames + ticks + renders == 0) {
+
+					continue;
+
+				}
+
+				// The last bucket holds everything longer, so it has no upper edge
+				String to = bucket == FrameTimeHistogram.BUCKET_COUNT - 1 ? ""
+						: String.valueOf((bucket + 1) * FrameTimeHistogram.BUCKET_NANOS / 1e6);
+
+				writer.write(bucket * FrameTimeHistogram.BUCKET_NANOS / 1e6 + "," + to + "," + frames + "," + ticks + ","
+						+ renders);
+				writer.newLine();
+
+			}
+
+		}
+
+	}
+
+	/**
+	 * Sums up every frame recorded, for printing when the game exits
+	 * @return the mean, p50, p99 and max of the tick, render and frame times
+	 */
+	public String getSummary() {
+
+		return String.format("Frames: %d; tick %s; render %s; frame %s", tickTimes.getTotalCount(),
+				summarize(tickTimes), summarize(renderTimes), summarize(frameTimes));
+
+	}
+
+	private static String summarize(FrameTimeHistogram histogram) {
+
+		return String.format("%.2f/%.2f/%.2f/%.2f ms(mean/p50/p99/max)", histogram.getTotalMean() / 1e6,
+				histogram.getTotalPercentile(50) / 1e6, histogram.getTotalPercentile(99) / 1e6,
+				histogram.getTotalMax() / 1e6);
+
+	}
+
+	/**
+	 * Gets the times between frames
+	 * @return the FrameTimeHistogram of the times between frames
+	 */
+	public FrameTimeHistogram getFrameTimes() {
+		return frameTimes;
+	}
+
+	/**
+	 * Gets the times spent simulating ticks in each frame
+	 * @return the FrameTimeHistogram of the tick times
+	 */
+	public FrameTimeHistogram getTickTimes() {
+		return tickTimes;
+	}
+
+	/**
+	 * Gets the times spent drawing each frame
+	 * @return the FrameTimeHistogram of the render times
+	 */
+	public FrameTimeHistogram getRenderTimes() {
+		return renderTimes;
+	}
+
+}
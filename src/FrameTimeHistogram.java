@@ -0,0 +1,213 @@
+import java.util.Arrays;
+
+/**
+ * A histogram of durations, such as how long each frame took to draw. Durations are
+ * counted into fixed-width buckets, both for the whole run and for a rolling window
+ * of the most recent durations, so percentiles of either can be read at any time.
+ * Every array is allocated up front, so recording a duration never allocates.
+ *
+ * Percentiles are only as precise as the buckets: they are given as the upper edge
+ * of the bucket they fall in, but never more than the largest duration recorded.
+ */
+public class FrameTimeHistogram {
+
+	public static final long BUCKET_NANOS = 100_000; // 0.1 ms
+	public static final int BUCKET_COUNT = 1000; // up to 100 ms; the last bucket also holds anything longer
+
+	// The most recent durations, oldest first from windowNext once the window is full
+	private long[] window;
+	private int windowNext = 0;
+	private int windowFilled = 0;
+	private long windowSum = 0;
+	private int[] windowCounts = new int[BUCKET_COUNT];
+
+	private long[] totalCounts = new long[BUCKET_COUNT];
+	private long totalCount = 0;
+	private long totalSum = 0;
+	private long totalMax = 0;
+
+	/**
+	 * Creates a FrameTimeHistogram
+	 * @param windowSize the number of most recent durations in the rolling window
+	 */
+	public FrameTimeHistogram(int windowSize) {
+
+		window = new long[windowSize];
+
+	}
+
+	/**
+	 * Records a duration, dropping the oldest duration from the window if it's full
+	 * @param nanos the duration in nanoseconds
+	 */
+	public void record(long nanos) {
+
+		int bucket = getBucket(nanos);
+
+		if (windowFilled == window.length) {
+
+			windowCounts[getBucket(window[windowNext])]--;
+			windowSum -= window[windowNext];
+
+		} else {
+
+			windowFilled++;
+
+		}
+
+		window[windowNext] = nanos;
+		windowNext = (windowNext + 1) % window.length;
+		windowSum += nanos;
+		windowCounts[bucket]++;
+
+		totalCounts[bucket]++;
+		totalCount++;
+		totalSum += nanos;
+		totalMax = Math.max(totalMax, nanos);
+
+	}
+
+	private static int getBucket(long nanos) {
+
+		return (int) Math.min(Math.max(nanos, 0) / BUCKET_NANOS, BUCKET_COUNT - 1);
+
+	}
+
+	/**
+	 * Gets a percentile of the durations in the window
+	 * @param percentile the percentile, from 0 to 100
+	 * @return the duration in nanoseconds, or 0 if nothing was recorded
+	 */
+	public long getPercentile(double percentile) {
+
+		return getPercentile(percentile, windowFilled, getMax(), windowCounts);
+
+	}
+
+	/**
+	 * Gets a percentile of every duration recorded
+	 * @param percentile the percentile, from 0 to 100
+	 * @return the duration in nanoseconds, or 0 if nothing was recorded
+	 */
+	public long getTotalPercentile(double percentile) {
+
+		return getPercentile(percentile, totalCount, totalMax, null);
+
+	}
+
+	private long getPercentile(double percentile, long count, long max, int[] windowCounts) {
+
+		if (count == 0) {
+
+			return 0;
+
+		}
+
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+
+		for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+
+			seen += windowCounts != null ? windowCounts[bucket] : totalCounts[bucket];
+
+			if (seen >= rank) {
+
+				return Math.min((bucket + 1) * BUCKET_NANOS, max);
+
+			}
+
+		}
+
+		return max;
+
+	}
+
+	/**
+	 * Gets the largest duration in the window
+	 * @return the duration in nanoseconds, or 0 if nothing was recorded
+	 */
+	public long getMax() {
+
+		long max = 0;
+
+		for (int i = 0; i < windowFilled; i++) {
+
+			max = Math.max(max, window[i]);
+
+		}
+
+		return max;
+
+	}
+
+	/**
+	 * Gets the mean of the durations in the window
+	 * @return the mean in nanoseconds, or 0 if nothing was recorded
+	 */
+	public double getMean() {
+
+		return windowFilled == 0 ? 0 : (double) windowSum / windowFilled;
+
+	}
+
+	/**
+	 * Gets the mean of every duration recorded
+	 * @return the mean in nanoseconds, or 0 if nothing was recorded
+	 */
+	public double getTotalMean() {
+
+		return totalCount == 0 ? 0 : (double) totalSum / totalCount;
+
+	}
+
+	/**
+	 * Forgets every duration recorded
+	 */
+	public void clear() {
+
+		windowNext = 0;
+		windowFilled = 0;
+		windowSum = 0;
+		Arrays.fill(windowCounts, 0);
+
+		Arrays.fill(totalCounts, 0);
+		totalCount = 0;
+		totalSum = 0;
+		totalMax = 0;
+
+	}
+
+	/**
+	 * Gets the number of durations recorded in a bucket over the whole run
+	 * @param bucket the index of the bucket, which holds durations from bucket * BUCKET_NANOS
+	 * @return the number of durations
+	 */
+	public long getTotalCount(int bucket) {
+		return totalCounts[bucket];
+	}
+
+	/**
+	 * Gets the number of durations recorded over the whole run
+	 * @return the number of durations
+	 */
+	public long getTotalCount() {
+		return totalCount;
+	}
+
+	/**
+	 * Gets the largest duration recorded over the whole run
+	 * @return the duration in nanoseconds
+	 */
+	public long getTotalMax() {
+		return totalMax;
+	}
+
+	/**
+	 * Gets the number of durations in the window
+	 * @return the number of durations
+	 */
+	public int getWindowCount() {
+		return windowFilled;
+	}
+
+}
@@ -0,0 +1,169 @@
+
+import javafx.animation.AnimationTimer;
+
+/**
+ * An AnimationTimer which advances the game in fixed-length ticks, independent
+ * of the refresh rate of the screen. Elapsed frame time is added to an
+ * accumulator, and one tick is simulated for every TICK_NANOS stored in it.
+ * The game is drawn once per frame, however many ticks were simulated.
+ * Ticks are only simulated while the game's GameState is PLAYING. The time
+ * spent simulating and drawing each frame is recorded in the game's FrameStats.
+ */
+public class GameLoop extends AnimationTimer {
+
+	// The length of one simulated tick (60 ticks per second)
+	public static final long TICK_NANOS = 1_000_000_000L / 60;
+
+	// The most ticks simulated in one frame before the remaining time is dropped
+	public static final int MAX_TICKS_PER_FRAME = 5;
+
+	private PortalGame gameObject;
+
+	private long lastFrameTime = -1;
+	private long accumulatedTime = 0;
+
+	private boolean running = false;
+
+	/**
+	 * Creates a GameLoop which ticks and draws the given PortalGame
+	 * @param gameObject the PortalGame instance
+	 */
+	public GameLoop(PortalGame gameObject) {
+
+		setGameObject(gameObject);
+
+	}
+
+	/**
+	 * Adds the time since the last frame to the accumulator, simulates as many
+	 * ticks as the accumulator holds(up to MAX_TICKS_PER_FRAME), draws the game,
+	 * and then records how long each part took
+	 * @param now the timestamp of the current frame in nanoseconds
+	 */
+	@Override
+	public void handle(long now) {
+
+		if (lastFrameTime < 0) {
+
+			lastFrameTime = now;
+
+		}
+
+		long frameTime = now - lastFrameTime;
+		accumulatedTime += frameTime;
+		lastFrameTime = now;
+
+		if (!getGameObject().getGameState().isSimulating()) {
+
+			// Time which passes while the game is paused or over is not simulated
+			accumulatedTime = 0;
+
+		} else if (getGameObject().getInput().isRestartPressed()) {
+
+			// A restart is simulated this frame, however little time has passed
+			accumulatedTime = Math.max(accumulatedTime, TICK_NANOS);
+
+		}
+
+		long tickStart = System.nanoTime();
+
+		int ticks = 0;
+		while (accumulatedTime >= TICK_NANOS && isRunning() && getGameObject().getGameState().isSimulating()) {
+
+			if (ticks == MAX_TICKS_PER_FRAME) {
+
+				// The game can't keep up, so drop the time instead of trying to
+				// catch up with it(which would take even longer next frame)
+				accumulatedTime = 0;
+				break;
+
+			}
+
+			getGameObject().tickGame();
+			accumulatedTime -= TICK_NANOS;
+			ticks++;
+
+		}
+
+		long renderStart = System.nanoTime();
+
+		AllocationProfiler allocationProfiler = getGameObject().getSimulation().getAllocationProfiler();
+
+		if (isRunning()) {
+
+			if (allocationProfiler != null) {
+
+				allocationProfiler.begin(AllocationProfiler.DRAW);
+
+			}
+
+			getGameObject().drawGame();
+
+			if (allocationProfiler != null) {
+
+				allocationProfiler.end(AllocationProfiler.DRAW);
+
+			}
+
+		}
+
+		FrameStats frameStats = getGameObject().getFrameStats();
+		if (frameStats != null && isRunning()) {
+
+			frameStats.record(frameTime, renderStart - tickStart, System.nanoTime() - renderStart);
+			getGameObject().drawHud();
+
+		}
+
+	}
+
+	/**
+	 * Starts the GameLoop. Time which passed while the GameLoop was stopped
+	 * is not simulated.
+	 */
+	@Override
+	public void start() {
+
+		lastFrameTime = -1;
+		accumulatedTime = 0;
+		running = true;
+		super.start();
+
+	}
+
+	/**
+	 * Stops the GameLoop
+	 */
+	@Override
+	public void stop() {
+
+		running = false;
+		super.stop();
+
+	}
+
+	/**
+	 * Checks if the GameLoop is currently running
+	 * @return true if the GameLoop is running, false otherwise
+	 */
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * Gets the PortalGame instance
+	 * @return the instance
+	 */
+	public PortalGame getGameObject() {
+		return gameObject;
+	}
+
+	/**
+	 * Sets the PortalGame instance
+	 * @param gameObject the new instance
+	 */
+	public void setGameObject(PortalGame gameObject) {
+		this.gameObject = gameObject;
+	}
+
+}
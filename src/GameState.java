@@ -0,0 +1,21 @@
+/**
+ * The state of the game while its Scene is showing. The Simulation only advances
+ * while the game is PLAYING; in every other state the last frame stays on screen
+ * with an overlay drawn over it.
+ */
+public enum GameState {
+
+	PLAYING,
+	PAUSED,
+	LEVEL_COMPLETED,
+	FAILED;
+
+	/**
+	 * Checks if the Simulation advances in this state
+	 * @return true for PLAYING, false otherwise
+	 */
+	public boolean isSimulating() {
+		return this == PLAYING;
+	}
+
+}
@@ -0,0 +1,525 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import javafx.scene.paint.Color;
+
+/**
+ * Stores the Hazards of a Level as columns of primitive arrays(one array for the
+ * x coordinates of every Hazard, one for the y coordinates, and so on) instead of
+ * as separate objects. A Hazard is referred to by its index in the store.
+ * Updating every Hazard is then a loop over a few arrays, and resetting them
+ * is a copy from the saved initial state.
+ */
+public class HazardStore {
+
+	private static final int DEFAULT_CAPACITY = 4;
+
+	private int size = 0;
+
+	private double[] x;
+	private double[] y;
+	private double[] width;
+	private double[] height;
+	private double[] xVelocity;
+	private double[] yVelocity;
+	private Color[] color;
+
+	// The positions and velocities restored by resetToInitialState
+	private double[] initialX = new double[0];
+	private double[] initialY = new double[0];
+	private double[] initialXVelocity = new double[0];
+	private double[] initialYVelocity = new double[0];
+
+	// Reused when updating on the calling thread so that collision checks don't create new objects
+	private PlatformGrid.Result nearbyPlatforms = new PlatformGrid.Result();
+
+	// How far past a Hazard's bounds to look for platforms it may collide with
+	private static final double COLLISION_QUERY_PADDING = 16;
+
+	// Stores with fewer Hazards than this are updated on the calling thread, since
+	// splitting the work up costs more than it saves for small Levels
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 4096;
+
+	// The number of Hazards each parallel task updates itself instead of splitting further
+	private static final int PARALLEL_CHUNK_SIZE = 1024;
+
+	// Each worker thread searches the PlatformGrid with its own Result
+	private static final ThreadLocal<PlatformGrid.Result> WORKER_NEARBY_PLATFORMS =
+			ThreadLocal.withInitial(PlatformGrid.Result::new);
+
+	private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+	private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+	public HazardStore() {
+
+		this(DEFAULT_CAPACITY);
+
+	}
+
+	/**
+	 * Creates an empty HazardStore with room for a number of Hazards
+	 * @param capacity the number of Hazards to make room for
+	 */
+	public HazardStore(int capacity) {
+
+		x = new double[capacity];
+		y = new double[capacity];
+		width = new double[capacity];
+		height = new double[capacity];
+		xVelocity = new double[capacity];
+		yVelocity = new double[capacity];
+		color = new Color[capacity];
+
+	}
+
+	/**
+	 * Adds a Hazard with a top-left coordinate (x, y), a specified width and height,
+	 * and no velocity
+	 * @param x the left x coordinate of the Hazard
+	 * @param y the top y coordinate of the Hazard
+	 * @param width the width of the Hazard
+	 * @param height the height of the Hazard
+	 * @param color the Color the Hazard is drawn with
+	 * @return the index of the new Hazard
+	 */
+	public int add(double x, double y, double width, double height, Color color) {
+
+		if (size == this.x.length) {
+
+			grow();
+
+		}
+
+		this.x[size] = x;
+		this.y[size] = y;
+		this.width[size] = width;
+		this.height[size] = height;
+		this.xVelocity[size] = 0;
+		this.yVelocity[size] = 0;
+		this.color[size] = color;
+
+		return size++;
+
+	}
+
+	/**
+	 * Doubles the length of every column
+	 */
+	private void grow() {
+
+		int capacity = Math.max(DEFAULT_CAPACITY, x.length * 2);
+
+		x = Arrays.copyOf(x, capacity);
+		y = Arrays.copyOf(y, capacity);
+		width = Arrays.copyOf(width, capacity);
+		height = Arrays.copyOf(height, capacity);
+		xVelocity = Arrays.copyOf(xVelocity, capacity);
+		yVelocity = Arrays.copyOf(yVelocity, capacity);
+		color = Arrays.copyOf(color, capacity);
+
+	}
+
+	/**
+	 * Saves the current positions and velocities of the Hazards as the state
+	 * resetToInitialState restores
+	 */
+	public void saveInitialState() {
+
+		initialX = Arrays.copyOf(x, size);
+		initialY = Arrays.copyOf(y, size);
+		initialXVelocity = Arrays.copyOf(xVelocity, size);
+		initialYVelocity = Arrays.copyOf(yVelocity, size);
+
+	}
+
+	/**
+	 * Resets the positions and velocities of the Hazards to the saved initial state
+	 */
+	public void resetToInitialState() {
+
+		System.arraycopy(initialX, 0, x, 0, initialX.length);
+		System.arraycopy(initialY, 0, y, 0, initialY.length);
+		System.arraycopy(initialXVelocity, 0, xVelocity, 0, initialXVelocity.length);
+		System.arraycopy(initialYVelocity, 0, yVelocity, 0, initialYVelocity.length);
+
+	}
+
+	/**
+	 * Gets the number of bytes writeState writes
+	 * @return the size of the state, in bytes
+	 */
+	public int getStateSize() {
+
+		return 4 + size * 4 * 8;
+
+	}
+
+	/**
+	 * Writes the positions and velocities of the Hazards to a buffer
+	 * @param buffer the buffer to write to
+	 */
+	public void writeState(ByteBuffer buffer) {
+
+		buffer.putInt(size);
+
+		for (int i = 0; i < size; i++) {
+
+			buffer.putDouble(x[i]);
+			buffer.putDouble(y[i]);
+			buffer.putDouble(xVelocity[i]);
+			buffer.putDouble(yVelocity[i]);
+
+		}
+
+	}
+
+	/**
+	 * Reads the positions and velocities written by writeState from a buffer
+	 * @param buffer the buffer to read from
+	 * @throws IllegalStateException if the state is for a different number of Hazards
+	 */
+	public void readState(ByteBuffer buffer) {
+
+		int stateSize = buffer.getInt();
+
+		if (stateSize != size) {
+
+			throw new IllegalStateException("State has " + stateSize + " Hazards, but the store has " + size);
+
+		}
+
+		for (int i = 0; i < size; i++) {
+
+			x[i] = buffer.getDouble();
+			y[i] = buffer.getDouble();
+			xVelocity[i] = buffer.getDouble();
+			yVelocity[i] = buffer.getDouble();
+
+		}
+
+	}
+
+	/**
+	 * Moves every Hazard, bounces them off of any platforms they collide with, and
+	 * checks if any of them are touching the Player. Hazards don't affect each other,
+	 * so when there are at least parallelThreshold of them they are split into chunks
+	 * which are updated in parallel on the ForkJoinPool; the result is the same either way.
+	 * @param platformGrid the PlatformGrid of the current Level
+	 * @param playerBounds the bounds of the Player
+	 * @return true if a Hazard is touching the Player, false otherwise
+	 */
+	public boolean update(PlatformGrid platformGrid, AABB playerBounds) {
+
+		if (size >= parallelThreshold) {
+
+			return pool.invoke(new UpdateTask(0, size, platformGrid, playerBounds));
+
+		}
+
+		return updateRange(0, size, platformGrid, playerBounds, nearbyPlatforms);
+
+	}
+
+	/**
+	 * Updates the Hazards with indices from start(inclusive) to end(exclusive)
+	 * @param start the index of the first Hazard to update
+	 * @param end the index after the last Hazard to update
+	 * @param platformGrid the PlatformGrid of the current Level
+	 * @param playerBounds the bounds of the Player
+	 * @param nearbyPlatforms the Result to store the platforms near each Hazard in
+	 * @return true if one of the Hazards is touching the Player, false otherwise
+	 */
+	private boolean updateRange(int start, int end, PlatformGrid platformGrid, AABB playerBounds,
+			PlatformGrid.Result nearbyPlatforms) {
+
+		boolean touchingPlayer = false;
+
+		for (int i = start; i < end; i++) {
+
+			x[i] += xVelocity[i];
+			y[i] += yVelocity[i];
+
+			checkCollisions(i, platformGrid, nearbyPlatforms);
+
+			if (playerBounds.intersects(x[i], y[i], width[i], height[i])) {
+
+				touchingPlayer = true;
+
+			}
+
+		}
+
+		return touchingPlayer;
+
+	}
+
+	/**
+	 * Updates a range of Hazards, splitting it in half until the halves are
+	 * small enough to update directly
+	 */
+	private class UpdateTask extends RecursiveTask<Boolean> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int start;
+		private final int end;
+		private final PlatformGrid platformGrid;
+		private final AABB playerBounds;
+
+		UpdateTask(int start, int end, PlatformGrid platformGrid, AABB playerBounds) {
+
+			this.start = start;
+			this.end = end;
+			this.platformGrid = platformGrid;
+			this.playerBounds = playerBounds;
+
+		}
+
+		@Override
+		protected Boolean compute() {
+
+			if (end - start <= PARALLEL_CHUNK_SIZE) {
+
+				return updateRange(start, end, platformGrid, playerBounds, WORKER_NEARBY_PLATFORMS.get());
+
+			}
+
+			int middle = (start + end) >>> 1;
+
+			UpdateTask left = new UpdateTask(start, middle, platformGrid, playerBounds);
+			UpdateTask right = new UpdateTask(middle, end, platformGrid, playerBounds);
+
+			left.fork();
+			boolean rightTouching = right.compute();
+			boolean leftTouching = left.join();
+
+			return leftTouching || rightTouching;
+
+		}
+
+	}
+
+	/**
+	 * Checks for collisions between a Hazard and the platforms near it. Since
+	 * resolving a collision only changes the Hazard's velocity, the platforms
+	 * found by a single search are all that need to be checked.
+	 * @param i the index of the Hazard
+	 * @param platformGrid the PlatformGrid of the current Level
+	 * @param nearbyPlatforms the Result to store the platforms near the Hazard in
+	 */
+	private void checkCollisions(int i, PlatformGrid platformGrid, PlatformGrid.Result nearbyPlatforms) {
+
+		platformGrid.query(x[i] - COLLISION_QUERY_PADDING, y[i] - COLLISION_QUERY_PADDING,
+				width[i] + 2 * COLLISION_QUERY_PADDING, height[i] + 2 * COLLISION_QUERY_PADDING, nearbyPlatforms);
+
+		for (int j = 0; j < nearbyPlatforms.size(); j++) {
+
+			checkCollision(i, platformGrid.getPlatform(nearbyPlatforms.get(j)));
+
+		}
+
+	}
+
+	/**
+	 * Checks for a collision between a Hazard and a platform, and reverses the
+	 * Hazard's velocity on each side it collides on. The collision areas of each
+	 * side are the same ones Entity uses.
+	 * @param i the index of the Hazard
+	 * @param platform the platform
+	 */
+	private void checkCollision(int i, AABB platform) {
+
+		double x = this.x[i];
+		double y = this.y[i];
+		double width = this.width[i];
+		double height = this.height[i];
+
+		if (!platform.intersects(x, y, width, height)) {
+
+			return;
+
+		}
+
+		// Bottom
+		if (platform.intersects(x + width / 4, y + (7 * height / 8), width / 2, (height / 8) + 0)) {
+
+			yVelocity[i] *= -1;
+
+		}
+
+		// Top
+		if (platform.intersects(x + width / 4, y, width / 2, height / 8)) {
+
+			yVelocity[i] *= -1;
+
+		}
+
+		// Left
+		if (platform.intersects(x, y + height / 8, width / 6, (6 * height / 8))) {
+
+			xVelocity[i] *= -1;
+
+		}
+
+		// Right
+		if (platform.intersects(x + (5 * width) / 6, y + height / 8, width / 6, (6 * height / 8))) {
+
+			xVelocity[i] *= -1;
+
+		}
+
+	}
+
+	/**
+	 * Queues every Hazard to be drawn
+	 * @param renderQueue the RenderQueue of the Canvas to draw the Hazards on
+	 */
+	public void draw(RenderQueue renderQueue) {
+
+		renderQueue.fillRects(RenderQueue.HAZARD_LAYER, color, x, y, width, height, size);
+
+	}
+
+	/**
+	 * Gets the number of Hazards in the store
+	 * @return the number of Hazards
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the number of Hazards at which update starts updating them in parallel
+	 * @return the parallel threshold
+	 */
+	public int getParallelThreshold() {
+		return parallelThreshold;
+	}
+
+	/**
+	 * Sets the number of Hazards at which update starts updating them in parallel.
+	 * Integer.MAX_VALUE always updates them on the calling thread.
+	 * @param parallelThreshold the new parallel threshold
+	 */
+	public void setParallelThreshold(int parallelThreshold) {
+		this.parallelThreshold = parallelThreshold;
+	}
+
+	/**
+	 * Gets the ForkJoinPool Hazards are updated on in parallel
+	 * @return the ForkJoinPool
+	 */
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+
+	/**
+	 * Sets the ForkJoinPool Hazards are updated on in parallel
+	 * @param pool the new ForkJoinPool
+	 */
+	public void setPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Gets the left x coordinate of a Hazard
+	 * @param i the index of the Hazard
+	 * @return the left x coordinate
+	 */
+	public double getX(int i) {
+		return x[i];
+	}
+
+	/**
+	 * Sets the left x coordinate of a Hazard
+	 * @param i the index of the Hazard
+	 * @param x the new left x coordinate
+	 */
+	public void setX(int i, double x) {
+		this.x[i] = x;
+	}
+
+	/**
+	 * Gets the top y coordinate of a Hazard
+	 * @param i the index of the Hazard
+	 * @return the top y coordinate
+	 */
+	public double getY(int i) {
+		return y[i];
+	}
+
+	/**
+	 * Sets the top y coordinate of a Hazard
+	 * @param i the index of the Hazard
+	 * @param y the new top y coordinate
+	 */
+	public void setY(int i, double y) {
+		this.y[i] = y;
+	}
+
+	/**
+	 * Gets the width of a Hazard
+	 * @param i the index of the Hazard
+	 * @return the width
+	 */
+	public double getWidth(int i) {
+		return width[i];
+	}
+
+	/**
+	 * Gets the height of a Hazard
+	 * @param i the index of the Hazard
+	 * @return the height
+	 */
+	public double getHeight(int i) {
+		return height[i];
+	}
+
+	/**
+	 * Gets the x velocity of a Hazard
+	 * @param i the index of the Hazard
+	 * @return the x velocity
+	 */
+	public double getxVelocity(int i) {
+		return xVelocity[i];
+	}
+
+	/**
+	 * Sets the x velocity of a Hazard
+	 * @param i the index of the Hazard
+	 * @param xVelocity the new x velocity
+	 */
+	public void setxVelocity(int i, double xVelocity) {
+		this.xVelocity[i] = xVelocity;
+	}
+
+	/**
+	 * Gets the y velocity of a Hazard
+	 * @param i the index of the Hazard
+	 * @return the y velocity
+	 */
+	public double getyVelocity(int i) {
+		return yVelocity[i];
+	}
+
+	/**
+	 * Sets the y velocity of a Hazard
+	 * @param i the index of the Hazard
+	 * @param yVelocity the new y velocity
+	 */
+	public void setyVelocity(int i, double yVelocity) {
+		this.yVelocity[i] = yVelocity;
+	}
+
+	/**
+	 * Gets the Color a Hazard is drawn with
+	 * @param i the index of the Hazard
+	 * @return the Color
+	 */
+	public Color getColor(int i) {
+		return color[i];
+	}
+
+}
@@ -0,0 +1,163 @@
+
+/**
+ * The input given to the Simulation during one tick. Input events are stored
+ * in an InputFrame as they arrive and are applied to the Simulation all at
+ * once when it is stepped, so the same InputFrames always produce the same game.
+ */
+public class InputFrame {
+
+	private boolean jumpPressed = false;
+	private int leftPresses = 0;
+	private int rightPresses = 0;
+	private boolean restartPressed = false;
+	private boolean rewindPressed = false; // true while the rewind key is held
+
+	private String portalClickType = null; // LEFT or RIGHT, null if no Portal was launched
+	private double portalAngle;
+
+	public InputFrame() {}
+
+	/**
+	 * Removes all input from the InputFrame so that it can be reused for the
+	 * next tick
+	 */
+	public void clear() {
+
+		setJumpPressed(false);
+		setLeftPresses(0);
+		setRightPresses(0);
+		setRestartPressed(false);
+		setRewindPressed(false);
+		setPortalClickType(null);
+		setPortalAngle(0);
+
+	}
+
+	/**
+	 * Checks if the InputFrame holds any input
+	 * @return true if the InputFrame holds no input, false otherwise
+	 */
+	public boolean isEmpty() {
+
+		return !isJumpPressed() && getLeftPresses() == 0 && getRightPresses() == 0
+				&& !isRestartPressed() && !isRewindPressed() && getPortalClickType() == null;
+
+	}
+
+	/**
+	 * Stores a Portal launch in the InputFrame. Only the last launch of a tick is kept.
+	 * @param clickType the mouse button used to launch the Portal(LEFT or RIGHT)
+	 * @param angle the direction to launch the Portal(in degrees)
+	 */
+	public void launchPortal(String clickType, double angle) {
+
+		setPortalClickType(clickType);
+		setPortalAngle(angle);
+
+	}
+
+	/**
+	 * @return the jumpPressed
+	 */
+	public boolean isJumpPressed() {
+		return jumpPressed;
+	}
+
+	/**
+	 * @param jumpPressed the jumpPressed to set
+	 */
+	public void setJumpPressed(boolean jumpPressed) {
+		this.jumpPressed = jumpPressed;
+	}
+
+	/**
+	 * Gets how many times the move left key was pressed during the tick
+	 * @return the number of presses
+	 */
+	public int getLeftPresses() {
+		return leftPresses;
+	}
+
+	/**
+	 * @param leftPresses the leftPresses to set
+	 */
+	public void setLeftPresses(int leftPresses) {
+		this.leftPresses = leftPresses;
+	}
+
+	/**
+	 * Gets how many times the move right key was pressed during the tick
+	 * @return the number of presses
+	 */
+	public int getRightPresses() {
+		return rightPresses;
+	}
+
+	/**
+	 * @param rightPresses the rightPresses to set
+	 */
+	public void setRightPresses(int rightPresses) {
+		this.rightPresses = rightPresses;
+	}
+
+	/**
+	 * @return the restartPressed
+	 */
+	public boolean isRestartPressed() {
+		return restartPressed;
+	}
+
+	/**
+	 * @param restartPressed the restartPressed to set
+	 */
+	public void setRestartPressed(boolean restartPressed) {
+		this.restartPressed = restartPressed;
+	}
+
+	/**
+	 * Checks if the Simulation should go back one tick instead of being updated
+	 * @return true if the rewind key is held, false otherwise
+	 */
+	public boolean isRewindPressed() {
+		return rewindPressed;
+	}
+
+	/**
+	 * Sets whether the Simulation should go back one tick instead of being updated
+	 * @param rewindPressed true if the rewind key is held, false otherwise
+	 */
+	public void setRewindPressed(boolean rewindPressed) {
+		this.rewindPressed = rewindPressed;
+	}
+
+	/**
+	 * Gets the mouse button used to launch a Portal during the tick
+	 * @return LEFT or RIGHT, or null if no Portal was launched
+	 */
+	public String getPortalClickType() {
+		return portalClickType;
+	}
+
+	/**
+	 * @param portalClickType the portalClickType to set
+	 */
+	public void setPortalClickType(String portalClickType) {
+		this.portalClickType = portalClickType;
+	}
+
+	/**
+	 * Gets the direction of the Portal launched during the tick
+	 * @return the direction(in degrees)
+	 */
+	public double getPortalAngle() {
+		return portalAngle;
+	}
+
+	/**
+	 * @param portalAngle the portalAngle to set
+	 */
+	public void setPortalAngle(double portalAngle) {
+		this.portalAngle = portalAngle;
+	}
+
+}
@@ -0,0 +1,432 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/**
+ * Plays back a replay file written by an InputRecorder, stepping a Simulation with
+ * the recorded InputFrames and loading the recorded Levels at the same ticks they
+ * were loaded in the recorded game. Since the Simulation only changes through its
+ * input, the game is reproduced exactly. While playing, the InputPlayer also checks
+ * the replayed game against what the recording says happened: the first tick whose
+ * state checksum doesn't match is kept as the divergedTick, and the ticks on which the
+ * Player reached the goal or hit a Hazard are kept for both the recorded and replayed game.
+ */
+public class InputPlayer implements Closeable {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private FileChannel channel;
+	private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private boolean endOfFile = false;
+
+	private int width;
+	private int height;
+
+	// The RewindBuffer of the recorded Simulation, with a capacity of 0 if rewinding was turned off
+	private int rewindCapacityBytes;
+	private int rewindMaxTicks;
+
+	// Whether the recorded game was played with a level pack, and the pack's checksum
+	private boolean levelPackUsed;
+	private int levelPackChecksum;
+
+	private InputFrame input = new InputFrame();
+
+	private long tick = 0;
+	private boolean finished = false;
+
+	// The first tick whose state didn't match the recording, or -1
+	private long divergedTick = -1;
+
+	private ArrayList<Long> recordedGoalTicks = new ArrayList<>();
+	private ArrayList<Long> recordedHazardTicks = new ArrayList<>();
+	private ArrayList<Long> playedGoalTicks = new ArrayList<>();
+	private ArrayList<Long> playedHazardTicks = new ArrayList<>();
+
+	private SimulationSnapshot snapshot = new SimulationSnapshot();
+	private LevelEventTracker levelEvents = new LevelEventTracker();
+
+	// The tick and flags of the next event, which is read ahead
+	private long nextEventTick;
+	private int nextEventFlags;
+
+	/**
+	 * Opens a replay file and reads its header
+	 * @param path the replay file
+	 * @throws IOException if the file can't be read or isn't a replay file
+	 */
+	public InputPlayer(Path path) throws IOException {
+
+		channel = FileChannel.open(path, StandardOpenOption.READ);
+		buffer.flip();
+
+		fill(4 + 1 + 10 + 10 + 10 + 10 + 1 + 4);
+
+		if (buffer.remaining() < 5 || buffer.getInt() != InputRecorder.MAGIC) {
+
+			throw new IOException(path + " is not a replay file");
+
+		}
+
+		int version = buffer.get();
+		if (version != InputRecorder.VERSION) {
+
+			throw new IOException(path + " has replay version " + version + ", expected " + InputRecorder.VERSION);
+
+		}
+
+		width = (int) readVarLong();
+		height = (int) readVarLong();
+
+		rewindCapacityBytes = (int) readVarLong();
+		rewindMaxTicks = (int) readVarLong();
+
+		levelPackUsed = buffer.get() != 0;
+		levelPackChecksum = levelPackUsed ? buffer.getInt() : 0;
+
+		nextEventTick = 0;
+		readEventHeader();
+
+	}
+
+	/**
+	 * Steps the Simulation by one recorded tick, first loading any Levels which were
+	 * loaded before that tick
+	 * @param simulation the Simulation to step
+	 * @param levelManager the LevelManager with the Levels of the recorded game
+	 * @return true if the Simulation was stepped, false if the recording has ended
+	 * @throws IOException if the file can't be read
+	 */
+	public boolean step(Simulation simulation, LevelManager levelManager) throws IOException {
+
+		while (!finished && nextEventTick == tick) {
+
+			if (nextEventFlags == InputRecorder.END) {
+
+				finished = true;
+
+			} else if (nextEventFlags == InputRecorder.LOAD_LEVEL) {
+
+				simulation.loadLevel(levelManager.getLevel((int) readVarLong()));
+				levelEvents.reset();
+				readEventHeader();
+
+			} else if ((nextEventFlags & InputRecorder.SPECIAL) != 0) {
+
+				readSpecialEvent(nextEventFlags, simulation);
+				readEventHeader();
+
+			} else {
+
+				readInput(nextEventFlags);
+				readEventHeader();
+				break;
+
+			}
+
+		}
+
+		if (finished) {
+
+			return false;
+
+		}
+
+		simulation.step(input);
+		input.clear();
+		tick++;
+
+		int events = levelEvents.update(simulation.getLevel());
+
+		if ((events & LevelEventTracker.REACHED_GOAL) != 0) {
+
+			playedGoalTicks.add(tick);
+
+		}
+		if ((events & LevelEventTracker.HIT_HAZARD) != 0) {
+
+			playedHazardTicks.add(tick);
+
+		}
+
+		return true;
+
+	}
+
+	/**
+	 * Reads one of the recorded results of the game, for the ticks played so far
+	 * @param flags the flags of the event
+	 * @param simulation the Simulation being played
+	 * @throws IOException if the event is of an unknown type
+	 */
+	private void readSpecialEvent(int flags, Simulation simulation) throws IOException {
+
+		if (flags == InputRecorder.REACHED_GOAL) {
+
+			recordedGoalTicks.add(tick);
+
+		} else if (flags == InputRecorder.HIT_HAZARD) {
+
+			recordedHazardTicks.add(tick);
+
+		} else if (flags == InputRecorder.CHECKSUM) {
+
+			int recordedChecksum = buffer.getInt();
+
+			snapshot.capture(simulation);
+
+			if (divergedTick < 0 && snapshot.checksum() != recordedChecksum) {
+
+				divergedTick = tick;
+
+			}
+
+		} else {
+
+			throw new IOException("Unknown replay event " + flags + " at tick " + tick);
+
+		}
+
+	}
+
+	/**
+	 * Steps the Simulation until the recording ends
+	 * @param simulation the Simulation to step
+	 * @param levelManager the LevelManager with the Levels of the recorded game
+	 * @return the number of ticks played
+	 * @throws IOException if the file can't be read
+	 */
+	public long playToEnd(Simulation simulation, LevelManager levelManager) throws IOException {
+
+		while (step(simulation, levelManager)) {
+		}
+
+		return tick;
+
+	}
+
+	/**
+	 * Reads the values of an input event into the InputFrame
+	 * @param flags the flags of the event
+	 */
+	private void readInput(int flags) {
+
+		input.setJumpPressed((flags & InputRecorder.JUMP) != 0);
+		input.setRestartPressed((flags & InputRecorder.RESTART) != 0);
+		input.setRewindPressed((flags & InputRecorder.REWIND) != 0);
+
+		if ((flags & InputRecorder.LEFT) != 0) {
+
+			input.setLeftPresses((int) readVarLong());
+
+		}
+		if ((flags & InputRecorder.RIGHT) != 0) {
+
+			input.setRightPresses((int) readVarLong());
+
+		}
+		if ((flags & InputRecorder.PORTAL) != 0) {
+
+			String clickType = buffer.get() == 0 ? "LEFT" : "RIGHT";
+			input.launchPortal(clickType, Double.longBitsToDouble(buffer.getLong()));
+
+		}
+
+	}
+
+	/**
+	 * Reads the tick and flags of the next event, making sure the whole event is in the buffer
+	 * @throws IOException if the file can't be read or ends without an END event
+	 */
+	private void readEventHeader() throws IOException {
+
+		fill(InputRecorder.MAX_EVENT_SIZE);
+
+		if (!buffer.hasRemaining()) {
+
+			throw new IOException("Replay file ended without an end event");
+
+		}
+
+		nextEventTick += readVarLong();
+		nextEventFlags = buffer.get() & 0xFF;
+
+	}
+
+	/**
+	 * Reads from the file until the buffer holds at least the given number of
+	 * bytes or the file has ended
+	 * @param bytes the number of bytes needed
+	 * @throws IOException if the file can't be read
+	 */
+	private void fill(int bytes) throws IOException {
+
+		if (buffer.remaining() >= bytes || endOfFile) {
+
+			return;
+
+		}
+
+		buffer.compact();
+
+		while (buffer.position() < bytes && !endOfFile) {
+
+			if (channel.read(buffer) < 0) {
+
+				endOfFile = true;
+
+			}
+
+		}
+
+		buffer.flip();
+
+	}
+
+	/**
+	 * Reads a number written by InputRecorder.writeVarLong
+	 * @return the number read
+	 */
+	private long readVarLong() {
+
+		long value = 0;
+		int shift = 0;
+		byte b;
+
+		do {
+
+			b = buffer.get();
+			value |= (long) (b & 0x7F) << shift;
+			shift += 7;
+
+		} while ((b & 0x80) != 0);
+
+		return value;
+
+	}
+
+	@Override
+	public void close() throws IOException {
+
+		channel.close();
+
+	}
+
+	/**
+	 * Gets the width of the recorded Simulation
+	 * @return the width
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Gets the height of the recorded Simulation
+	 * @return the height
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Checks that the recorded game was played with the given Levels, so the replay
+	 * isn't played with Levels it wasn't recorded on
+	 * @param levelPack the level pack the replay will be played with, or null for the built in Levels
+	 * @throws IOException if the replay was recorded with other Levels
+	 */
+	public void checkLevelPack(LevelPack levelPack) throws IOException {
+
+		if (levelPackUsed && levelPack == null) {
+
+			throw new IOException(String.format("Recorded with a level pack(checksum %08x), not the built in Levels",
+					levelPackChecksum));
+
+		}
+		if (!levelPackUsed && levelPack != null) {
+
+			throw new IOException("Recorded with the built in Levels, not a level pack");
+
+		}
+		if (levelPackUsed && levelPack.getChecksum() != levelPackChecksum) {
+
+			throw new IOException(String.format("Recorded with a level pack with checksum %08x, not %08x",
+					levelPackChecksum, levelPack.getChecksum()));
+
+		}
+
+	}
+
+	/**
+	 * Creates a RewindBuffer like the one the recorded Simulation had, which the
+	 * Simulation being played needs for the recorded rewinds to play the same way
+	 * @return the new RewindBuffer, or null if rewinding was turned off
+	 */
+	public RewindBuffer createRewindBuffer() {
+
+		return rewindCapacityBytes > 0 ? new RewindBuffer(rewindCapacityBytes, rewindMaxTicks) : null;
+
+	}
+
+	/**
+	 * Gets the number of ticks played so far
+	 * @return the number of ticks
+	 */
+	public long getTick() {
+		return tick;
+	}
+
+	/**
+	 * Gets the first tick on which the replayed game's state didn't match the recording.
+	 * Since checksums are only recorded every few ticks, the game may have diverged on
+	 * any tick after the previous checksum.
+	 * @return the tick, or -1 if every recorded checksum matched
+	 */
+	public long getDivergedTick() {
+		return divergedTick;
+	}
+
+	/**
+	 * Gets the ticks on which the Player reached the goal in the recorded game
+	 * @return the ticks
+	 */
+	public ArrayList<Long> getRecordedGoalTicks() {
+		return recordedGoalTicks;
+	}
+
+	/**
+	 * Gets the ticks on which the Player hit a Hazard in the recorded game
+	 * @return the ticks
+	 */
+	public ArrayList<Long> getRecordedHazardTicks() {
+		return recordedHazardTicks;
+	}
+
+	/**
+	 * Gets the ticks on which the Player reached the goal in the replayed game
+	 * @return the ticks
+	 */
+	public ArrayList<Long> getPlayedGoalTicks() {
+		return playedGoalTicks;
+	}
+
+	/**
+	 * Gets the ticks on which the Player hit a Hazard in the replayed game
+	 * @return the ticks
+	 */
+	public ArrayList<Long> getPlayedHazardTicks() {
+		return playedHazardTicks;
+	}
+
+	/**
+	 * Checks if the whole recording has been played
+	 * @return true if the recording has ended, false otherwise
+	 */
+	public boolean isFinished() {
+		return finished;
+	}
+
+}
@@ -0,0 +1,295 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Records the InputFrames given to a Simulation, and the Levels loaded between
+ * them, to a replay file which an InputPlayer can feed back into a Simulation to
+ * reproduce the same game.
+ *
+ * The file starts with a header of:
+ * - MAGIC and VERSION
+ * - the width and height of the Simulation
+ * - the capacity and max ticks of its RewindBuffer, both 0 if rewinding was off
+ * - 1 and the 4 byte checksum of the level pack played, or 0 for the built in Levels
+ *
+ * The header is followed by one event for each tick with input and each Level load.
+ * Ticks without input aren't written. Every event starts with the number of ticks
+ * since the previous event and a byte of flags, followed by the values the flags
+ * call for. The last event has no flags and marks the tick the recording ended on.
+ * All whole numbers are written as varints(7 bits per byte), so most events only
+ * take two or three bytes.
+ *
+ * Level loads, and events with the SPECIAL bit set, are never combined with other
+ * flags. Special events record what happened in the recorded game(the Player reaching
+ * the goal or hitting a Hazard, and a checksum of the Simulation's state) after the
+ * number of ticks they are stamped with, so a replay can be checked against it.
+ */
+public class InputRecorder implements Closeable {
+
+	public static final int MAGIC = 0x50474952; // "PGIR"
+	public static final int VERSION = 1;
+
+	// Event flags
+	public static final int JUMP = 1;
+	public static final int LEFT = 2; // followed by the number of presses
+	public static final int RIGHT = 4; // followed by the number of presses
+	public static final int RESTART = 8;
+	public static final int REWIND = 16;
+	public static final int PORTAL = 32; // followed by the click type(0 for LEFT, 1 for RIGHT) and the angle's bits
+	public static final int LOAD_LEVEL = 64; // followed by the level index
+	public static final int SPECIAL = 128;
+	public static final int END = 0;
+
+	// Special events
+	public static final int REACHED_GOAL = SPECIAL | 1;
+	public static final int HIT_HAZARD = SPECIAL | 2;
+	public static final int CHECKSUM = SPECIAL | 3; // followed by the 4 byte checksum of the state
+
+	// Once a second
+	public static final int DEFAULT_CHECKSUM_INTERVAL = 60;
+
+	// The most bytes one event can take
+	static final int MAX_EVENT_SIZE = 10 + 1 + 5 + 5 + 1 + 8;
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private FileChannel channel;
+	private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+	private long tick = 0;
+	private long lastEventTick = 0;
+
+	// How many ticks apart the state checksums are, or 0 for no checksums
+	private int checksumInterval = DEFAULT_CHECKSUM_INTERVAL;
+
+	private SimulationSnapshot snapshot = new SimulationSnapshot();
+	private LevelEventTracker levelEvents = new LevelEventTracker();
+
+	/**
+	 * Creates an InputRecorder which writes to the given file, replacing it if it exists
+	 * @param path the replay file
+	 * @param width the width of the Simulation being recorded
+	 * @param height the height of the Simulation being recorded
+	 * @param rewindBuffer the RewindBuffer of the Simulation being recorded, or null if rewinding is turned off
+	 * @param levelPack the level pack the Levels come from, or null for the built in Levels
+	 * @throws IOException if the file can't be opened
+	 */
+	public InputRecorder(Path path, int width, int height, RewindBuffer rewindBuffer, LevelPack levelPack)
+			throws IOException {
+
+		channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+
+		buffer.putInt(MAGIC);
+		buffer.put((byte) VERSION);
+		writeVarLong(buffer, width);
+		writeVarLong(buffer, height);
+
+		writeVarLong(buffer, rewindBuffer != null ? rewindBuffer.getCapacityBytes() : 0);
+		writeVarLong(buffer, rewindBuffer != null ? rewindBuffer.getMaxTicks() : 0);
+
+		if (levelPack != null) {
+
+			buffer.put((byte) 1);
+			buffer.putInt(levelPack.getChecksum());
+
+		} else {
+
+			buffer.put((byte) 0);
+
+		}
+
+	}
+
+	/**
+	 * Records that a Level was loaded before the next tick
+	 * @param levelIndex the index of the Level
+	 * @throws IOException if the file can't be written to
+	 */
+	public void recordLevelLoad(int levelIndex) throws IOException {
+
+		startEvent(LOAD_LEVEL);
+		writeVarLong(buffer, levelIndex);
+		levelEvents.reset();
+
+	}
+
+	/**
+	 * Records the input for one tick. This should be called once for every
+	 * time the Simulation is stepped, even if the input is empty.
+	 * @param input the input the Simulation is stepped with
+	 * @throws IOException if the file can't be written to
+	 */
+	public void recordTick(InputFrame input) throws IOException {
+
+		if (!input.isEmpty()) {
+
+			int flags = 0;
+			flags |= input.isJumpPressed() ? JUMP : 0;
+			flags |= input.getLeftPresses() != 0 ? LEFT : 0;
+			flags |= input.getRightPresses() != 0 ? RIGHT : 0;
+			flags |= input.isRestartPressed() ? RESTART : 0;
+			flags |= input.isRewindPressed() ? REWIND : 0;
+			flags |= input.getPortalClickType() != null ? PORTAL : 0;
+
+			startEvent(flags);
+
+			if ((flags & LEFT) != 0) {
+
+				writeVarLong(buffer, input.getLeftPresses());
+
+			}
+			if ((flags & RIGHT) != 0) {
+
+				writeVarLong(buffer, input.getRightPresses());
+
+			}
+			if ((flags & PORTAL) != 0) {
+
+				buffer.put((byte) (input.getPortalClickType().equals("LEFT") ? 0 : 1));
+				buffer.putLong(Double.doubleToRawLongBits(input.getPortalAngle()));
+
+			}
+
+		}
+
+		tick++;
+
+	}
+
+	/**
+	 * Records what happened during the tick that was just stepped: whether the Player
+	 * reached the goal or hit a Hazard, and, every checksumInterval ticks, a checksum
+	 * of the Simulation's state. This should be called after each step.
+	 * @param simulation the Simulation being recorded
+	 * @throws IOException if the file can't be written to
+	 */
+	public void recordResult(Simulation simulation) throws IOException {
+
+		int events = levelEvents.update(simulation.getLevel());
+
+		if ((events & LevelEventTracker.REACHED_GOAL) != 0) {
+
+			startEvent(REACHED_GOAL);
+
+		}
+		if ((events & LevelEventTracker.HIT_HAZARD) != 0) {
+
+			startEvent(HIT_HAZARD);
+
+		}
+
+		if (checksumInterval > 0 && tick % checksumInterval == 0) {
+
+			snapshot.capture(simulation);
+			startEvent(CHECKSUM);
+			buffer.putInt(snapshot.checksum());
+
+		}
+
+	}
+
+	/**
+	 * Writes the start of an event for the current tick, first writing the
+	 * buffer to the file if the event might not fit
+	 * @param flags the flags of the event
+	 * @throws IOException if the file can't be written to
+	 */
+	private void startEvent(int flags) throws IOException {
+
+		if (buffer.remaining() < MAX_EVENT_SIZE) {
+
+			flush();
+
+		}
+
+		writeVarLong(buffer, tick - lastEventTick);
+		buffer.put((byte) flags);
+		lastEventTick = tick;
+
+	}
+
+	/**
+	 * Writes everything in the buffer to the file
+	 * @throws IOException if the file can't be written to
+	 */
+	public void flush() throws IOException {
+
+		buffer.flip();
+
+		while (buffer.hasRemaining()) {
+
+			channel.write(buffer);
+
+		}
+
+		buffer.clear();
+
+	}
+
+	/**
+	 * Writes the end of the recording and closes the file
+	 * @throws IOException if the file can't be written to
+	 */
+	@Override
+	public void close() throws IOException {
+
+		if (channel.isOpen()) {
+
+			startEvent(END);
+			flush();
+			channel.close();
+
+		}
+
+	}
+
+	/**
+	 * Writes a non-negative number using 7 bits per byte, so small numbers take one byte
+	 * @param buffer the buffer to write to
+	 * @param value the number to write
+	 */
+	static void writeVarLong(ByteBuffer buffer, long value) {
+
+		while ((value & ~0x7FL) != 0) {
+
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+
+		}
+
+		buffer.put((byte) value);
+
+	}
+
+	/**
+	 * Gets the number of ticks recorded
+	 * @return the number of ticks
+	 */
+	public long getTick() {
+		return tick;
+	}
+
+	/**
+	 * Gets how many ticks apart the state checksums are
+	 * @return the checksum interval, or 0 if no checksums are recorded
+	 */
+	public int getChecksumInterval() {
+		return checksumInterval;
+	}
+
+	/**
+	 * Sets how many ticks apart the state checksums are. A replay can only tell that it
+	 * stopped matching the recording somewhere since the last checksum, so an interval
+	 * of 1 is only worth its 6 bytes per tick when bisecting where a replay diverges.
+	 * @param checksumInterval the new checksum interval, or 0 for no checksums
+	 */
+	public void setChecksumInterval(int checksumInterval) {
+		this.checksumInterval = checksumInterval;
+	}
+
+}
@@ -1,93 +1,86 @@
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 
 import javafx.geometry.Point2D;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.shape.Rectangle;
+import javafx.scene.paint.Color;
 
 public class Level {
 
-	private PortalGame gameObject;
-	private ArrayList<Rectangle> platforms;
-	private ArrayList<Hazard> hazards; // NOTE may have to be ArrayList of Rectangles for collision checking purposes
-	private ArrayList<Point2D> initialHazardPoints = new ArrayList<Point2D>();
-	private ArrayList<Double> initialHazardXVelocities = new ArrayList<Double>();
-	private ArrayList<Double> initialHazardYVelocities = new ArrayList<Double>();
+	private Simulation simulation;
+	private ArrayList<AABB> platforms;
+	private PlatformGrid platformGrid;
+	private HazardStore hazards;
 	
-	private Rectangle goal;
+	private AABB goal;
+	private Color platformColor = Color.BLACK;
+	private Color goalColor = Color.GREEN;
 	private Point2D playerStartPoint;
 	boolean playerTouchingGoal = false;
+	boolean playerTouchingHazard = false;
 	boolean levelCompleted = false;
 	
 	public Level() {}
 	
 	/**
 	 * Creates a Level with given values for the platforms, hazards, goal, playerStartPoint,
-	 * and gameObject held by the Level
+	 * and simulation held by the Level
 	 * @param platforms the platforms of the level
 	 * @param hazards the Hazards of the Level
 	 * @param goal the goal of the Level
+	 * @param playerStartPoint the point the Player starts the Level at
+	 * @param simulation the Simulation the Level is a part of
 	 */
-	public Level(ArrayList<Rectangle> platforms, ArrayList<Hazard> hazards, Rectangle goal, Point2D playerStartPoint, PortalGame gameObject) {
+	public Level(ArrayList<AABB> platforms, HazardStore hazards, AABB goal, Point2D playerStartPoint, Simulation simulation) {
 		setPlatforms(platforms);
 		setHazards(hazards);
-		assignInitialHazardValues();
+		getHazards().saveInitialState();
 		setGoal(goal);
 		setPlayerStartPoint(playerStartPoint);
-		setGameObject(gameObject);
+		setSimulation(simulation);
 	}
 	
 	/**
-	 * Draws the Level, including its Hazards, platforms, and goal
-	 * @param gc the GraphicsContext of the Canvas to draw the Level on
+	 * Queues the parts of the Level which move, which are its Hazards, to be drawn
+	 * @param renderQueue the RenderQueue of the Canvas to draw the Level on
 	 */
-	public void draw(GraphicsContext gc) {
+	public void draw(RenderQueue renderQueue) {
 		
-		gc.save();
-
-		for (Hazard hazard : getHazards()) {
-
-			gc.setFill(hazard.getColor());
-			hazard.draw(gc);
-
-		}
-
-		gc.setFill(getGoal().getFill());
-		gc.fillRect(getGoal().getX(), getGoal().getY(), getGoal().getWidth(), getGoal().getHeight());
+		getHazards().draw(renderQueue);
+		
+	}
+	
+	/**
+	 * Queues the parts of the Level which never move, which are its platforms and goal,
+	 * to be drawn. These only need to be drawn once for each Level.
+	 * @param renderQueue the RenderQueue of the Canvas to draw the Level on
+	 */
+	public void drawStaticGeometry(RenderQueue renderQueue) {
+		
+		renderQueue.fillRect(RenderQueue.GOAL_LAYER, getGoalColor(), getGoal().getX(), getGoal().getY(), getGoal().getWidth(), getGoal().getHeight());
 
-		for (Rectangle platform: getPlatforms()) {
+		for (AABB platform: getPlatforms()) {
 
-			gc.setFill(platform.getFill());
-			gc.fillRect(platform.getX(), platform.getY(), platform.getWidth(), platform.getHeight());
+			renderQueue.fillRect(RenderQueue.PLATFORM_LAYER, getPlatformColor(), platform.getX(), platform.getY(), platform.getWidth(), platform.getHeight());
 
 		}
-
-		gc.restore();
 		
 	}
 	
 	/**
 	 * Updates the Hazards of the Level and checks if the Player is touching
-	 * the goal
+	 * the goal or any of the Hazards
 	 */
 	public void update() {
 		
-		for (Hazard hazard : getHazards()) {
-			
-			hazard.update();
-			
-		}
+		setPlayerTouchingHazard(getHazards().update(getPlatformGrid(), getSimulation().getPlayer().getBounds()));
 		
 		checkIfPlayerIsTouchingGoal();
 		
 		if (isPlayerTouchingGoal()) {
 			
-			getGameObject().getAnimator().stop();
-			
 			setLevelCompleted(true);
 			
-			getGameObject().getMenuManager().showLevelCompletedWindow();
-			
 		}
 		
 	}
@@ -99,38 +92,55 @@ public class Level {
 	public void restartLevel() {
 		
 		resetHazards();
-		getGameObject().getPlayer().reset(getPlayerStartPoint());
+		setPlayerTouchingGoal(false);
+		setPlayerTouchingHazard(false);
+		getSimulation().getPlayer().reset(getPlayerStartPoint());
+		
+	}
+	
+	/**
+	 * Resets the position and velocities of each Hazard to their initial values
+	 */
+	public void resetHazards() {
+		
+		getHazards().resetToInitialState();
 		
 	}
 	
 	/**
-	 * Sets the values of the ArrayLists which store information about the
-	 * initial positions and velocities of the Hazards
+	 * Gets the number of bytes writeState writes
+	 * @return the size of the state, in bytes
 	 */
-	public void assignInitialHazardValues() {
+	public int getStateSize() {
 		
-		for (Hazard hazard : getHazards()) {
-			
-			getInitialHazardPoints().add(hazard.getCenterPoint());
-			getInitialHazardXVelocities().add(hazard.getxVelocity());
-			getInitialHazardYVelocities().add(hazard.getyVelocity());
-			
-		}
+		return 2 + getHazards().getStateSize();
 		
 	}
 	
 	/**
-	 * Resets the position and velocities of each Hazard to their initial values
+	 * Writes the parts of the Level which change while it is played(the Hazards
+	 * and whether the Player is touching the goal or a Hazard) to a buffer. Whether
+	 * the Level has ever been completed is kept out, since it is progress through
+	 * the game rather than part of the Level's state.
+	 * @param buffer the buffer to write to
 	 */
-	public void resetHazards() {
+	public void writeState(ByteBuffer buffer) {
 		
-		for (int i = 0; i < getHazards().size(); i++) {
-			
-			getHazards().get(i).setCenterPoint(getInitialHazardPoints().get(i));
-			getHazards().get(i).setxVelocity(getInitialHazardXVelocities().get(i));
-			getHazards().get(i).setyVelocity(getInitialHazardYVelocities().get(i));
-			
-		}
+		buffer.put((byte) (isPlayerTouchingGoal() ? 1 : 0));
+		buffer.put((byte) (isPlayerTouchingHazard() ? 1 : 0));
+		getHazards().writeState(buffer);
+		
+	}
+	
+	/**
+	 * Reads a state written by writeState from a buffer
+	 * @param buffer the buffer to read from
+	 */
+	public void readState(ByteBuffer buffer) {
+		
+		setPlayerTouchingGoal(buffer.get() == 1);
+		setPlayerTouchingHazard(buffer.get() == 1);
+		getHazards().readState(buffer);
 		
 	}
 	
@@ -140,7 +150,7 @@ public class Level {
 	 */
 	public void checkIfPlayerIsTouchingGoal() {
 		
-		if (getGameObject().getPlayer().getRectangle().intersects(getGoal().getLayoutBounds())) {
+		if (getSimulation().getPlayer().getBounds().intersects(getGoal())) {
 			
 			setPlayerTouchingGoal(true);
 			
@@ -168,100 +178,110 @@ public class Level {
 		this.playerTouchingGoal = playerTouchingGoal;
 	}
 
+	/**
+	 * Gets the value of the playerTouchingHazard variable
+	 * @return the playerTouchingHazard value
+	 */
+	public boolean isPlayerTouchingHazard() {
+		return playerTouchingHazard;
+	}
+
+	/**
+	 * Sets the value for the playerTouchingHazard variable
+	 * @param playerTouchingHazard the new value for the playerTouchingHazard variable
+	 */
+	public void setPlayerTouchingHazard(boolean playerTouchingHazard) {
+		this.playerTouchingHazard = playerTouchingHazard;
+	}
+
 	/**
 	 * Gets the platforms of the Level
 	 * @return the platforms ArrayList
 	 */
-	public ArrayList<Rectangle> getPlatforms() {
+	public ArrayList<AABB> getPlatforms() {
 		return platforms;
 	}
 	
 	/**
-	 * Sets the platforms of the Level
+	 * Sets the platforms of the Level and builds the PlatformGrid used to
+	 * find the platforms near an Entity or Portal
 	 * @param platforms the new platforms ArrayList
 	 */
-	public void setPlatforms(ArrayList<Rectangle> platforms) {
+	public void setPlatforms(ArrayList<AABB> platforms) {
 		this.platforms = platforms;
+		this.platformGrid = new PlatformGrid(platforms);
+	}
+
+	/**
+	 * Gets the PlatformGrid containing the platforms of the Level
+	 * @return the PlatformGrid
+	 */
+	public PlatformGrid getPlatformGrid() {
+		return platformGrid;
 	}
 	
 	/**
 	 * Gets the Hazards of the Level
-	 * @return the ArrayList of Hazards
+	 * @return the HazardStore holding the Hazards
 	 */
-	public ArrayList<Hazard> getHazards() {
+	public HazardStore getHazards() {
 		return hazards;
 	}
 	
 	/**
 	 * Sets the Hazards of the Level
-	 * @param hazards the new Hazards ArrayList
+	 * @param hazards the new HazardStore
 	 */
-	public void setHazards(ArrayList<Hazard> hazards) {
+	public void setHazards(HazardStore hazards) {
 		this.hazards = hazards;
 	}
 
 	/**
-	 * Gets the initial center points of the Hazards
-	 * @return the initial center points
-	 */
-	public ArrayList<Point2D> getInitialHazardPoints() {
-		return initialHazardPoints;
-	}
-
-	/**
-	 * Stores the initial Hazard center points
-	 * @param initialHazardPoints the initial center points
+	 * Gets the goal of the Level
+	 * @return the goal AABB
 	 */
-	public void setInitialHazardPoints(ArrayList<Point2D> initialHazardPoints) {
-		this.initialHazardPoints = initialHazardPoints;
+	public AABB getGoal() {
+		return goal;
 	}
-
+	
 	/**
-	 * Gets the initial x velocities of the Hazards of the Level
-	 * @return the initial x velocities
+	 * Sets the goal of the Level
+	 * @param goal the goal to set
 	 */
-	public ArrayList<Double> getInitialHazardXVelocities() {
-		return initialHazardXVelocities;
+	public void setGoal(AABB goal) {
+		this.goal = goal;
 	}
 
 	/**
-	 * Stores the initial x velocities of the Hazards of the Level
-	 * @param initialHazardXVelocities the initial x velocities
+	 * Gets the Color the platforms of the Level are drawn with
+	 * @return the platform Color
 	 */
-	public void setInitialHazardXVelocities(ArrayList<Double> initialHazardXVelocities) {
-		this.initialHazardXVelocities = initialHazardXVelocities;
+	public Color getPlatformColor() {
+		return platformColor;
 	}
 
 	/**
-	 * Gets the initial y velocities of the Hazards of the Level
-	 * @return the initial y velocities
+	 * Sets the Color the platforms of the Level are drawn with
+	 * @param platformColor the new platform Color
 	 */
-	public ArrayList<Double> getInitialHazardYVelocities() {
-		return initialHazardYVelocities;
+	public void setPlatformColor(Color platformColor) {
+		this.platformColor = platformColor;
 	}
 
 	/**
-	 * Stores the initial y velocities of the Hazards of the Level
-	 * @param initialHazardYVelocities the initial y velocities
+	 * Gets the Color the goal of the Level is drawn with
+	 * @return the goal Color
 	 */
-	public void setInitialHazardYVelocities(ArrayList<Double> initialHazardYVelocities) {
-		this.initialHazardYVelocities = initialHazardYVelocities;
+	public Color getGoalColor() {
+		return goalColor;
 	}
 
 	/**
-	 * Gets the goal of the Level
-	 * @return the goal Rectangle
+	 * Sets the Color the goal of the Level is drawn with
+	 * @param goalColor the new goal Color
 	 */
-	public Rectangle getGoal() {
-		return goal;
-	}
-	
-	/**
-	 * Sets the goal of the Level
-	 * @param goal the goal to set
-	 */
-	public void setGoal(Rectangle goal) {
-		this.goal = goal;
+	public void setGoalColor(Color goalColor) {
+		this.goalColor = goalColor;
 	}
 
 	/**
@@ -297,19 +317,19 @@ public class Level {
 	}
 
 	/**
-	 * Gets the PortalGame instance
-	 * @return the instance
+	 * Gets the Simulation the Level is a part of
+	 * @return the Simulation
 	 */
-	public PortalGame getGameObject() {
-		return gameObject;
+	public Simulation getSimulation() {
+		return simulation;
 	}
 
 	/**
-	 * Sets the PortalGame instance
-	 * @param gameObject the new instance
+	 * Sets the Simulation the Level is a part of
+	 * @param simulation the new Simulation
 	 */
-	public void setGameObject(PortalGame gameObject) {
-		this.gameObject = gameObject;
+	public void setSimulation(Simulation simulation) {
+		this.simulation = simulation;
 	}
 	
 	
@@ -0,0 +1,206 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the most recently used Levels, so that a Level which is opened again doesn't
+ * have to be built again. The cache is limited both by the number of Levels and by an
+ * estimate of the memory they take up; when either limit is passed, the least recently
+ * used Levels are evicted until both are met again. The most recently added Level is
+ * never evicted, even if it is bigger than the memory limit on its own.
+ */
+public class LevelCache {
+
+	public static final int DEFAULT_MAX_LEVELS = 16;
+	public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+	// Rough sizes used to estimate the memory of a Level
+	private static final long LEVEL_BYTES = 1024;
+	private static final long PLATFORM_BYTES = 96; // the AABB, its place in the list, and its PlatformGrid cells
+	private static final long HAZARD_BYTES = 104; // the current and initial values of each column, and the Color
+
+	private int maxLevels;
+	private long maxBytes;
+	private long usedBytes = 0;
+
+	private long hits = 0;
+	private long misses = 0;
+	private long evictions = 0;
+
+	// Iterates from the least to the most recently used Level
+	private LinkedHashMap<Integer, Level> levels = new LinkedHashMap<>(16, 0.75f, true);
+
+	public LevelCache() {
+
+		this(DEFAULT_MAX_LEVELS, DEFAULT_MAX_BYTES);
+
+	}
+
+	/**
+	 * Creates an empty LevelCache with the given limits
+	 * @param maxLevels the largest number of Levels to keep
+	 * @param maxBytes the largest estimated number of bytes of Levels to keep
+	 */
+	public LevelCache(int maxLevels, long maxBytes) {
+
+		this.maxLevels = maxLevels;
+		this.maxBytes = maxBytes;
+
+	}
+
+	/**
+	 * Gets a Level from the cache, making it the most recently used Level
+	 * @param index the index of the Level
+	 * @return the Level, or null if it isn't in the cache
+	 */
+	public Level get(int index) {
+
+		Level level = levels.get(index);
+
+		if (level != null) {
+
+			hits++;
+
+		} else {
+
+			misses++;
+
+		}
+
+		return level;
+
+	}
+
+	/**
+	 * Gets a Level from the cache without counting it as a hit or a miss, such as to
+	 * prepare a Level that is about to be opened. It still becomes the most recently
+	 * used Level.
+	 * @param index the index of the Level
+	 * @return the Level, or null if it isn't in the cache
+	 */
+	public Level peek(int index) {
+
+		return levels.get(index);
+
+	}
+
+	/**
+	 * Adds a Level to the cache as the most recently used Level, evicting the
+	 * least recently used Levels if the cache is over either of its limits
+	 * @param index the index of the Level
+	 * @param level the Level
+	 */
+	public void put(int index, Level level) {
+
+		Level replaced = levels.put(index, level);
+		if (replaced != null) {
+
+			usedBytes -= estimateBytes(replaced);
+
+		}
+
+		usedBytes += estimateBytes(level);
+
+		Iterator<Map.Entry<Integer, Level>> leastRecentlyUsed = levels.entrySet().iterator();
+
+		while (levels.size() > 1 && (levels.size() > maxLevels || usedBytes > maxBytes)) {
+
+			Map.Entry<Integer, Level> eldest = leastRecentlyUsed.next();
+			leastRecentlyUsed.remove();
+
+			usedBytes -= estimateBytes(eldest.getValue());
+			evictions++;
+
+		}
+
+	}
+
+	/**
+	 * Checks if a Level is in the cache, without counting it as used
+	 * @param index the index of the Level
+	 * @return true if the Level is in the cache, false otherwise
+	 */
+	public boolean contains(int index) {
+
+		return levels.containsKey(index);
+
+	}
+
+	/**
+	 * Removes every Level from the cache
+	 */
+	public void clear() {
+
+		levels.clear();
+		usedBytes = 0;
+
+	}
+
+	/**
+	 * Estimates the number of bytes a Level takes up
+	 * @param level the Level
+	 * @return the estimated number of bytes
+	 */
+	public static long estimateBytes(Level level) {
+
+		return LEVEL_BYTES + level.getPlatforms().size() * PLATFORM_BYTES + level.getHazards().size() * HAZARD_BYTES;
+
+	}
+
+	/**
+	 * Gets the number of Levels in the cache
+	 * @return the number of Levels
+	 */
+	public int size() {
+		return levels.size();
+	}
+
+	/**
+	 * Gets the estimated number of bytes the Levels in the cache take up
+	 * @return the estimated number of bytes
+	 */
+	public long getUsedBytes() {
+		return usedBytes;
+	}
+
+	/**
+	 * Gets the largest number of Levels the cache keeps
+	 * @return the maximum number of Levels
+	 */
+	public int getMaxLevels() {
+		return maxLevels;
+	}
+
+	/**
+	 * Gets the largest estimated number of bytes of Levels the cache keeps
+	 * @return the maximum number of bytes
+	 */
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * Gets the number of times get found the Level it was asked for
+	 * @return the number of hits
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Gets the number of times get didn't find the Level it was asked for
+	 * @return the number of misses
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Gets the number of Levels that have been evicted
+	 * @return the number of evictions
+	 */
+	public long getEvictions() {
+		return evictions;
+	}
+
+}
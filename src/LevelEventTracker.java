@@ -0,0 +1,51 @@
+
+/**
+ * Watches the current Level of a Simulation for the ticks on which the Player
+ * reaches the goal(which ends the Level in the game) or starts touching a Hazard
+ */
+public class LevelEventTracker {
+
+	public static final int REACHED_GOAL = 1;
+	public static final int HIT_HAZARD = 2;
+
+	private boolean touchingGoal = false;
+	private boolean touchingHazard = false;
+
+	/**
+	 * Forgets the last state of the Level, which should be done when a Level is loaded
+	 */
+	public void reset() {
+
+		touchingGoal = false;
+		touchingHazard = false;
+
+	}
+
+	/**
+	 * Checks the Level after a tick for events which started on that tick
+	 * @param level the current Level
+	 * @return REACHED_GOAL and/or HIT_HAZARD combined with |, or 0 if neither started
+	 */
+	public int update(Level level) {
+
+		int events = 0;
+
+		if (level.isPlayerTouchingGoal() && !touchingGoal) {
+
+			events |= REACHED_GOAL;
+
+		}
+		if (level.isPlayerTouchingHazard() && !touchingHazard) {
+
+			events |= HIT_HAZARD;
+
+		}
+
+		touchingGoal = level.isPlayerTouchingGoal();
+		touchingHazard = level.isPlayerTouchingHazard();
+
+		return events;
+
+	}
+
+}
@@ -0,0 +1,409 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import javafx.geometry.Point2D;
+import javafx.scene.paint.Color;
+
+/**
+ * Generates Levels of any size for testing how the game holds up at scale. A generated
+ * Level is surrounded by four walls and split into a grid of cells, each holding
+ * at most one randomly sized platform. A shaft down the middle of the Level and a
+ * corridor along the floor are kept free of platforms and Hazards: the Player starts
+ * in the shaft, falls to the floor, and can walk along the corridor to the goal, so the
+ * goal can always be reached. Hazards start where they don't touch any platform and
+ * move in random directions. Their start points are found by trying random points, so
+ * generating fails if there isn't enough room left for them.
+ *
+ * The same seed and settings always generate the same Level. The platforms are placed
+ * cell by cell without searching, so even Levels with 100,000 platforms only take a few
+ * milliseconds to generate.
+ */
+public class LevelGenerator {
+
+	// Generated Levels are never smaller than the handcrafted ones
+	public static final int MIN_WIDTH = 700;
+	public static final int MIN_HEIGHT = 600;
+
+	public static final double WALL_THICKNESS = 50;
+
+	private static final double GOAL_WIDTH = 50;
+	private static final double GOAL_HEIGHT = 80;
+
+	private static final double SHAFT_WIDTH = 200;
+	private static final double CORRIDOR_HEIGHT = 150;
+
+	// How many random points are tried for each Hazard before giving up
+	private static final int MAX_HAZARD_TRIES = 10000;
+
+	private long seed;
+	private int platformCount = 100;
+	private int hazardCount = 0;
+
+	// The side length of each cell, and how much of each side its platform covers on average
+	private double cellSize = 120;
+	private double density = 0.35;
+
+	private double hazardSize = 20;
+	private double maxHazardSpeed = 3;
+
+	/**
+	 * Creates a LevelGenerator with the default settings
+	 * @param seed the seed of the random numbers the Levels are generated from
+	 */
+	public LevelGenerator(long seed) {
+
+		this.seed = seed;
+
+	}
+
+	/**
+	 * Generates a Level from the seed and settings
+	 * @param simulation the Simulation the Level will be a part of
+	 * @return the Level
+	 * @throws IllegalArgumentException if the Hazards don't fit beside the shaft and above
+	 * the corridor, or no room is found for one of them
+	 */
+	public Level generate(Simulation simulation) {
+
+		Random random = new Random(seed);
+
+		int columns = getColumns();
+		double width = getWidth();
+		double height = getHeight();
+
+		double innerWidth = width - 2 * WALL_THICKNESS;
+		double innerHeight = height - 2 * WALL_THICKNESS;
+		double cellWidth = innerWidth / columns;
+		double cellHeight = innerHeight / columns;
+
+		AABB shaft = new AABB((width - SHAFT_WIDTH) / 2, WALL_THICKNESS, SHAFT_WIDTH, innerHeight);
+		AABB corridor = new AABB(WALL_THICKNESS, height - WALL_THICKNESS - CORRIDOR_HEIGHT, innerWidth, CORRIDOR_HEIGHT);
+
+		ArrayList<AABB> platforms = new ArrayList<>(platformCount + 4);
+		platforms.add(new AABB(0, height - WALL_THICKNESS, width, WALL_THICKNESS));
+		platforms.add(new AABB(0, 0, width, WALL_THICKNESS));
+		platforms.add(new AABB(0, 0, WALL_THICKNESS, height));
+		platforms.add(new AABB(width - WALL_THICKNESS, 0, WALL_THICKNESS, height));
+
+		// The index of the platform in each cell, or -1 if the cell is empty
+		int[] cellPlatforms = new int[columns * columns];
+		Arrays.fill(cellPlatforms, -1);
+
+		int freeCells = 0;
+		for (int cell = 0; cell < cellPlatforms.length; cell++) {
+
+			if (!isReserved(cell, columns, cellWidth, cellHeight, shaft, corridor)) {
+
+				freeCells++;
+
+			}
+
+		}
+
+		// Choose which of the free cells get a platform so that each is equally likely
+		int remaining = platformCount - platforms.size();
+		for (int cell = 0; cell < cellPlatforms.length && remaining > 0; cell++) {
+
+			if (isReserved(cell, columns, cellWidth, cellHeight, shaft, corridor)) {
+
+				continue;
+
+			}
+
+			if (random.nextInt(freeCells) < remaining) {
+
+				double platformWidth = cellWidth * density * (0.5 + random.nextDouble());
+				double platformHeight = cellHeight * density * (0.5 + random.nextDouble());
+				double x = WALL_THICKNESS + (cell % columns) * cellWidth + random.nextDouble() * (cellWidth - platformWidth);
+				double y = WALL_THICKNESS + (cell / columns) * cellHeight + random.nextDouble() * (cellHeight - platformHeight);
+
+				cellPlatforms[cell] = platforms.size();
+				platforms.add(new AABB(x, y, platformWidth, platformHeight));
+				remaining--;
+
+			}
+
+			freeCells--;
+
+		}
+
+		HazardStore hazards = new HazardStore(hazardCount);
+
+		double sideWidth = Math.max(shaft.getX() - WALL_THICKNESS, width - WALL_THICKNESS - shaft.getMaxX());
+		if (hazardCount > 0
+				&& (hazardSize <= 0 || hazardSize >= sideWidth || hazardSize >= innerHeight - CORRIDOR_HEIGHT)) {
+
+			throw new IllegalArgumentException(
+					"Hazards of size " + hazardSize + " don't fit beside the shaft and above the corridor");
+
+		}
+
+		int tries = 0;
+		while (hazards.size() < hazardCount) {
+
+			if (tries++ == MAX_HAZARD_TRIES) {
+
+				throw new IllegalArgumentException("No room for Hazard " + hazards.size() + " of " + hazardCount + " after "
+						+ MAX_HAZARD_TRIES + " tries");
+
+			}
+
+			double x = WALL_THICKNESS + random.nextDouble() * (innerWidth - hazardSize);
+			double y = WALL_THICKNESS + random.nextDouble() * (innerHeight - hazardSize);
+
+			if (shaft.intersects(x, y, hazardSize, hazardSize) || corridor.intersects(x, y, hazardSize, hazardSize)
+					|| touchesPlatform(x, y, platforms, cellPlatforms, columns, cellWidth, cellHeight)) {
+
+				continue;
+
+			}
+
+			tries = 0;
+
+			int i = hazards.add(x, y, hazardSize, hazardSize, Color.RED);
+			hazards.setxVelocity(i, (random.nextDouble() * 2 - 1) * maxHazardSpeed);
+			hazards.setyVelocity(i, (random.nextDouble() * 2 - 1) * maxHazardSpeed);
+
+		}
+
+		// The goal stands on the floor, on whichever side of the shaft has more room
+		double goalX;
+		if (shaft.getX() - WALL_THICKNESS > width - WALL_THICKNESS - shaft.getMaxX()) {
+
+			goalX = WALL_THICKNESS + random.nextDouble() * (shaft.getX() - WALL_THICKNESS - GOAL_WIDTH);
+
+		} else {
+
+			goalX = shaft.getMaxX() + random.nextDouble() * (width - WALL_THICKNESS - shaft.getMaxX() - GOAL_WIDTH);
+
+		}
+
+		AABB goal = new AABB(goalX, height - WALL_THICKNESS - GOAL_HEIGHT, GOAL_WIDTH, GOAL_HEIGHT);
+
+		Point2D playerStartPoint = new Point2D(width / 2 - simulation.getPlayer().getWidth() / 2, height / 2);
+
+		return new Level(platforms, hazards, goal, playerStartPoint, simulation);
+
+	}
+
+	/**
+	 * Checks if a cell overlaps the shaft or the corridor
+	 * @param cell the index of the cell
+	 * @param columns the number of cells in each row and column
+	 * @param cellWidth the width of each cell
+	 * @param cellHeight the height of each cell
+	 * @param shaft the shaft the Player falls down
+	 * @param corridor the corridor along the floor
+	 * @return true if the cell can't hold a platform, false otherwise
+	 */
+	private static boolean isReserved(int cell, int columns, double cellWidth, double cellHeight, AABB shaft,
+			AABB corridor) {
+
+		double x = WALL_THICKNESS + (cell % columns) * cellWidth;
+		double y = WALL_THICKNESS + (cell / columns) * cellHeight;
+
+		return shaft.intersects(x, y, cellWidth, cellHeight) || corridor.intersects(x, y, cellWidth, cellHeight);
+
+	}
+
+	/**
+	 * Checks if a Hazard at the given position would touch a platform. Since each
+	 * platform is inside its cell, only the cells under the Hazard's corners are checked.
+	 * @param x the x coordinate of the Hazard
+	 * @param y the y coordinate of the Hazard
+	 * @param platforms the platforms of the Level
+	 * @param cellPlatforms the index of the platform in each cell, or -1 if the cell is empty
+	 * @param columns the number of cells in each row and column
+	 * @param cellWidth the width of each cell
+	 * @param cellHeight the height of each cell
+	 * @return true if the Hazard would touch a platform, false otherwise
+	 */
+	private boolean touchesPlatform(double x, double y, ArrayList<AABB> platforms, int[] cellPlatforms, int columns,
+			double cellWidth, double cellHeight) {
+
+		int firstColumn = cellIndex(x, cellWidth, columns);
+		int lastColumn = cellIndex(x + hazardSize, cellWidth, columns);
+		int firstRow = cellIndex(y, cellHeight, columns);
+		int lastRow = cellIndex(y + hazardSize, cellHeight, columns);
+
+		for (int row = firstRow; row <= lastRow; row++) {
+
+			for (int column = firstColumn; column <= lastColumn; column++) {
+
+				int platformIndex = cellPlatforms[row * columns + column];
+
+				if (platformIndex >= 0 && platforms.get(platformIndex).intersects(x, y, hazardSize, hazardSize)) {
+
+					return true;
+
+				}
+
+			}
+
+		}
+
+		return false;
+
+	}
+
+	private static int cellIndex(double coordinate, double cellSize, int columns) {
+
+		return Math.min(columns - 1, Math.max(0, (int) ((coordinate - WALL_THICKNESS) / cellSize)));
+
+	}
+
+	/**
+	 * Gets the number of cells in each row and column of the grid. There are enough
+	 * cells for every platform after leaving out the ones under the shaft and corridor.
+	 * @return the number of cells in each row and column
+	 */
+	public int getColumns() {
+
+		int columns = Math.max(1, (int) Math.ceil(Math.sqrt(platformCount)));
+
+		// A span of some length overlaps at most two more cells than fit inside it,
+		// so this many rows and columns of cells are left out for the shaft and corridor
+		int reservedLines = (int) Math.ceil(SHAFT_WIDTH / cellSize) + (int) Math.ceil(CORRIDOR_HEIGHT / cellSize) + 4;
+
+		while ((long) columns * columns - (long) columns * reservedLines < platformCount) {
+
+			columns++;
+
+		}
+
+		return columns;
+
+	}
+
+	/**
+	 * Gets the width of the Levels generated with the current settings
+	 * @return the width
+	 */
+	public double getWidth() {
+		return Math.max(MIN_WIDTH, getColumns() * cellSize + 2 * WALL_THICKNESS);
+	}
+
+	/**
+	 * Gets the height of the Levels generated with the current settings
+	 * @return the height
+	 */
+	public double getHeight() {
+		return Math.max(MIN_HEIGHT, getColumns() * cellSize + 2 * WALL_THICKNESS);
+	}
+
+	/**
+	 * Gets the seed of the random numbers the Levels are generated from
+	 * @return the seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Sets the seed of the random numbers the Levels are generated from
+	 * @param seed the new seed
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Gets the number of platforms, including the four walls
+	 * @return the number of platforms
+	 */
+	public int getPlatformCount() {
+		return platformCount;
+	}
+
+	/**
+	 * Sets the number of platforms, including the four walls
+	 * @param platformCount the new number of platforms
+	 */
+	public void setPlatformCount(int platformCount) {
+		this.platformCount = platformCount;
+	}
+
+	/**
+	 * Gets the number of Hazards
+	 * @return the number of Hazards
+	 */
+	public int getHazardCount() {
+		return hazardCount;
+	}
+
+	/**
+	 * Sets the number of Hazards
+	 * @param hazardCount the new number of Hazards
+	 */
+	public void setHazardCount(int hazardCount) {
+		this.hazardCount = hazardCount;
+	}
+
+	/**
+	 * Gets the side length of each cell of the grid. A bigger cell size spreads the
+	 * platforms further apart and makes the Level bigger.
+	 * @return the cell size
+	 */
+	public double getCellSize() {
+		return cellSize;
+	}
+
+	/**
+	 * Sets the side length of each cell of the grid
+	 * @param cellSize the new cell size
+	 */
+	public void setCellSize(double cellSize) {
+		this.cellSize = cellSize;
+	}
+
+	/**
+	 * Gets how much of each side of its cell a platform covers on average
+	 * @return the density, from 0 to 1
+	 */
+	public double getDensity() {
+		return density;
+	}
+
+	/**
+	 * Sets how much of each side of its cell a platform covers on average. Platforms
+	 * are between half and one and a half times this size, so it shouldn't be above 2/3.
+	 * @param density the new density
+	 */
+	public void setDensity(double density) {
+		this.density = density;
+	}
+
+	/**
+	 * Gets the side length of each Hazard
+	 * @return the Hazard size
+	 */
+	public double getHazardSize() {
+		return hazardSize;
+	}
+
+	/**
+	 * Sets the side length of each Hazard
+	 * @param hazardSize the new Hazard size
+	 */
+	public void setHazardSize(double hazardSize) {
+		this.hazardSize = hazardSize;
+	}
+
+	/**
+	 * Gets the fastest a Hazard can move along each axis
+	 * @return the maximum Hazard speed
+	 */
+	public double getMaxHazardSpeed() {
+		return maxHazardSpeed;
+	}
+
+	/**
+	 * Sets the fastest a Hazard can move along each axis
+	 * @param maxHazardSpeed the new maximum Hazard speed
+	 */
+	public void setMaxHazardSpeed(double maxHazardSpeed) {
+		this.maxHazardSpeed = maxHazardSpeed;
+	}
+
+}
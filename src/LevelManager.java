@@ -1,20 +1,32 @@
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 
 import javafx.geometry.Point2D;
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
-import javafx.scene.shape.Rectangle;
 
 public class LevelManager {
 	
-	private Level [] levels;
+	public static final int BUILT_IN_LEVEL_COUNT = 8;
+	
+	// The Levels which have been built, and whether each Level was completed. Only the
+	// current Level can be completed, so it is checked when switching to another Level
+	// and kept here, where it isn't lost when the Level is evicted from the cache.
+	private LevelCache levelCache = new LevelCache();
+	private BitSet completedLevels = new BitSet();
+	
+	private LevelPack levelPack = null; // only set if the Levels come from a level pack
+	
+	private LevelPreloader levelPreloader = null; // only set if the next Level is built in the background
 	
 	private int currentLevelIndex;
+	private Level currentLevel = null;
 	
 	private PortalGame gameObject;
 	
+	private Simulation simulation;
+	
 	public LevelManager() {}
 	
 	/**
@@ -24,22 +36,20 @@ public class LevelManager {
 	public LevelManager(PortalGame gameObject) {
 		
 		setGameObject(gameObject);
-		
-		generateLevels();
+		setSimulation(gameObject.getSimulation());
 		
 	}
 	
 	/**
-	 * Updates and draws the current level
-	 * @param gc the GraphicsContext of the Canvas to draw the Level on
+	 * Creates a LevelManager for a Simulation which isn't shown in a window
+	 * @param simulation the Simulation to create the Levels for
 	 */
-	public void update(GraphicsContext gc) {
+	public LevelManager(Simulation simulation) {
+		
+		setSimulation(simulation);
 		
-		updateLevel();
-		drawCurrentLevel(gc);
-
 	}
-
+	
 	/**
 	 * Updates the current Level
 	 */
@@ -50,48 +60,235 @@ public class LevelManager {
 	}
 	
 	/**
-	 * Draws the current Level
-	 * @param gc the GraphicsContext of the Canvas to draw the Level on
+	 * Queues the parts of the current Level which move to be drawn
+	 * @param renderQueue the RenderQueue of the Canvas to draw the Level on
 	 */
-	public void drawCurrentLevel(GraphicsContext gc) {
+	public void drawCurrentLevel(RenderQueue renderQueue) {
 		
-		gc.save();
+		getCurrentLevel().draw(renderQueue);
 		
-		gc.setFill(Color.BLACK);
-		
-		getCurrentLevel().draw(gc);
+	}
+	
+	/**
+	 * Queues the parts of the current Level which never move to be drawn
+	 * @param renderQueue the RenderQueue of the Canvas to draw the Level on
+	 */
+	public void drawCurrentLevelStaticGeometry(RenderQueue renderQueue) {
 		
-		gc.restore();
+		getCurrentLevel().drawStaticGeometry(renderQueue);
 		
 	}
 	
 	/**
-	 * Switches the current Level to the Level at the given index of the
-	 * "levels" array in this LevelManager
-	 * @param levelIndex the index of the Level in the levels array
+	 * Switches the current Level to the Level at the given index and starts playing it.
+	 * The Scene is only changed if the game isn't showing already, such as when going
+	 * to the next Level from the level completed overlay.
+	 * @param levelIndex the index of the Level
 	 */
 	public void switchLevel(int levelIndex) {
 		
-		setCurrentLevelIndex(levelIndex);
-		getGameObject().getPlayer().reset(getCurrentLevel().getPlayerStartPoint());
+		getGameObject().recordLevelLoad(levelIndex);
+		openLevel(levelIndex);
+		getGameObject().getInput().clear();
+		getGameObject().setGameState(GameState.PLAYING);
 		getGameObject().getAnimator().start();
-		getGameObject().getStage().setScene(getGameObject().getGameScene());
-		getCurrentLevel().restartLevel();
+		
+		if (getGameObject().getStage().getScene() != getGameObject().getGameScene()) {
+			
+			getGameObject().getStage().setScene(getGameObject().getGameScene());
+			
+		}
+		
+	}
+	
+	/**
+	 * Makes the Level at the given index the current Level and loads it into the
+	 * Simulation, without touching the window
+	 * @param levelIndex the index of the Level
+	 */
+	public void openLevel(int levelIndex) {
+		
+		if (getCurrentLevel() != null && getCurrentLevel().isLevelCompleted()) {
+			
+			completedLevels.set(getCurrentLevelIndex());
+			
+		}
+		
+		setCurrentLevel(getLevel(levelIndex));
+		setCurrentLevelIndex(levelIndex);
+		getSimulation().loadLevel(getCurrentLevel());
+		
+		// The next Level is the one most likely to be opened after this one
+		int nextLevelIndex = levelIndex + 1;
+		if (getLevelPreloader() != null && nextLevelIndex < getLevelCount() && !getLevelCache().contains(nextLevelIndex)) {
+			
+			getLevelPreloader().preload(nextLevelIndex, this);
+			
+		}
 		
 	}
 	
 	/**
-	 * Gets the Level at the currentLevelIndex of the levels array
+	 * Gets the Level that was last switched to
 	 * @return the current Level
 	 */
 	public Level getCurrentLevel() {
+		return currentLevel;
+	}
+	
+	/**
+	 * Sets the Level that was last switched to
+	 * @param currentLevel the new current Level
+	 */
+	public void setCurrentLevel(Level currentLevel) {
+		this.currentLevel = currentLevel;
+	}
+	
+	/**
+	 * Gets the Level at the given index. Levels are only built(or decoded from the level
+	 * pack) when they are first needed, unless the LevelPreloader has already built them,
+	 * and are then kept in the LevelCache until they are evicted. The current Level is
+	 * always the same instance while it's being played.
+	 * @param levelIndex the index of the Level
+	 * @return the Level
+	 */
+	public Level getLevel(int levelIndex) {
+		
+		if (getCurrentLevel() != null && levelIndex == getCurrentLevelIndex()) {
+			
+			return getCurrentLevel();
+			
+		}
+		
+		Level level = getLevelCache().get(levelIndex);
+		
+		if (level == null) {
+			
+			if (getLevelPreloader() != null) {
+				
+				level = getLevelPreloader().take(levelIndex);
+				
+			}
+			if (level == null) {
+				
+				level = createLevel(levelIndex);
+				
+			}
+			
+			level.setLevelCompleted(completedLevels.get(levelIndex));
+			getLevelCache().put(levelIndex, level);
+			
+		}
+		
+		return level;
+		
+	}
+	
+	/**
+	 * Gets the Level at the given index if it has already been built, without building
+	 * it or waiting for the LevelPreloader, so it can be prepared before it's opened
+	 * @param levelIndex the index of the Level
+	 * @return the Level, or null if it hasn't been built yet
+	 */
+	public Level peekLevel(int levelIndex) {
 		
-		return getLevels()[getCurrentLevelIndex()];
+		if (getCurrentLevel() != null && levelIndex == getCurrentLevelIndex()) {
+			
+			return getCurrentLevel();
+			
+		}
+		
+		Level level = getLevelCache().peek(levelIndex);
+		
+		if (level == null && getLevelPreloader() != null) {
+			
+			level = getLevelPreloader().peek(levelIndex);
+			
+		}
+		
+		return level;
 		
 	}
 	
 	/**
-	 * Gets the index(in the levels array) of the current Level
+	 * Builds a new instance of the Level at the given index. This only reads the level
+	 * pack and the size of the Simulation, so it can be called from another thread.
+	 * @param levelIndex the index of the Level
+	 * @return the new Level
+	 */
+	public Level createLevel(int levelIndex) {
+		
+		if (getLevelPack() != null) {
+			
+			return getLevelPack().readLevel(levelIndex, getSimulation());
+			
+		}
+		
+		switch (levelIndex) {
+			
+			case 0: return getLevel1();
+			case 1: return getLevel2();
+			case 2: return getLevel3();
+			case 3: return getLevel4();
+			case 4: return getLevel5();
+			case 5: return getLevel6();
+			case 6: return getLevel7();
+			case 7: return getLevel8();
+			default: throw new IndexOutOfBoundsException("Level " + levelIndex + " of " + BUILT_IN_LEVEL_COUNT + " built in levels");
+			
+		}
+		
+	}
+	
+	/**
+	 * Gets the number of Levels
+	 * @return the number of Levels
+	 */
+	public int getLevelCount() {
+		
+		return getLevelPack() != null ? getLevelPack().getLevelCount() : BUILT_IN_LEVEL_COUNT;
+		
+	}
+	
+	/**
+	 * Checks if a Level was completed, without building it if it isn't in the cache
+	 * @param levelIndex the index of the Level
+	 * @return true if the Level was completed, false otherwise
+	 */
+	public boolean isLevelCompleted(int levelIndex) {
+		
+		if (getCurrentLevel() != null && levelIndex == getCurrentLevelIndex() && getCurrentLevel().isLevelCompleted()) {
+			
+			return true;
+			
+		}
+		
+		return completedLevels.get(levelIndex);
+		
+	}
+	
+	/**
+	 * Replaces the built in Levels with the Levels of a level pack. No Level is
+	 * decoded until it is opened.
+	 * @param levelPack the level pack
+	 */
+	public void loadLevelPack(LevelPack levelPack) {
+		
+		if (getLevelPreloader() != null) {
+			
+			getLevelPreloader().discardPending();
+			
+		}
+		
+		setLevelPack(levelPack);
+		getLevelCache().clear();
+		completedLevels.clear();
+		setCurrentLevel(null);
+		
+	}
+	
+	/**
+	 * Gets the index of the current Level
 	 * @return the current level's index
 	 */
 	public int getCurrentLevelIndex() {
@@ -99,7 +296,7 @@ public class LevelManager {
 	}
 
 	/**
-	 * Sets the index(in the levels array) of the current level
+	 * Sets the index of the current level
 	 * @param currentLevelIndex the new current level index
 	 */
 	public void setCurrentLevelIndex(int currentLevelIndex) {
@@ -107,40 +304,70 @@ public class LevelManager {
 	}
 
 	/**
-	 * Instantiate the Levels in the levels array
+	 * Builds a new instance of every Level. Unlike getLevel, this doesn't use the
+	 * LevelCache, so it should only be used with a small number of Levels.
+	 * @return an array of every Level
 	 */
-	public void generateLevels() {
+	public Level[] createAllLevels() {
 		
-		setLevels(new Level [] {
-			
-			getLevel1(), 
-			getLevel2(),
-			getLevel3(),
-			getLevel4(),
-			getLevel5(),
-			getLevel6(),
-			getLevel7(),
-			getLevel8()
+		Level[] levels = new Level[getLevelCount()];
+		
+		for (int i = 0; i < levels.length; i++) {
 			
+			levels[i] = createLevel(i);
 			
-		});
+		}
+		
+		return levels;
 		
 	}
 	
 	/**
-	 * Gets the array of Level objects
-	 * @return the levels array
+	 * Gets the level pack the Levels come from
+	 * @return the level pack, or null if the Levels are built in
 	 */
-	public Level[] getLevels() {
-		return levels;
+	public LevelPack getLevelPack() {
+		return levelPack;
+	}
+
+	/**
+	 * Sets the level pack the Levels come from
+	 * @param levelPack the new level pack
+	 */
+	public void setLevelPack(LevelPack levelPack) {
+		this.levelPack = levelPack;
+	}
+
+	/**
+	 * Gets the LevelCache which keeps the Levels that have been built
+	 * @return the LevelCache
+	 */
+	public LevelCache getLevelCache() {
+		return levelCache;
+	}
+
+	/**
+	 * Sets the LevelCache which keeps the Levels that have been built
+	 * @param levelCache the new LevelCache
+	 */
+	public void setLevelCache(LevelCache levelCache) {
+		this.levelCache = levelCache;
+	}
+
+	/**
+	 * Gets the LevelPreloader which builds the next Level in the background
+	 * @return the LevelPreloader, or null if Levels are only built when they are needed
+	 */
+	public LevelPreloader getLevelPreloader() {
+		return levelPreloader;
 	}
 
 	/**
-	 * Sets the levels array
-	 * @param levels the new levels array
+	 * Sets the LevelPreloader which builds the next Level in the background
+	 * @param levelPreloader the new LevelPreloader, or null to only build Levels when they are needed
 	 */
-	public void setLevels(Level[] levels) {
-		this.levels = levels;
+	public void setLevelPreloader(LevelPreloader levelPreloader) {
+		this.levelPreloader = levelPreloader;
 	}
 
 	/**
@@ -149,23 +376,22 @@ public class LevelManager {
 	 */
 	public Level getLevel1() {
 		
-		ArrayList<Rectangle> platforms = new ArrayList<>();
+		ArrayList<AABB> platforms = new ArrayList<>();
 
-		Rectangle floor = new Rectangle(0, gameObject.getHeight() - 50, gameObject.getWidth(), 50);
-		Rectangle leftWall = new Rectangle(0, 0, 50, gameObject.getHeight());
-		Rectangle rightWall = new Rectangle(gameObject.getWidth() - 50, 0, 50, gameObject.getHeight());
-		Rectangle ceiling = new Rectangle(0, 0, gameObject.getWidth(), 50);
+		AABB floor = new AABB(0, getSimulation().getHeight() - 50, getSimulation().getWidth(), 50);
+		AABB leftWall = new AABB(0, 0, 50, getSimulation().getHeight());
+		AABB rightWall = new AABB(getSimulation().getWidth() - 50, 0, 50, getSimulation().getHeight());
+		AABB ceiling = new AABB(0, 0, getSimulation().getWidth(), 50);
 
 		Collections.addAll(platforms, floor, leftWall, rightWall, ceiling);
 
-		ArrayList<Hazard> hazards = new ArrayList<>();
+		HazardStore hazards = new HazardStore();
 
-		Rectangle goal = new Rectangle(rightWall.getX() - 50, floor.getY() - 80, 50, 80);
-		goal.setFill(Color.GREEN);
+		AABB goal = new AABB(rightWall.getX() - 50, floor.getY() - 80, 50, 80);
 
-		Point2D playerStartPoint = new Point2D(leftWall.getX() + leftWall.getWidth() + 100, getGameObject().getHeight() / 2);
+		Point2D playerStartPoint = new Point2D(leftWall.getX() + leftWall.getWidth() + 100, getSimulation().getHeight() / 2);
 
-		Level level1 = new Level(platforms, hazards, goal, playerStartPoint, getGameObject());
+		Level level1 = new Level(platforms, hazards, goal, playerStartPoint, getSimulation());
 
 		return level1;
 		
@@ -178,24 +404,23 @@ public class LevelManager {
 	 */
 	public Level getLevel2() {
 
-		ArrayList<Rectangle> platforms = new ArrayList<>();
+		ArrayList<AABB> platforms = new ArrayList<>();
 
-		Rectangle floor = new Rectangle(0, gameObject.getHeight() - 50, gameObject.getWidth(), 50);
-		Rectangle leftWall = new Rectangle(0, 0, 50, gameObject.getHeight());
-		Rectangle rightWall = new Rectangle(gameObject.getWidth() - 50, 0, 50, gameObject.getHeight());
-		Rectangle ceiling = new Rectangle(0, 0, gameObject.getWidth(), 50);
-		Rectangle goalPlatform = new Rectangle(rightWall.getX() - 200, ceiling.getY() + ceiling.getHeight() + 200, 200, 20);
+		AABB floor = new AABB(0, getSimulation().getHeight() - 50, getSimulation().getWidth(), 50);
+		AABB leftWall = new AABB(0, 0, 50, getSimulation().getHeight());
+		AABB rightWall = new AABB(getSimulation().getWidth() - 50, 0, 50, getSimulation().getHeight());
+		AABB ceiling = new AABB(0, 0, getSimulation().getWidth(), 50);
+		AABB goalPlatform = new AABB(rightWall.getX() - 200, ceiling.getY() + ceiling.getHeight() + 200, 200, 20);
 		
 		Collections.addAll(platforms, floor, leftWall, rightWall, goalPlatform, ceiling);
 		
-		ArrayList<Hazard> hazards = new ArrayList<>();
+		HazardStore hazards = new HazardStore();
 
-		Rectangle goal = new Rectangle(rightWall.getX() - 50, goalPlatform.getY() - 80, 50, 80);
-		goal.setFill(Color.GREEN);
+		AABB goal = new AABB(rightWall.getX() - 50, goalPlatform.getY() - 80, 50, 80);
 
 		Point2D playerStartPoint = new Point2D(leftWall.getX() + leftWall.getWidth() + 100, floor.getY() - 80);
 
-		Level level2 = new Level(platforms, hazards, goal, playerStartPoint, getGameObject());
+		Level level2 = new Level(platforms, hazards, goal, playerStartPoint, getSimulation());
 
 		return level2;
 
@@ -207,27 +432,25 @@ public class LevelManager {
 	 */
 	public Level getLevel3() {
 
-		ArrayList<Rectangle> platforms = new ArrayList<>();
+		ArrayList<AABB> platforms = new ArrayList<>();
 
-		Rectangle leftFloor = new Rectangle(0, gameObject.getHeight() - 100, gameObject.getWidth() / 4, 100);
-		Rectangle rightFloor = new Rectangle((gameObject.getWidth() * 3) / 4, gameObject.getHeight() - 100, gameObject.getWidth() / 4, 100);
-		Rectangle leftWall = new Rectangle(0, 0, 50, gameObject.getHeight());
-		Rectangle rightWall = new Rectangle(gameObject.getWidth() - 50, 0, 50, gameObject.getHeight());
-		Rectangle ceiling = new Rectangle(0, 0, gameObject.getWidth(), 50);
+		AABB leftFloor = new AABB(0, getSimulation().getHeight() - 100, getSimulation().getWidth() / 4, 100);
+		AABB rightFloor = new AABB((getSimulation().getWidth() * 3) / 4, getSimulation().getHeight() - 100, getSimulation().getWidth() / 4, 100);
+		AABB leftWall = new AABB(0, 0, 50, getSimulation().getHeight());
+		AABB rightWall = new AABB(getSimulation().getWidth() - 50, 0, 50, getSimulation().getHeight());
+		AABB ceiling = new AABB(0, 0, getSimulation().getWidth(), 50);
 		
 		Collections.addAll(platforms, leftFloor, rightFloor, leftWall, rightWall, ceiling);
 
-		ArrayList<Hazard> hazards = new ArrayList<>();
-		Hazard hazard = new Hazard(leftFloor.getX() + leftFloor.getWidth(), getGameObject().getHeight() - 40, 
-				rightFloor.getX() - (leftFloor.getX() + leftFloor.getWidth()), 40, Color.RED, getGameObject());
-		hazards.add(hazard);
+		HazardStore hazards = new HazardStore();
+		hazards.add(leftFloor.getX() + leftFloor.getWidth(), getSimulation().getHeight() - 40, 
+				rightFloor.getX() - (leftFloor.getX() + leftFloor.getWidth()), 40, Color.RED);
 				
-		Rectangle goal = new Rectangle(rightWall.getX() - 50, rightFloor.getY() - 80, 50, 80);
-		goal.setFill(Color.GREEN);
+		AABB goal = new AABB(rightWall.getX() - 50, rightFloor.getY() - 80, 50, 80);
 
 		Point2D playerStartPoint = new Point2D(leftWall.getX() + 60, leftFloor.getY() - 50);
 
-		Level level3 = new Level(platforms, hazards, goal, playerStartPoint, getGameObject());
+		Level level3 = new Level(platforms, hazards, goal, playerStartPoint, getSimulation());
 
 		return level3;
 		
@@ -239,27 +462,25 @@ public class LevelManager {
 	 */
 	public Level getLevel4() {
 
-		ArrayList<Rectangle> platforms = new ArrayList<>();
+		ArrayList<AABB> platforms = new ArrayList<>();
 		
-		Rectangle floor = new Rectangle(0, gameObject.getHeight() - 50, gameObject.getWidth(), 50);
-		Rectangle leftWall = new Rectangle(0, 0, 50, gameObject.getHeight());
-		Rectangle rightWall = new Rectangle(gameObject.getWidth() - 50, 0, 50, gameObject.getHeight());
-		Rectangle ceiling = new Rectangle(0, 0, gameObject.getWidth(), 50);
+		AABB floor = new AABB(0, getSimulation().getHeight() - 50, getSimulation().getWidth(), 50);
+		AABB leftWall = new AABB(0, 0, 50, getSimulation().getHeight());
+		AABB rightWall = new AABB(getSimulation().getWidth() - 50, 0, 50, getSimulation().getHeight());
+		AABB ceiling = new AABB(0, 0, getSimulation().getWidth(), 50);
 		
 		Collections.addAll(platforms, floor, leftWall, rightWall, ceiling);
 		
-		ArrayList<Hazard> hazards = new ArrayList<>();
+		HazardStore hazards = new HazardStore();
 		
-		Hazard testHazard = new Hazard(rightWall.getX() - 200, floor.getY() - 300, 20, 300, Color.RED, getGameObject());
-		testHazard.setxVelocity(-2);
-		hazards.add(testHazard);
+		int testHazard = hazards.add(rightWall.getX() - 200, floor.getY() - 300, 20, 300, Color.RED);
+		hazards.setxVelocity(testHazard, -2);
 
-		Rectangle goal = new Rectangle(rightWall.getX() - 50, floor.getY() - 80, 50, 80);
-		goal.setFill(Color.GREEN);
+		AABB goal = new AABB(rightWall.getX() - 50, floor.getY() - 80, 50, 80);
 
 		Point2D playerStartPoint = new Point2D(leftWall.getX() + leftWall.getWidth() + 70, floor.getY() - 80);
 
-		Level level4 = new Level(platforms, hazards, goal, playerStartPoint, getGameObject());
+		Level level4 = new Level(platforms, hazards, goal, playerStartPoint, getSimulation());
 
 		return level4;
 		
@@ -272,36 +493,31 @@ public class LevelManager {
 	 */
 	public Level getLevel5() {
 
-		ArrayList<Rectangle> platforms = new ArrayList<>();
+		ArrayList<AABB> platforms = new ArrayList<>();
 		
-		Rectangle leftWall = new Rectangle(0, 0, 50, gameObject.getHeight());
-		Rectangle rightWall = new Rectangle(gameObject.getWidth() - 50, 0, 50, gameObject.getHeight());
-		Rectangle leftFloor = new Rectangle(leftWall.getX() + leftWall.getWidth(), gameObject.getHeight() - 100, gameObject.getWidth() / 4, 100);
-		Rectangle rightFloor = new Rectangle((gameObject.getWidth() * 3) / 4, gameObject.getHeight() - 100, gameObject.getWidth() / 4, 100);
-		Rectangle ceiling = new Rectangle(0, 0, gameObject.getWidth(), 50);
-		Rectangle rightFloorBar = new Rectangle(rightFloor.getX(), rightFloor.getY() - 100, 10, 100);
+		AABB leftWall = new AABB(0, 0, 50, getSimulation().getHeight());
+		AABB rightWall = new AABB(getSimulation().getWidth() - 50, 0, 50, getSimulation().getHeight());
+		AABB leftFloor = new AABB(leftWall.getX() + leftWall.getWidth(), getSimulation().getHeight() - 100, getSimulation().getWidth() / 4, 100);
+		AABB rightFloor = new AABB((getSimulation().getWidth() * 3) / 4, getSimulation().getHeight() - 100, getSimulation().getWidth() / 4, 100);
+		AABB ceiling = new AABB(0, 0, getSimulation().getWidth(), 50);
+		AABB rightFloorBar = new AABB(rightFloor.getX(), rightFloor.getY() - 100, 10, 100);
 		
 		Collections.addAll(platforms, leftFloor, rightFloor, leftWall, rightWall, ceiling, rightFloorBar);
 
-		ArrayList<Hazard> hazards = new ArrayList<>();
-		
-		Hazard floorHazard = new Hazard(leftFloor.getX() + leftFloor.getWidth(), getGameObject().getHeight() - 40, 
-				rightFloor.getX() - (leftFloor.getX() + leftFloor.getWidth()), 40, Color.RED, getGameObject());
+		HazardStore hazards = new HazardStore();
 		
-		Hazard leftCeilingHazard = new Hazard(leftWall.getX() + leftWall.getWidth(),
-				ceiling.getY() + ceiling.getHeight() + 50, leftFloor.getWidth(), 50, 
-				Color.RED, getGameObject());
-		leftCeilingHazard.setyVelocity(0.85);
+		hazards.add(leftFloor.getX() + leftFloor.getWidth(), getSimulation().getHeight() - 40, 
+				rightFloor.getX() - (leftFloor.getX() + leftFloor.getWidth()), 40, Color.RED);
 		
-		hazards.add(floorHazard);
-		hazards.add(leftCeilingHazard);
+		int leftCeilingHazard = hazards.add(leftWall.getX() + leftWall.getWidth(),
+				ceiling.getY() + ceiling.getHeight() + 50, leftFloor.getWidth(), 50, Color.RED);
+		hazards.setyVelocity(leftCeilingHazard, 0.85);
 				
-		Rectangle goal = new Rectangle(rightWall.getX() - 50, rightFloor.getY() - 80, 50, 80);
-		goal.setFill(Color.GREEN);
+		AABB goal = new AABB(rightWall.getX() - 50, rightFloor.getY() - 80, 50, 80);
 
 		Point2D playerStartPoint = new Point2D(leftWall.getX() + 60, leftFloor.getY() - 50);
 
-		Level level5 = new Level(platforms, hazards, goal, playerStartPoint, getGameObject());
+		Level level5 = new Level(platforms, hazards, goal, playerStartPoint, getSimulation());
 
 		return level5;
 		
@@ -313,30 +529,29 @@ public class LevelManager {
 	 */
 	public Level getLevel6() {
 
-		ArrayList<Rectangle> platforms = new ArrayList<>();
+		ArrayList<AABB> platforms = new ArrayList<>();
 
-		Rectangle leftWall = new Rectangle(0, 0, 50, gameObject.getHeight());
-		Rectangle rightWall = new Rectangle(gameObject.getWidth() - 50, 0, 50, gameObject.getHeight());
-		Rectangle floor = new Rectangle(0, gameObject.getHeight() - 50, gameObject.getWidth(), 50);
-		Rectangle ceiling = new Rectangle(0, 0, gameObject.getWidth(), 50);
-		Rectangle tower = new Rectangle(leftWall.getX() + leftWall.getWidth() + 200, 
+		AABB leftWall = new AABB(0, 0, 50, getSimulation().getHeight());
+		AABB rightWall = new AABB(getSimulation().getWidth() - 50, 0, 50, getSimulation().getHeight());
+		AABB floor = new AABB(0, getSimulation().getHeight() - 50, getSimulation().getWidth(), 50);
+		AABB ceiling = new AABB(0, 0, getSimulation().getWidth(), 50);
+		AABB tower = new AABB(leftWall.getX() + leftWall.getWidth() + 200, 
 				ceiling.getY() + ceiling.getHeight() + 80, 40, floor.getY() - (ceiling.getY() + ceiling.getHeight()));
-		Rectangle towerLanding = new Rectangle(tower.getX() + tower.getWidth(), tower.getY() + 120,
+		AABB towerLanding = new AABB(tower.getX() + tower.getWidth(), tower.getY() + 120,
 				200, tower.getHeight() - 120);
-		Rectangle ceilingBar = new Rectangle(towerLanding.getX() + towerLanding.getWidth() - 20, 
+		AABB ceilingBar = new AABB(towerLanding.getX() + towerLanding.getWidth() - 20, 
 				ceiling.getY() + ceiling.getHeight(), 20, 85);
-		Rectangle towerLandingBar = new Rectangle(ceilingBar.getX(), towerLanding.getY() - ceilingBar.getHeight(),
+		AABB towerLandingBar = new AABB(ceilingBar.getX(), towerLanding.getY() - ceilingBar.getHeight(),
 				ceilingBar.getWidth(), ceilingBar.getHeight());
 		Collections.addAll(platforms, floor, leftWall, rightWall, ceiling, tower, towerLanding, ceilingBar, towerLandingBar);
 		
-		ArrayList<Hazard> hazards = new ArrayList<>();
+		HazardStore hazards = new HazardStore();
 
-		Rectangle goal = new Rectangle(rightWall.getX() - 50, floor.getY() - 80, 50, 80);
-		goal.setFill(Color.GREEN);
+		AABB goal = new AABB(rightWall.getX() - 50, floor.getY() - 80, 50, 80);
 
 		Point2D playerStartPoint = new Point2D(leftWall.getX() + 60, floor.getY() - 50);
 
-		Level level6 = new Level(platforms, hazards, goal, playerStartPoint, getGameObject());
+		Level level6 = new Level(platforms, hazards, goal, playerStartPoint, getSimulation());
 
 		return level6;
 		
@@ -348,27 +563,24 @@ public class LevelManager {
 	 */
 	public Level getLevel7() {
 
-		ArrayList<Rectangle> platforms = new ArrayList<>();
+		ArrayList<AABB> platforms = new ArrayList<>();
 
-		Rectangle leftWall = new Rectangle(0, 0, 50, gameObject.getHeight());
-		Rectangle rightWall = new Rectangle(gameObject.getWidth() - 50, 0, 50, gameObject.getHeight());
-		Rectangle floor = new Rectangle(0, gameObject.getHeight() - 50, gameObject.getWidth(), 50);
-		Rectangle leftPlatform = new Rectangle(leftWall.getX() + leftWall.getWidth(), floor.getY() - 300, 200, 300);
-		Rectangle ceiling = new Rectangle(0, 0, gameObject.getWidth(), 50);
+		AABB leftWall = new AABB(0, 0, 50, getSimulation().getHeight());
+		AABB rightWall = new AABB(getSimulation().getWidth() - 50, 0, 50, getSimulation().getHeight());
+		AABB floor = new AABB(0, getSimulation().getHeight() - 50, getSimulation().getWidth(), 50);
+		AABB leftPlatform = new AABB(leftWall.getX() + leftWall.getWidth(), floor.getY() - 300, 200, 300);
+		AABB ceiling = new AABB(0, 0, getSimulation().getWidth(), 50);
 		Collections.addAll(platforms, floor, leftPlatform, leftWall, rightWall, ceiling);
 		
-		Rectangle goal = new Rectangle(rightWall.getX() - 400, ceiling.getY() + ceiling.getHeight(), 120, 100);
-		goal.setFill(Color.GREEN);
+		AABB goal = new AABB(rightWall.getX() - 400, ceiling.getY() + ceiling.getHeight(), 120, 100);
 		
-		ArrayList<Hazard> hazards = new ArrayList<>();
-		Hazard leftGoalHazard = new Hazard(goal.getX() - 10, ceiling.getY() + ceiling.getHeight(), 10, 500, Color.RED, getGameObject());
-		Hazard rightGoalHazard = new Hazard(goal.getX() + goal.getWidth(), leftGoalHazard.getY(), 
-				leftGoalHazard.getWidth(), leftGoalHazard.getHeight(), Color.RED, getGameObject());
-		hazards.add(leftGoalHazard);
-		hazards.add(rightGoalHazard);
+		HazardStore hazards = new HazardStore();
+		int leftGoalHazard = hazards.add(goal.getX() - 10, ceiling.getY() + ceiling.getHeight(), 10, 500, Color.RED);
+		hazards.add(goal.getX() + goal.getWidth(), hazards.getY(leftGoalHazard), 
+				hazards.getWidth(leftGoalHazard), hazards.getHeight(leftGoalHazard), Color.RED);
 		Point2D playerStartPoint = new Point2D(leftWall.getX() + 60, leftPlatform.getY() - 50);
 
-		Level level7 = new Level(platforms, hazards, goal, playerStartPoint, getGameObject());
+		Level level7 = new Level(platforms, hazards, goal, playerStartPoint, getSimulation());
 
 		return level7;
 		
@@ -380,25 +592,24 @@ public class LevelManager {
 	 */
 	public Level getLevel8() {
 
-		ArrayList<Rectangle> platforms = new ArrayList<>();
+		ArrayList<AABB> platforms = new ArrayList<>();
 
-		Rectangle leftWall = new Rectangle(0, 0, 50, gameObject.getHeight());
-		Rectangle rightWall = new Rectangle(gameObject.getWidth() - 50, 0, 50, gameObject.getHeight());
-		Rectangle floor = new Rectangle(0, gameObject.getHeight() - 50, gameObject.getWidth(), 50);
-		Rectangle leftPlatform = new Rectangle(leftWall.getX() + leftWall.getWidth(), floor.getY() - 300, 200, 300);
-		Rectangle rightPlatform = new Rectangle(rightWall.getX() - 200, floor.getY() - 300, 200, 300);
-		Rectangle rightPlatformBlocker = new Rectangle(rightPlatform.getX(), rightWall.getY() - 40, 20, 40);
-		Rectangle ceiling = new Rectangle(0, 0, gameObject.getWidth(), 50);
+		AABB leftWall = new AABB(0, 0, 50, getSimulation().getHeight());
+		AABB rightWall = new AABB(getSimulation().getWidth() - 50, 0, 50, getSimulation().getHeight());
+		AABB floor = new AABB(0, getSimulation().getHeight() - 50, getSimulation().getWidth(), 50);
+		AABB leftPlatform = new AABB(leftWall.getX() + leftWall.getWidth(), floor.getY() - 300, 200, 300);
+		AABB rightPlatform = new AABB(rightWall.getX() - 200, floor.getY() - 300, 200, 300);
+		AABB rightPlatformBlocker = new AABB(rightPlatform.getX(), rightWall.getY() - 40, 20, 40);
+		AABB ceiling = new AABB(0, 0, getSimulation().getWidth(), 50);
 		Collections.addAll(platforms, floor, leftPlatform, rightPlatform, rightPlatformBlocker, leftWall, rightWall, ceiling);
 		
-		Rectangle goal = new Rectangle(rightWall.getX() - 50, rightPlatform.getY() - 80, 50, 80);
-		goal.setFill(Color.GREEN);
+		AABB goal = new AABB(rightWall.getX() - 50, rightPlatform.getY() - 80, 50, 80);
 		
-		ArrayList<Hazard> hazards = new ArrayList<>();
+		HazardStore hazards = new HazardStore();
 		
 		Point2D playerStartPoint = new Point2D(leftWall.getX() + 60, leftPlatform.getY() - 50);
 
-		Level level8 = new Level(platforms, hazards, goal, playerStartPoint, getGameObject());
+		Level level8 = new Level(platforms, hazards, goal, playerStartPoint, getSimulation());
 
 		return level8;
 		
@@ -419,5 +630,21 @@ public class LevelManager {
 	public void setGameObject(PortalGame gameObject) {
 		this.gameObject = gameObject;
 	}
+
+	/**
+	 * Gets the Simulation the Levels are created for
+	 * @return the Simulation
+	 */
+	public Simulation getSimulation() {
+		return simulation;
+	}
+
+	/**
+	 * Sets the Simulation the Levels are created for
+	 * @param simulation the new Simulation
+	 */
+	public void setSimulation(Simulation simulation) {
+		this.simulation = simulation;
+	}
 	
 }
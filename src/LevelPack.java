@@ -0,0 +1,410 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.zip.CRC32;
+
+import javafx.geometry.Point2D;
+import javafx.scene.paint.Color;
+
+/**
+ * A file of Levels that can be loaded without recompiling the game. The file is
+ * memory-mapped when the LevelPack is opened, and only the header is read then, so
+ * opening a pack takes the same time however many Levels it holds. A Level is decoded
+ * straight from the mapped file each time readLevel is called.
+ *
+ * The file starts with a header(MAGIC, VERSION, and the number of Levels), followed by
+ * an index of where each Level starts(one long for each Level, plus one for the end of
+ * the last Level), followed by the Levels. Each Level holds the size of the game area
+ * it was made for, its platform and goal colors, the Player's start point, the goal,
+ * the platforms, and the Hazards with their velocities and colors. Colors are stored
+ * as 32 bit ARGB values.
+ *
+ * Usage: LevelPack &lt;pack file&gt; [generated levels] [platforms per generated level]
+ * writes the built in Levels to a pack, followed by any number of Levels made by a
+ * LevelGenerator. Generated Levels are usually bigger than the game area, so only
+ * part of them can be seen in the game; they are mostly for testing large packs.
+ */
+public class LevelPack {
+
+	public static final int MAGIC = 0x50474C50; // "PGLP"
+	public static final int VERSION = 1;
+
+	// The size of the game area the built in Levels are made for
+	public static final int BUILT_IN_WIDTH = 700;
+	public static final int BUILT_IN_HEIGHT = 600;
+
+	private static final int HEADER_SIZE = 4 + 1 + 4;
+
+	// The bytes of a Level before its platforms, and the bytes of each platform and Hazard
+	private static final int LEVEL_HEADER_SIZE = 4 * 4 + 2 * 8 + 4 * 8;
+	private static final int PLATFORM_SIZE = 4 * 8;
+	private static final int HAZARD_SIZE = 6 * 8 + 4;
+
+	private MappedByteBuffer buffer;
+	private int levelCount;
+
+	// The CRC32 of the whole file, only worked out when it's first needed
+	private int checksum;
+	private boolean checksumKnown = false;
+
+	/**
+	 * Opens a level pack, memory-mapping the whole file
+	 * @param path the pack file
+	 * @throws IOException if the file can't be read or isn't a level pack
+	 */
+	public LevelPack(Path path) throws IOException {
+
+		// The mapping stays valid after the channel is closed
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+		}
+
+		if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+
+			throw new IOException(path + " isn't a level pack");
+
+		}
+		if (buffer.get(4) != VERSION) {
+
+			throw new IOException(path + " has unsupported level pack version " + buffer.get(4));
+
+		}
+
+		levelCount = buffer.getInt(5);
+
+		if (levelCount < 0 || buffer.capacity() < HEADER_SIZE + (levelCount + 1L) * 8) {
+
+			throw new IOException(path + " is truncated");
+
+		}
+
+	}
+
+	/**
+	 * Decodes a Level from the pack. Only absolute reads are used on the mapped
+	 * file, so Levels can be read from several threads at the same time.
+	 * @param index the index of the Level in the pack
+	 * @param simulation the Simulation the Level will be a part of
+	 * @return the Level
+	 * @throws IllegalStateException if the Level's offsets or sizes don't fit in the pack
+	 */
+	public Level readLevel(int index, Simulation simulation) {
+
+		int start = getLevelOffset(index);
+		int end = getLevelEnd(index);
+
+		if (end - start < LEVEL_HEADER_SIZE + 4 + 4) {
+
+			throw new IllegalStateException("Level " + index + " of the pack is only " + (end - start) + " bytes");
+
+		}
+
+		int position = start + 8; // Skip the size of the game area
+
+		Color platformColor = toColor(buffer.getInt(position));
+		Color goalColor = toColor(buffer.getInt(position + 4));
+		position += 8;
+
+		Point2D playerStartPoint = new Point2D(buffer.getDouble(position), buffer.getDouble(position + 8));
+		position += 16;
+
+		AABB goal = new AABB(buffer.getDouble(position), buffer.getDouble(position + 8),
+				buffer.getDouble(position + 16), buffer.getDouble(position + 24));
+		position += 32;
+
+		int platformCount = buffer.getInt(position);
+		position += 4;
+
+		// The hazard count still has to fit after the platforms
+		if (platformCount < 0 || platformCount > (end - position - 4) / PLATFORM_SIZE) {
+
+			throw new IllegalStateException("Level " + index + " of the pack has " + platformCount
+					+ " platforms, which don't fit in its " + (end - start) + " bytes");
+
+		}
+
+		ArrayList<AABB> platforms = new ArrayList<>(platformCount);
+		for (int i = 0; i < platformCount; i++) {
+
+			platforms.add(new AABB(buffer.getDouble(position), buffer.getDouble(position + 8),
+					buffer.getDouble(position + 16), buffer.getDouble(position + 24)));
+			position += PLATFORM_SIZE;
+
+		}
+
+		int hazardCount = buffer.getInt(position);
+		position += 4;
+
+		if (hazardCount < 0 || hazardCount > (end - position) / HAZARD_SIZE) {
+
+			throw new IllegalStateException("Level " + index + " of the pack has " + hazardCount
+					+ " Hazards, which don't fit in its " + (end - start) + " bytes");
+
+		}
+
+		HazardStore hazards = new HazardStore(hazardCount);
+		for (int i = 0; i < hazardCount; i++) {
+
+			int hazard = hazards.add(buffer.getDouble(position), buffer.getDouble(position + 8),
+					buffer.getDouble(position + 16), buffer.getDouble(position + 24), toColor(buffer.getInt(position + 48)));
+			hazards.setxVelocity(hazard, buffer.getDouble(position + 32));
+			hazards.setyVelocity(hazard, buffer.getDouble(position + 40));
+			position += HAZARD_SIZE;
+
+		}
+
+		Level level = new Level(platforms, hazards, goal, playerStartPoint, simulation);
+		level.setPlatformColor(platformColor);
+		level.setGoalColor(goalColor);
+
+		return level;
+
+	}
+
+	/**
+	 * Writes Levels to a new pack file, replacing it if it exists. The Hazards of
+	 * each Level are reset first, so they are written where they start.
+	 * @param path the pack file
+	 * @param levels the Levels to write
+	 * @param width the width of the game area the Levels were made for
+	 * @param height the height of the game area the Levels were made for
+	 * @throws IOException if the file can't be written to
+	 */
+	public static void write(Path path, Level[] levels, int width, int height) throws IOException {
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+
+			ByteBuffer index = ByteBuffer.allocate(HEADER_SIZE + (levels.length + 1) * 8);
+			index.putInt(MAGIC);
+			index.put((byte) VERSION);
+			index.putInt(levels.length);
+
+			long offset = index.capacity();
+			for (Level level : levels) {
+
+				index.putLong(offset);
+				offset += getLevelSize(level);
+
+			}
+			index.putLong(offset);
+
+			writeFully(channel, index);
+
+			for (Level level : levels) {
+
+				ByteBuffer record = ByteBuffer.allocate(getLevelSize(level));
+
+				record.putInt(width);
+				record.putInt(height);
+				record.putInt(toARGB(level.getPlatformColor()));
+				record.putInt(toARGB(level.getGoalColor()));
+				record.putDouble(level.getPlayerStartPoint().getX());
+				record.putDouble(level.getPlayerStartPoint().getY());
+				putAABB(record, level.getGoal());
+
+				record.putInt(level.getPlatforms().size());
+				for (AABB platform : level.getPlatforms()) {
+
+					putAABB(record, platform);
+
+				}
+
+				HazardStore hazards = level.getHazards();
+				hazards.resetToInitialState();
+
+				record.putInt(hazards.size());
+				for (int i = 0; i < hazards.size(); i++) {
+
+					record.putDouble(hazards.getX(i));
+					record.putDouble(hazards.getY(i));
+					record.putDouble(hazards.getWidth(i));
+					record.putDouble(hazards.getHeight(i));
+					record.putDouble(hazards.getxVelocity(i));
+					record.putDouble(hazards.getyVelocity(i));
+					record.putInt(toARGB(hazards.getColor(i)));
+
+				}
+
+				writeFully(channel, record);
+
+			}
+
+		}
+
+	}
+
+	public static void main(String[] args) throws IOException {
+
+		if (args.length < 1) {
+
+			System.err.println("Usage: LevelPack <pack file> [generated levels] [platforms per generated level]");
+			System.exit(2);
+
+		}
+
+		int generatedLevels = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+		int platformCount = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+
+		Simulation simulation = new Simulation(BUILT_IN_WIDTH, BUILT_IN_HEIGHT);
+		Level[] builtInLevels = new LevelManager(simulation).createAllLevels();
+
+		Level[] levels = new Level[builtInLevels.length + generatedLevels];
+		System.arraycopy(builtInLevels, 0, levels, 0, builtInLevels.length);
+
+		for (int i = 0; i < generatedLevels; i++) {
+
+			LevelGenerator generator = new LevelGenerator(i);
+			generator.setPlatformCount(platformCount);
+			levels[builtInLevels.length + i] = generator.generate(simulation);
+
+		}
+
+		write(Paths.get(args[0]), levels, simulation.getWidth(), simulation.getHeight());
+
+		System.out.println("Wrote " + levels.length + " levels to " + args[0]);
+
+	}
+
+	private static int getLevelSize(Level level) {
+
+		return LEVEL_HEADER_SIZE + 4 + level.getPlatforms().size() * PLATFORM_SIZE + 4
+				+ level.getHazards().size() * HAZARD_SIZE;
+
+	}
+
+	private static void putAABB(ByteBuffer buffer, AABB box) {
+
+		buffer.putDouble(box.getX());
+		buffer.putDouble(box.getY());
+		buffer.putDouble(box.getWidth());
+		buffer.putDouble(box.getHeight());
+
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+
+		buffer.flip();
+
+		while (buffer.hasRemaining()) {
+
+			channel.write(buffer);
+
+		}
+
+	}
+
+	private static int toARGB(Color color) {
+
+		return (int) Math.round(color.getOpacity() * 255) << 24 | (int) Math.round(color.getRed() * 255) << 16
+				| (int) Math.round(color.getGreen() * 255) << 8 | (int) Math.round(color.getBlue() * 255);
+
+	}
+
+	private static Color toColor(int argb) {
+
+		return Color.rgb((argb >> 16) & 0xFF, (argb >> 8) & 0xFF, argb & 0xFF, ((argb >>> 24) & 0xFF) / 255.0);
+
+	}
+
+	/**
+	 * Gets where a Level starts in the file, checking that it starts after the index
+	 * and ends where the next one starts, within the file
+	 * @param index the index of the Level in the pack
+	 * @return the offset of the Level
+	 * @throws IllegalStateException if the offsets in the index are out of order or
+	 * past the end of the file
+	 */
+	private int getLevelOffset(int index) {
+
+		if (index < 0 || index >= levelCount) {
+
+			throw new IndexOutOfBoundsException("Level " + index + " of a pack with " + levelCount + " levels");
+
+		}
+
+		long offset = buffer.getLong(HEADER_SIZE + index * 8);
+		long nextOffset = buffer.getLong(HEADER_SIZE + (index + 1) * 8);
+
+		// The file is at most Integer.MAX_VALUE bytes, so offsets within it fit in an int
+		if (offset < HEADER_SIZE + (levelCount + 1L) * 8 || offset > nextOffset || nextOffset > buffer.capacity()) {
+
+			throw new IllegalStateException("Level " + index + " of the pack runs from " + offset + " to "
+					+ nextOffset + ", which isn't a range within the " + buffer.capacity() + " byte file");
+
+		}
+
+		return (int) offset;
+
+	}
+
+	/**
+	 * Gets where a Level ends in the file
+	 * @param index the index of the Level in the pack
+	 * @return the offset just after the Level
+	 * @throws IllegalStateException if the offsets in the index are out of order or
+	 * past the end of the file
+	 */
+	private int getLevelEnd(int index) {
+
+		getLevelOffset(index);
+
+		return (int) buffer.getLong(HEADER_SIZE + (index + 1) * 8);
+
+	}
+
+	/**
+	 * Gets the width of the game area a Level was made for
+	 * @param index the index of the Level in the pack
+	 * @return the width
+	 */
+	public int getWidth(int index) {
+		return buffer.getInt(getLevelOffset(index));
+	}
+
+	/**
+	 * Gets the height of the game area a Level was made for
+	 * @param index the index of the Level in the pack
+	 * @return the height
+	 */
+	public int getHeight(int index) {
+		return buffer.getInt(getLevelOffset(index) + 4);
+	}
+
+	/**
+	 * Gets the number of Levels in the pack
+	 * @return the number of Levels
+	 */
+	public int getLevelCount() {
+		return levelCount;
+	}
+
+	/**
+	 * Gets a checksum of the whole pack, which tells packs with different Levels
+	 * apart. The file is only read through the first time this is called.
+	 * @return the CRC32 of the pack file
+	 */
+	public synchronized int getChecksum() {
+
+		if (!checksumKnown) {
+
+			CRC32 crc = new CRC32();
+			crc.update(buffer.duplicate().clear());
+
+			checksum = (int) crc.getValue();
+			checksumKnown = true;
+
+		}
+
+		return checksum;
+
+	}
+
+}
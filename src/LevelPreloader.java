@@ -0,0 +1,177 @@
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds a Level on a background thread before it is needed, so that switching to
+ * it doesn't have to wait for its platforms to be built(or decoded from a level pack)
+ * and indexed. Only one Level is preloaded at a time; asking for another one discards
+ * the Level that was being preloaded.
+ */
+public class LevelPreloader {
+
+	private ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+
+		Thread thread = new Thread(runnable, "Level preloader");
+		thread.setDaemon(true);
+		return thread;
+
+	});
+
+	private int pendingIndex = -1;
+	private Future<Level> pending = null;
+
+	private long readyHits = 0;
+	private long waitingHits = 0;
+	private long discarded = 0;
+
+	/**
+	 * Starts building a Level in the background, unless it is already being preloaded
+	 * @param levelIndex the index of the Level
+	 * @param levelManager the LevelManager the Level belongs to
+	 */
+	public void preload(int levelIndex, LevelManager levelManager) {
+
+		if (pending != null && pendingIndex == levelIndex) {
+
+			return;
+
+		}
+
+		discardPending();
+
+		pendingIndex = levelIndex;
+		pending = executor.submit(() -> levelManager.createLevel(levelIndex));
+
+	}
+
+	/**
+	 * Takes a preloaded Level, waiting for it to finish building if it isn't ready yet
+	 * @param levelIndex the index of the Level
+	 * @return the Level, or null if it wasn't being preloaded or couldn't be built
+	 */
+	public Level take(int levelIndex) {
+
+		if (pending == null || pendingIndex != levelIndex) {
+
+			return null;
+
+		}
+
+		Future<Level> future = pending;
+		pending = null;
+		pendingIndex = -1;
+
+		if (future.isDone()) {
+
+			readyHits++;
+
+		} else {
+
+			waitingHits++;
+
+		}
+
+		try {
+
+			return future.get();
+
+		} catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+			return null;
+
+		} catch (ExecutionException e) {
+
+			// The Level will be built again on the calling thread, which will throw the same error
+			return null;
+
+		}
+
+	}
+
+	/**
+	 * Gets a preloaded Level without taking it or waiting for it
+	 * @param levelIndex the index of the Level
+	 * @return the Level, or null if it isn't being preloaded, isn't ready yet, or couldn't be built
+	 */
+	public Level peek(int levelIndex) {
+
+		if (pending == null || pendingIndex != levelIndex || !pending.isDone() || pending.isCancelled()) {
+
+			return null;
+
+		}
+
+		try {
+
+			return pending.get();
+
+		} catch (InterruptedException | ExecutionException e) {
+
+			return null;
+
+		}
+
+	}
+
+	/**
+	 * Cancels the Level being preloaded, if there is one
+	 */
+	public void discardPending() {
+
+		if (pending != null) {
+
+			pending.cancel(false);
+			pending = null;
+			pendingIndex = -1;
+			discarded++;
+
+		}
+
+	}
+
+	/**
+	 * Stops the background thread. Nothing can be preloaded afterwards.
+	 */
+	public void shutdown() {
+
+		discardPending();
+		executor.shutdownNow();
+
+	}
+
+	/**
+	 * Gets the index of the Level being preloaded
+	 * @return the index of the Level, or -1 if no Level is being preloaded
+	 */
+	public int getPendingIndex() {
+		return pendingIndex;
+	}
+
+	/**
+	 * Gets the number of preloaded Levels that were ready when they were taken
+	 * @return the number of ready hits
+	 */
+	public long getReadyHits() {
+		return readyHits;
+	}
+
+	/**
+	 * Gets the number of preloaded Levels that were still being built when they were taken
+	 * @return the number of waiting hits
+	 */
+	public long getWaitingHits() {
+		return waitingHits;
+	}
+
+	/**
+	 * Gets the number of preloaded Levels that were discarded without being taken
+	 * @return the number of discarded Levels
+	 */
+	public long getDiscarded() {
+		return discarded;
+	}
+
+}
@@ -7,11 +7,43 @@ import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontPosture;
 import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
 
 public class MenuManager {
 
+	// The fonts are shared by every menu, so they're only created once
+	private static final Font TITLE_FONT = Font.font("Tahoma", FontWeight.BOLD, FontPosture.REGULAR, 50);
+	private static final Font MAIN_MENU_FONT = Font.font("Tahoma", FontWeight.BOLD, FontPosture.REGULAR, 42);
+	private static final Font TEXT_FONT = Font.font("Tahoma", FontWeight.BOLD, FontPosture.REGULAR, 24);
+	
+	private static final int LEVEL_BUTTON_WIDTH = 200;
+	private static final int LEVEL_BUTTON_HEIGHT = 100;
+	private static final int LEVEL_BUTTON_SPACING = 10; // Spacing between each button
+	private static final int LEVEL_BUTTONS_TOP = 130; // Below the title
+	private static final int LEVEL_BUTTONS_BOTTOM_MARGIN = 110; // Above the back button
+	private static final int PAGE_BUTTON_WIDTH = 100;
+	
+	// The overlays are see-through, so the game can still be seen under them
+	private static final Color PAUSED_OVERLAY_COLOR = Color.GOLD.deriveColor(0, 1, 1, 0.6);
+	private static final Color LEVEL_COMPLETED_OVERLAY_COLOR = Color.GREEN.deriveColor(0, 1, 1, 0.6);
+	private static final Color FAIL_OVERLAY_COLOR = Color.RED.deriveColor(0, 1, 1, 0.6);
+
 	private PortalGame gameObject;
 	
+	// Each menu's Scene is built the first time it's shown, and reused after that
+	private Scene mainMenuScene = null;
+	private Scene levelsScene = null;
+	private Scene instructionsScene = null;
+	
+	// The Buttons of the levels Scene, the Level each one opens, and whether each one is
+	// showing its Level as completed. The same Buttons are used for every page of Levels.
+	private Button [] levelButtons = null;
+	private int [] levelButtonLevels = null;
+	private boolean [] levelButtonsCompleted = null;
+	private Button previousPageButton = null;
+	private Button nextPageButton = null;
+	private int levelPage = 0;
+	
 	public MenuManager() {}
 	
 	/**
@@ -36,6 +68,22 @@ public class MenuManager {
 			
 		}
 		
+		if (mainMenuScene == null) {
+			
+			mainMenuScene = createMainMenuScene();
+			
+		}
+		
+		getGameObject().getStage().setScene(mainMenuScene);
+		
+	}
+	
+	/**
+	 * Builds the MainMenu screen
+	 * @return the Scene of the MainMenu screen
+	 */
+	private Scene createMainMenuScene() {
+		
 		Pane mainMenuPane = new Pane();
 
 		Canvas mainMenuCanvas = new Canvas(getGameObject().getWidth(), getGameObject().getHeight());
@@ -43,7 +91,6 @@ public class MenuManager {
 		GraphicsContext gc = mainMenuCanvas.getGraphicsContext2D();
 		
 		Scene mainMenuScene = new Scene(mainMenuPane, getGameObject().getWidth(), getGameObject().getHeight());
-		getGameObject().getStage().setScene(mainMenuScene);
 		
 
 		gc.setFill(Color.GOLD);
@@ -51,7 +98,7 @@ public class MenuManager {
 
 		gc.setFill(Color.BLACK);
 		
-		gc.setFont(Font.font("Tahoma", FontWeight.BOLD, FontPosture.REGULAR, 42));
+		gc.setFont(MAIN_MENU_FONT);
 		gc.fillText("Portals", getGameObject().getWidth() / 2 - 75, 200, 300); // TODO should store these as Text objects
 		gc.fillText("Parker Hutchinson", getGameObject().getWidth() / 2 - 140, 275, 300);
 
@@ -69,14 +116,36 @@ public class MenuManager {
 		
 		mainMenuPane.getChildren().add(startButton);
 		mainMenuPane.getChildren().add(instructionsButton);
+		
+		return mainMenuScene;
 
 	}
 
 	/**
-	 * Shows the level summary screen on the PortalGame's Scene
+	 * Shows the level summary screen on the PortalGame's Scene. The screen is only
+	 * built once; after that only the Buttons whose Level or completion changed since
+	 * it was last shown are updated.
 	 */
 	public void showLevels() {
 		
+		if (levelsScene == null) {
+			
+			levelsScene = createLevelsScene();
+			
+		}
+		
+		// The level pack may have changed, leaving fewer pages
+		showLevelPage(Math.min(levelPage, getLevelPageCount() - 1));
+		
+		getGameObject().getStage().setScene(levelsScene);
+		
+	}
+	
+	/**
+	 * Builds the level summary screen
+	 * @return the Scene of the level summary screen
+	 */
+	private Scene createLevelsScene() {
 		
 		Pane levelScreenPane = new Pane();
 
@@ -85,18 +154,19 @@ public class MenuManager {
 		levelScreenPane.getChildren().add(levelScreenCanvas);
 		
 		Scene scene = new Scene(levelScreenPane, getGameObject().getWidth(), getGameObject().getHeight());
-		getGameObject().getStage().setScene(scene);
 
 		
 		gc.setFill(Color.GOLD);
 		gc.fillRect(0, 0, getGameObject().getWidth(), getGameObject().getHeight());
 		
 		gc.setFill(Color.BLACK);
-		gc.setFont(Font.font("Tahoma", FontWeight.BOLD, FontPosture.REGULAR, 50));
+		gc.setFont(TITLE_FONT);
 		gc.fillText("Levels", getGameObject().getWidth() / 2 - 75, 100);
 		
-		// There will be 1 button for every level
-		Button [] levelButtons = getLevelButtons();
+		// There is 1 button for every level on a page
+		levelButtons = getLevelButtons();
+		levelButtonLevels = new int[levelButtons.length];
+		levelButtonsCompleted = new boolean[levelButtons.length];
 		
 		Button backButton = new Button("Back To Main Menu");
 		backButton.setPrefSize(400, 50);
@@ -104,70 +174,135 @@ public class MenuManager {
 		backButton.setLayoutY(getGameObject().getHeight() - 100);
 		backButton.setOnAction(event -> showMainMenu());
 		
+		// The page Buttons go on either side of the back Button
+		previousPageButton = new Button("<");
+		previousPageButton.setPrefSize(PAGE_BUTTON_WIDTH, 50);
+		previousPageButton.setLayoutX(gameObject.getWidth() / 2 - 200 - LEVEL_BUTTON_SPACING - PAGE_BUTTON_WIDTH);
+		previousPageButton.setLayoutY(getGameObject().getHeight() - 100);
+		previousPageButton.setFont(TEXT_FONT);
+		previousPageButton.setOnAction(event -> showLevelPage(levelPage - 1));
+		
+		nextPageButton = new Button(">");
+		nextPageButton.setPrefSize(PAGE_BUTTON_WIDTH, 50);
+		nextPageButton.setLayoutX(gameObject.getWidth() / 2 + 200 + LEVEL_BUTTON_SPACING);
+		nextPageButton.setLayoutY(getGameObject().getHeight() - 100);
+		nextPageButton.setFont(TEXT_FONT);
+		nextPageButton.setOnAction(event -> showLevelPage(levelPage + 1));
+		
 		levelScreenPane.getChildren().addAll(levelButtons);
-		levelScreenPane.getChildren().add(backButton);
+		levelScreenPane.getChildren().addAll(backButton, previousPageButton, nextPageButton);
+		
+		return scene;
 
 	}
 	
 	/**
-	 * Generates an array of formatted Buttons for use in the level summary window
-	 * @return an array of Buttons
+	 * Shows a page of Level Buttons, hiding the Buttons past the last Level and the
+	 * page Buttons which would go past the first or last page. Each Button is colored
+	 * green if its Level was completed.
+	 * @param page the index of the page
 	 */
-	public Button [] getLevelButtons() {
+	private void showLevelPage(int page) {
+		
+		levelPage = page;
+		
+		int levelCount = getGameObject().getLevelManager().getLevelCount();
+		
+		for (int i = 0; i < levelButtons.length; i++) {
+			
+			int levelIndex = page * levelButtons.length + i;
+			
+			if (levelIndex >= levelCount) {
+				
+				levelButtons[i].setVisible(false);
+				continue;
+				
+			}
+			
+			if (levelButtonLevels[i] != levelIndex || !levelButtons[i].isVisible()) {
+				
+				levelButtons[i].setText(Integer.toString(levelIndex + 1));
+				levelButtons[i].setVisible(true);
+				levelButtonLevels[i] = levelIndex;
+				
+			}
+			
+			boolean completed = getGameObject().getLevelManager().isLevelCompleted(levelIndex);
+			
+			if (completed != levelButtonsCompleted[i]) {
+				
+				levelButtons[i].setTextFill(completed ? Color.GREEN : Color.BLACK);
+				levelButtonsCompleted[i] = completed;
+				
+			}
+			
+		}
 		
-		Button [] levelButtons = new Button[getGameObject().getLevelManager().getLevels().length];
+		previousPageButton.setVisible(page > 0);
+		nextPageButton.setVisible(page < getLevelPageCount() - 1);
 		
-		String buttonText;
+	}
+	
+	/**
+	 * Gets the number of pages of Level Buttons needed to show every Level
+	 * @return the number of pages, which is at least 1
+	 */
+	private int getLevelPageCount() {
+		
+		int levelCount = getGameObject().getLevelManager().getLevelCount();
+		
+		return Math.max(1, (levelCount + levelButtons.length - 1) / levelButtons.length);
+		
+	}
+	
+	/**
+	 * Generates an array of formatted Buttons, one for every Level on a page of the
+	 * level summary window. The Buttons are laid out in rows between the title and the
+	 * back Button; showLevelPage sets which Level each one opens.
+	 * @return an array of Buttons
+	 */
+	public Button [] getLevelButtons() {
 		
 		int buttonX;
 		int buttonY;
-		int buttonWidth = 200;
-		int buttonHeight = 100;
+		int buttonWidth = LEVEL_BUTTON_WIDTH;
+		int buttonHeight = LEVEL_BUTTON_HEIGHT;
 		
-		int buttonHorizontalSpacing = 10; // Spacing between each button
-		int buttonVerticalSpacing = 10;
-		int buttonsPerRow = (getGameObject().getWidth()) / (buttonWidth + buttonHorizontalSpacing); 
-		int buttonsPerColumn = (getGameObject().getHeight()) / (buttonHeight + buttonVerticalSpacing);
+		int buttonHorizontalSpacing = LEVEL_BUTTON_SPACING;
+		int buttonVerticalSpacing = LEVEL_BUTTON_SPACING;
+		
+		// The Buttons fill the screen from side to side, and from below the title to above the back Button
+		int areaHeight = getGameObject().getHeight() - LEVEL_BUTTONS_TOP - LEVEL_BUTTONS_BOTTOM_MARGIN;
+		int buttonsPerRow = (getGameObject().getWidth() + buttonHorizontalSpacing) / (buttonWidth + buttonHorizontalSpacing); 
+		int buttonsPerColumn = (areaHeight + buttonVerticalSpacing) / (buttonHeight + buttonVerticalSpacing);
 		
 		int xMargin; // Horizontal distance between left side of screen and left side of first button
 		int yMargin; // Vertical distance between top of screen and top of first button
 		xMargin = (getGameObject().getWidth() - (buttonsPerRow * buttonWidth) - (buttonsPerRow - 1) * buttonHorizontalSpacing) / 2;
-		yMargin = (getGameObject().getHeight() - (buttonsPerColumn * buttonHeight) - (buttonsPerColumn - 1) * buttonVerticalSpacing) / 2;
+		yMargin = LEVEL_BUTTONS_TOP + (areaHeight - (buttonsPerColumn * buttonHeight) - (buttonsPerColumn - 1) * buttonVerticalSpacing) / 2;
+		
+		Button [] levelButtons = new Button[buttonsPerRow * buttonsPerColumn];
 		
 		int buttonNumber = 0;
-		for (int i = 1; i <= buttonsPerColumn; i++) {
+		for (int i = 0; i < buttonsPerColumn; i++) {
 
 			for (int j = 0; j < buttonsPerRow; j++) {
 
-				if (buttonNumber < getGameObject().getLevelManager().getLevels().length) {
-					
-					buttonText = Integer.toString(buttonNumber + 1);
+				buttonX = xMargin + (j) * (buttonWidth + buttonHorizontalSpacing);
 
-					buttonX = xMargin + (j) * (buttonWidth + buttonHorizontalSpacing);
+				buttonY = yMargin + (i) * (buttonHeight + buttonVerticalSpacing);
 
-					buttonY = yMargin + (i) * (buttonHeight + buttonVerticalSpacing);
 
-
-					levelButtons[buttonNumber] = new Button(buttonText);
-					levelButtons[buttonNumber].setLayoutX(buttonX);
-					levelButtons[buttonNumber].setLayoutY(buttonY);
-					levelButtons[buttonNumber].setPrefSize(buttonWidth, buttonHeight);
-					levelButtons[buttonNumber].setFont(Font.font("Tahoma", FontWeight.BOLD, FontPosture.REGULAR, 50));
-					
-					int levelAssociatedIndex = buttonNumber;
-					levelButtons[buttonNumber].setOnAction(event -> getGameObject().getLevelManager().switchLevel(levelAssociatedIndex));
-					
-					// If the level was completed, make the button that accesses it have a green color
-					if (getGameObject().getLevelManager().getLevels()[levelAssociatedIndex].isLevelCompleted()) {
-						
-						levelButtons[buttonNumber].setTextFill(Color.GREEN);
-						
-					}
-					
-					buttonNumber += 1;
-					
-					
-				} 
+				levelButtons[buttonNumber] = new Button(Integer.toString(buttonNumber + 1));
+				levelButtons[buttonNumber].setLayoutX(buttonX);
+				levelButtons[buttonNumber].setLayoutY(buttonY);
+				levelButtons[buttonNumber].setPrefSize(buttonWidth, buttonHeight);
+				levelButtons[buttonNumber].setFont(TITLE_FONT);
+				
+				int slot = buttonNumber;
+				levelButtons[buttonNumber].setOnAction(event -> getGameObject().getLevelManager().switchLevel(levelButtonLevels[slot]));
+				
+				buttonNumber += 1;
 				
 			}
 		}
@@ -180,6 +315,22 @@ public class MenuManager {
 	 * Shows the instructions screen on the PortalGame's Scene
 	 */
 	public void showInstructions() {
+		
+		if (instructionsScene == null) {
+			
+			instructionsScene = createInstructionsScene();
+			
+		}
+		
+		getGameObject().getStage().setScene(instructionsScene);
+		
+	}
+	
+	/**
+	 * Builds the instructions screen
+	 * @return the Scene of the instructions screen
+	 */
+	private Scene createInstructionsScene() {
 
 		Pane pane = new Pane();
 
@@ -188,7 +339,6 @@ public class MenuManager {
 		pane.getChildren().add(canvas);
 		
 		Scene scene = new Scene(pane, getGameObject().getWidth(), getGameObject().getHeight());
-		getGameObject().getStage().setScene(scene);
 		
 		gc.setFill(Color.GOLD);
 		gc.fillRect(0, 0, getGameObject().getWidth(), getGameObject().getHeight());
@@ -196,11 +346,11 @@ public class MenuManager {
 		gc.setFill(Color.BLACK);
 		
 		// Header
-		gc.setFont(Font.font("Tahoma", FontWeight.BOLD, FontPosture.REGULAR, 50));
+		gc.setFont(TITLE_FONT);
 		gc.fillText("Instructions", getGameObject().getWidth() / 2 - 150, 75);
 		
 		
-		gc.setFont(Font.font("Tahoma", FontWeight.BOLD, FontPosture.REGULAR, 24));
+		gc.setFont(TEXT_FONT);
 		
 		// Main Goal
 		gc.fillText("Goal: Get the Player to the green Rectangle", getGameObject().getWidth() / 3 - 50, 150);
@@ -229,73 +379,54 @@ public class MenuManager {
 		
 		
 		pane.getChildren().add(backButton);
+		
+		return scene;
 
 	}
 	
 	/**
-	 * Shows a "congratulations" window on the PortalGame's Scene
+	 * Draws the overlay shown over the game in the given GameState, on a transparent
+	 * Canvas above the game's Canvas, so the game doesn't have to leave its Scene
+	 * when the level is paused, completed, or failed
+	 * @param gc the GraphicsContext of the overlay's Canvas, which has been cleared
+	 * @param gameState the GameState to draw the overlay of
 	 */
-	public void showLevelCompletedWindow() {
+	public void drawOverlay(GraphicsContext gc, GameState gameState) {
+		
+		String message;
+		String keys;
+		
+		switch (gameState) {
+		
+		case PAUSED:
+			gc.setFill(PAUSED_OVERLAY_COLOR);
+			message = "Paused";
+			keys = "P: Resume    Esc: Main menu";
+			break;
+		case LEVEL_COMPLETED:
+			gc.setFill(LEVEL_COMPLETED_OVERLAY_COLOR);
+			message = "Congratulations! You completed the level.";
+			keys = getGameObject().getLevelManager().getCurrentLevelIndex() + 1 < getGameObject().getLevelManager().getLevelCount()
+					? "Enter: Next level    L: Levels" : "L: Levels";
+			break;
+		case FAILED:
+			gc.setFill(FAIL_OVERLAY_COLOR);
+			message = "You failed the level. Try again?";
+			keys = "Spacebar: Restart    L: Levels";
+			break;
+		default:
+			return; // nothing is drawn over the game while it's being played
 		
-		Pane pane = new Pane();
-
-		Canvas canvas = new Canvas(getGameObject().getWidth(), getGameObject().getHeight());
-		GraphicsContext gc = canvas.getGraphicsContext2D();
-		pane.getChildren().add(canvas);
-		
-		Scene scene = new Scene(pane, getGameObject().getWidth(), getGameObject().getHeight());
-		getGameObject().getStage().setScene(scene);
+		}
 		
-		gc.setFill(Color.GREEN);
 		gc.fillRect(0, 0, getGameObject().getWidth(), getGameObject().getHeight());
 		
 		gc.setFill(Color.BLACK);
-		gc.setFont(Font.font("Tahoma", FontWeight.BOLD, FontPosture.REGULAR, 24));
-		gc.fillText("Congratulations! You completed the level.", getGameObject().getWidth() / 2 - 250, 100);
-		
+		gc.setFont(TEXT_FONT);
+		gc.setTextAlign(TextAlignment.CENTER);
+		gc.fillText(message, getGameObject().getWidth() / 2, 100);
+		gc.fillText(keys, getGameObject().getWidth() / 2, getGameObject().getHeight() / 2);
 		
-		Button backButton = new Button("Back To Levels");
-		backButton.setPrefSize(400, 50);
-		backButton.setLayoutX(gameObject.getWidth() / 2 - 200);
-		backButton.setLayoutY(getGameObject().getHeight() / 2);
-		backButton.setOnAction(event -> showLevels());
-		
-		
-		pane.getChildren().add(backButton);
-		
-	}
-
-	/**
-	 * Shows a "fail" window on the PortalGame's Scene
-	 */
-	public void showFailScreen() {
-
-		Pane pane = new Pane();
-
-		Canvas canvas = new Canvas(getGameObject().getWidth(), getGameObject().getHeight());
-		GraphicsContext gc = canvas.getGraphicsContext2D();
-		pane.getChildren().add(canvas);
-
-		Scene scene = new Scene(pane, getGameObject().getWidth(), getGameObject().getHeight());
-		getGameObject().getStage().setScene(scene);
-
-		gc.setFill(Color.RED);
-		gc.fillRect(0, 0, getGameObject().getWidth(), getGameObject().getHeight());
-
-		gc.setFill(Color.BLACK);
-		gc.setFont(Font.font("Tahoma", FontWeight.BOLD, FontPosture.REGULAR, 24));
-		gc.fillText("You failed the level. Try again?", getGameObject().getWidth() / 2 - 200, 100);
-
-
-		Button backButton = new Button("Back To Levels");
-		backButton.setPrefSize(400, 50);
-		backButton.setLayoutX(gameObject.getWidth() / 2 - 200);
-		backButton.setLayoutY(getGameObject().getHeight() / 2);
-		backButton.setOnAction(event -> showLevels());
-
-
-		pane.getChildren().add(backButton);
-
 	}
 
 	/**
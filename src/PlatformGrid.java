@@ -0,0 +1,466 @@
+
+import java.util.ArrayList;
+
+/**
+ * A uniform grid over the platforms of a Level, used to find the platforms near
+ * an area without checking every platform in the Level. Each cell of the grid stores
+ * the indices of the platforms which overlap it. The grid is built once and can't
+ * be changed, so it can be queried from several threads at the same time.
+ */
+public class PlatformGrid {
+
+	// The smallest side length of a cell
+	public static final double MIN_CELL_SIZE = 64;
+
+	private ArrayList<AABB> platforms;
+
+	private double originX;
+	private double originY;
+	private double cellSize;
+	private int columns;
+	private int rows;
+
+	// The platform indices of cell i are cellPlatforms[cellStarts[i]] to cellPlatforms[cellStarts[i + 1] - 1]
+	private int[] cellStarts;
+	private int[] cellPlatforms;
+
+	/**
+	 * Creates a PlatformGrid containing the given platforms
+	 * @param platforms the platforms to put in the grid
+	 */
+	public PlatformGrid(ArrayList<AABB> platforms) {
+
+		this.platforms = platforms;
+
+		double minX = 0;
+		double minY = 0;
+		double maxX = 0;
+		double maxY = 0;
+
+		for (int i = 0; i < platforms.size(); i++) {
+
+			AABB platform = platforms.get(i);
+
+			if (i == 0 || platform.getX() < minX) minX = platform.getX();
+			if (i == 0 || platform.getY() < minY) minY = platform.getY();
+			if (i == 0 || platform.getMaxX() > maxX) maxX = platform.getMaxX();
+			if (i == 0 || platform.getMaxY() > maxY) maxY = platform.getMaxY();
+
+		}
+
+		originX = minX;
+		originY = minY;
+
+		// Double the cell size until there are only a few cells for every platform
+		int maxCells = Math.max(64, platforms.size() * 4);
+		cellSize = MIN_CELL_SIZE;
+		do {
+
+			columns = Math.max(1, (int) Math.ceil((maxX - minX) / cellSize));
+			rows = Math.max(1, (int) Math.ceil((maxY - minY) / cellSize));
+
+			if ((long) columns * rows > maxCells) {
+
+				cellSize *= 2;
+
+			}
+
+		} while ((long) columns * rows > maxCells);
+
+		fillCells();
+
+	}
+
+	/**
+	 * Stores the index of each platform in every cell the platform overlaps.
+	 * The platforms are counted first so each cell's indices can be stored
+	 * next to each other(in increasing order) in one array.
+	 */
+	private void fillCells() {
+
+		cellStarts = new int[columns * rows + 1];
+
+		for (int i = 0; i < platforms.size(); i++) {
+
+			AABB platform = platforms.get(i);
+
+			for (int row = getRow(platform.getY()); row <= getRow(platform.getMaxY()); row++) {
+
+				for (int column = getColumn(platform.getX()); column <= getColumn(platform.getMaxX()); column++) {
+
+					cellStarts[row * columns + column + 1]++;
+
+				}
+
+			}
+
+		}
+
+		for (int i = 1; i < cellStarts.length; i++) {
+
+			cellStarts[i] += cellStarts[i - 1];
+
+		}
+
+		cellPlatforms = new int[cellStarts[cellStarts.length - 1]];
+		int[] cellSizes = new int[columns * rows];
+
+		for (int i = 0; i < platforms.size(); i++) {
+
+			AABB platform = platforms.get(i);
+
+			for (int row = getRow(platform.getY()); row <= getRow(platform.getMaxY()); row++) {
+
+				for (int column = getColumn(platform.getX()); column <= getColumn(platform.getMaxX()); column++) {
+
+					int cell = row * columns + column;
+					cellPlatforms[cellStarts[cell] + cellSizes[cell]] = i;
+					cellSizes[cell]++;
+
+				}
+
+			}
+
+		}
+
+	}
+
+	/**
+	 * Finds the platforms which may intersect the given area. Platforms in more than
+	 * one of the searched cells are only added once, and the indices are stored in
+	 * increasing order so they are checked in the same order as the platforms list.
+	 * @param x the left x coordinate of the area
+	 * @param y the top y coordinate of the area
+	 * @param width the width of the area
+	 * @param height the height of the area
+	 * @param result the Result to store the platform indices in(its old contents are removed)
+	 */
+	public void query(double x, double y, double width, double height, Result result) {
+
+		result.clear();
+
+		int firstColumn = getColumn(x);
+		int lastColumn = getColumn(x + width);
+		int firstRow = getRow(y);
+		int lastRow = getRow(y + height);
+
+		for (int row = firstRow; row <= lastRow; row++) {
+
+			for (int column = firstColumn; column <= lastColumn; column++) {
+
+				int cell = row * columns + column;
+
+				for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; i++) {
+
+					int platformIndex = cellPlatforms[i];
+					AABB platform = platforms.get(platformIndex);
+
+					// A platform in several searched cells is only added from the first of
+					// those cells, which is the searched cell closest to its top-left corner
+					if (column == Math.max(firstColumn, getColumn(platform.getX()))
+							&& row == Math.max(firstRow, getRow(platform.getY()))) {
+
+						result.add(platformIndex);
+
+					}
+
+				}
+
+			}
+
+		}
+
+		result.sort();
+
+	}
+
+	/**
+	 * Finds the first platform hit by a ray. The cells of the grid are visited in the
+	 * order the ray passes through them, and the search stops once a hit closer than
+	 * the next cell has been found.
+	 * @param originX the x coordinate the ray starts at
+	 * @param originY the y coordinate the ray starts at
+	 * @param directionX the x component of the ray's direction(with directionY, a unit vector)
+	 * @param directionY the y component of the ray's direction
+	 * @param hit the RaycastHit to store the closest hit in
+	 * @return true if the ray hit a platform, false otherwise
+	 */
+	public boolean raycast(double originX, double originY, double directionX, double directionY, RaycastHit hit) {
+
+		hit.clear();
+
+		// Find where the ray enters the area covered by the grid
+		double gridEnterDistance = rayEnterDistance(originX, originY, directionX, directionY, this.originX, 
+				this.originY, this.originX + columns * cellSize, this.originY + rows * cellSize);
+		if (Double.isNaN(gridEnterDistance)) {
+
+			return false;
+
+		}
+		gridEnterDistance = Math.max(0, gridEnterDistance);
+
+		int column = getColumn(originX + directionX * gridEnterDistance);
+		int row = getRow(originY + directionY * gridEnterDistance);
+
+		int columnStep = directionX > 0 ? 1 : -1;
+		int rowStep = directionY > 0 ? 1 : -1;
+
+		// The distance along the ray to the next vertical and horizontal cell borders,
+		// and the distance between borders
+		double nextColumnDistance = rayDistanceToBorder(originX, directionX, 
+				this.originX + (column + (directionX > 0 ? 1 : 0)) * cellSize);
+		double nextRowDistance = rayDistanceToBorder(originY, directionY, 
+				this.originY + (row + (directionY > 0 ? 1 : 0)) * cellSize);
+		double columnDistance = directionX == 0 ? Double.POSITIVE_INFINITY : cellSize / Math.abs(directionX);
+		double rowDistance = directionY == 0 ? Double.POSITIVE_INFINITY : cellSize / Math.abs(directionY);
+
+		while (column >= 0 && column < columns && row >= 0 && row < rows) {
+
+			int cell = row * columns + column;
+
+			for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; i++) {
+
+				int platformIndex = cellPlatforms[i];
+				AABB platform = platforms.get(platformIndex);
+
+				double distance = rayEnterDistance(originX, originY, directionX, directionY, 
+						platform.getX(), platform.getY(), platform.getMaxX(), platform.getMaxY());
+
+				if (!Double.isNaN(distance) && (!hit.isHit() || distance < hit.getDistance() 
+						|| (distance == hit.getDistance() && platformIndex < hit.getPlatformIndex()))) {
+
+					hit.set(platformIndex, Math.max(0, distance), originX, originY, directionX, directionY, 
+							getEnteredSide(originX, originY, directionX, directionY, platform, distance));
+
+				}
+
+			}
+
+			double cellExitDistance = Math.min(nextColumnDistance, nextRowDistance);
+
+			if (hit.isHit() && hit.getDistance() <= cellExitDistance) {
+
+				break;
+
+			}
+
+			if (nextColumnDistance < nextRowDistance) {
+
+				column += columnStep;
+				nextColumnDistance += columnDistance;
+
+			} else {
+
+				row += rowStep;
+				nextRowDistance += rowDistance;
+
+			}
+
+		}
+
+		return hit.isHit();
+
+	}
+
+	/**
+	 * Finds the distance along a ray at which it enters a box(using the slab method)
+	 * @return the distance, a negative distance if the ray starts inside the box, or 
+	 * NaN if the ray misses the box
+	 */
+	private static double rayEnterDistance(double originX, double originY, double directionX, double directionY,
+			double minX, double minY, double maxX, double maxY) {
+
+		double enterDistance = Double.NEGATIVE_INFINITY;
+		double exitDistance = Double.POSITIVE_INFINITY;
+
+		if (directionX == 0) {
+
+			if (originX < minX || originX > maxX) return Double.NaN;
+
+		} else {
+
+			double distance1 = (minX - originX) / directionX;
+			double distance2 = (maxX - originX) / directionX;
+			enterDistance = Math.max(enterDistance, Math.min(distance1, distance2));
+			exitDistance = Math.min(exitDistance, Math.max(distance1, distance2));
+
+		}
+
+		if (directionY == 0) {
+
+			if (originY < minY || originY > maxY) return Double.NaN;
+
+		} else {
+
+			double distance1 = (minY - originY) / directionY;
+			double distance2 = (maxY - originY) / directionY;
+			enterDistance = Math.max(enterDistance, Math.min(distance1, distance2));
+			exitDistance = Math.min(exitDistance, Math.max(distance1, distance2));
+
+		}
+
+		if (enterDistance > exitDistance || exitDistance < 0) {
+
+			return Double.NaN;
+
+		}
+
+		return enterDistance;
+
+	}
+
+	/**
+	 * Finds the distance along a ray(in one dimension) to a cell border
+	 * @return the distance, or infinity if the ray runs parallel to the border
+	 */
+	private static double rayDistanceToBorder(double origin, double direction, double border) {
+
+		return direction == 0 ? Double.POSITIVE_INFINITY : (border - origin) / direction;
+
+	}
+
+	/**
+	 * Gets the side of a platform which a ray enters through, given as the direction
+	 * a Portal on that side would open to
+	 * @param distance the distance along the ray at which it enters the platform
+	 * @return LEFT, RIGHT, UP, or DOWN, or null if the ray starts inside the platform
+	 */
+	private static PortalDirection getEnteredSide(double originX, double originY, double directionX, double directionY,
+			AABB platform, double distance) {
+
+		if (distance < 0) {
+
+			return null;
+
+		}
+
+		// The ray enters through a vertical side if it crosses that side's line last
+		double verticalSideDistance = directionX == 0 ? Double.NEGATIVE_INFINITY 
+				: ((directionX > 0 ? platform.getX() : platform.getMaxX()) - originX) / directionX;
+		double horizontalSideDistance = directionY == 0 ? Double.NEGATIVE_INFINITY 
+				: ((directionY > 0 ? platform.getY() : platform.getMaxY()) - originY) / directionY;
+
+		if (verticalSideDistance > horizontalSideDistance) {
+
+			return directionX > 0 ? PortalDirection.LEFT : PortalDirection.RIGHT;
+
+		} else {
+
+			return directionY > 0 ? PortalDirection.UP : PortalDirection.DOWN;
+
+		}
+
+	}
+
+	/**
+	 * Gets the column of the cell containing the given x coordinate. Coordinates
+	 * outside of the grid are given the closest column.
+	 * @param x the x coordinate
+	 * @return the column
+	 */
+	private int getColumn(double x) {
+
+		int column = (int) ((x - originX) / cellSize);
+		return Math.min(columns - 1, Math.max(0, column));
+
+	}
+
+	/**
+	 * Gets the row of the cell containing the given y coordinate. Coordinates
+	 * outside of the grid are given the closest row.
+	 * @param y the y coordinate
+	 * @return the row
+	 */
+	private int getRow(double y) {
+
+		int row = (int) ((y - originY) / cellSize);
+		return Math.min(rows - 1, Math.max(0, row));
+
+	}
+
+	/**
+	 * Gets the platform at the given index of the platforms list
+	 * @param index the index of the platform
+	 * @return the platform
+	 */
+	public AABB getPlatform(int index) {
+		return platforms.get(index);
+	}
+
+	/**
+	 * Gets the side length of the cells of the grid
+	 * @return the cell size
+	 */
+	public double getCellSize() {
+		return cellSize;
+	}
+
+	/**
+	 * A reusable list of platform indices found by a query
+	 */
+	public static class Result {
+
+		private int[] indices = new int[16];
+		private int size = 0;
+
+		/**
+		 * Gets the number of platform indices in the Result
+		 * @return the number of indices
+		 */
+		public int size() {
+			return size;
+		}
+
+		/**
+		 * Gets the platform index at the given position of the Result
+		 * @param i the position in the Result
+		 * @return the platform index
+		 */
+		public int get(int i) {
+			return indices[i];
+		}
+
+		private void clear() {
+			size = 0;
+		}
+
+		private void add(int index) {
+
+			if (size == indices.length) {
+
+				int[] newIndices = new int[indices.length * 2];
+				System.arraycopy(indices, 0, newIndices, 0, size);
+				indices = newIndices;
+
+			}
+
+			indices[size++] = index;
+
+		}
+
+		/**
+		 * Sorts the indices with an insertion sort, since there are usually very few
+		 */
+		private void sort() {
+
+			for (int i = 1; i < size; i++) {
+
+				int index = indices[i];
+				int j = i - 1;
+
+				while (j >= 0 && indices[j] > index) {
+
+					indices[j + 1] = indices[j];
+					j--;
+
+				}
+
+				indices[j + 1] = index;
+
+			}
+
+		}
+
+	}
+
+}
@@ -1,15 +1,13 @@
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 
-import javafx.geometry.Bounds;
 import javafx.geometry.Point2D;
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
-import javafx.scene.shape.Rectangle;
 
 public class Player extends Entity {
 	
-	private Rectangle drawingRectangle;
+	private AABB drawingRectangle;
 	
 	private double maxVelocity = 15;
 
@@ -20,28 +18,33 @@ public class Player extends Entity {
 	
 	private boolean jumpReady = false;
 
-	private PortalGame gameObject;
+	private Simulation simulation;
 
 	private ArrayList<Portal> portals = new ArrayList<>();
 
 	private ArrayList<Player> instances = new ArrayList<>(); 
 
+	// The clone placed at index 1 of instances, kept so it can be reused
+	private Player clone = null;
+
+	// The largest number of bytes writeState writes
+	public static final int MAX_STATE_SIZE = 4 * 8 + 2 + 2 + 1 + 2 * Portal.STATE_SIZE + 1 + 2 * 8;
+
 	/**
 	 * Creates a Player with the top-left coordinates given by a Point2D and a width
 	 * and height of 40
 	 * @param point the initial top-left (x, y) point of the player
-	 * @param gameObject the PortalGame object with data about levels and other objects
+	 * @param simulation the Simulation the Player is a part of
 	 */
-	public Player(Point2D point, PortalGame gameObject) {
+	public Player(Point2D point, Simulation simulation) {
 		
 		super(point);
 		setWidth(40);
 		setHeight(40);
 		
-		setDrawingRectangle(new Rectangle(getX(), getY(), getWidth(), getHeight()));
-		getDrawingRectangle().setFill(getColor());
+		setDrawingRectangle(new AABB(getX(), getY(), getWidth(), getHeight()));
 		
-		setGameObject(gameObject);
+		setSimulation(simulation);
 		
 		instances.add(this);
 		
@@ -53,25 +56,22 @@ public class Player extends Entity {
 	 * @param y the top y coordinate of the Player
 	 * @param width the width of the Player
 	 * @param height the height of the Player
-	 * @param gameObject the PortalGame object with data about levels and other objects
+	 * @param simulation the Simulation the Player is a part of
 	 */
-	public Player(double x, double y, double width, double height, Color color, PortalGame gameObject) {
+	public Player(double x, double y, double width, double height, Color color, Simulation simulation) {
 		
 		super(x, y, width, height, color);
-		setDrawingRectangle(new Rectangle(getX(), getY(), getWidth(), getHeight()));
-		getDrawingRectangle().setFill(getColor());
+		setDrawingRectangle(new AABB(getX(), getY(), getWidth(), getHeight()));
 		
-		setGameObject(gameObject);
+		setSimulation(simulation);
 
 		instances.add(this);
 	}
 
 	/**
-	 * Updates the position of the Player and its Portals, then draws them on 
-	 * the Canvas
-	 * @param gc the GraphicsContext of the canvas to draw the Player and Portals on
+	 * Updates the position of the Player and its Portals
 	 */
-	public void update(GraphicsContext gc) {
+	public void update() {
 
 		//setxVelocity(getxVelocity() * 0.98); // Friction
 		applyVelocities();
@@ -82,19 +82,43 @@ public class Player extends Entity {
 		resolvePortalCollisions();
 
 		if (!isInsidePortal()) {
-			checkCollisions(gameObject.getLevelManager().getCurrentLevel().getPlatforms());
+			getSimulation().addCollisionTests(checkCollisions(getSimulation().getLevel().getPlatformGrid()));
 		}
-		
-		draw(gc);
 
-		for (Portal portal : getPortals()) {
+		AllocationProfiler allocationProfiler = getSimulation().getAllocationProfiler();
+		if (allocationProfiler != null) {
 
-			portal.update();
-			portal.draw(gc);
+			allocationProfiler.begin(AllocationProfiler.PORTAL_UPDATE);
+
+		}
+
+		for (int i = 0; i < getPortals().size(); i++) {
+
+			getPortals().get(i).update();
+
+		}
+
+		if (allocationProfiler != null) {
+
+			allocationProfiler.end(AllocationProfiler.PORTAL_UPDATE);
 
 		}
 		
 	}
+	
+	/**
+	 * Queues the Player's Portals to be drawn
+	 * @param renderQueue the RenderQueue of the canvas to draw the Portals on
+	 */
+	public void drawPortals(RenderQueue renderQueue) {
+		
+		for (int i = 0; i < getPortals().size(); i++) {
+			
+			getPortals().get(i).draw(renderQueue);
+			
+		}
+		
+	}
 
 	/**
 	 * Launches a portal in the direction given
@@ -127,13 +151,29 @@ public class Player extends Entity {
 
 		}
 
-		Portal newPortal = new Portal(portalType, getCenterX(), getCenterY(), direction, gameObject);
 		if (portalTypeIndex != -1) {
 
-			getPortals().set(portalTypeIndex, newPortal);
+			// Reuse the Portal instead of creating a new one. The Player isn't inside a Portal
+			// while launching one, so it only has to forget it like it would a replaced Portal.
+			Portal portal = getPortals().get(portalTypeIndex);
+			if (getLastEnteredPortal() == portal) {
+
+				setLastEnteredPortal(null);
+
+			}
+			if (getLastExitedPortal() == portal) {
+
+				setLastExitedPortal(null);
+
+			}
+
+			portal.relaunch(getCenterX(), getCenterY(), direction);
+			portal.findTarget(getSimulation().getLevel().getPlatformGrid());
 
 		} else {
 
+			Portal newPortal = new Portal(portalType, getCenterX(), getCenterY(), direction, getSimulation());
+			newPortal.findTarget(getSimulation().getLevel().getPlatformGrid());
 			getPortals().add(newPortal);
 
 		}
@@ -141,98 +181,86 @@ public class Player extends Entity {
 	}
 
 	/**
-	 * Draws the player's rectangle on the canvas
-	 * @param gc the GraphicsContext of the canvas to draw the player on
+	 * Queues the player's rectangle to be drawn
+	 * @param renderQueue the RenderQueue of the canvas to draw the player on
 	 */
 	@Override
-	public void draw(GraphicsContext gc) {
-
-		gc.save();
-		
-		gc.setFill(getColor());
+	public void draw(RenderQueue renderQueue) {
 
 		if (!isInsidePortal()) {
 			
-			easyFillRect(gc, getRectangle());
+			easyFillRect(renderQueue, getBounds());
 			
 		} else {
 			
 			setDrawingRectangle(generatePlayerDrawingRectangle(getInstances().get(0)));
 			
-			easyFillRect(gc, getDrawingRectangle());
+			easyFillRect(renderQueue, getDrawingRectangle());
 			
 			if (getInstances().size() > 1) {
 				
-				easyFillRect(gc, getInstances().get(1).getRectangle());
+				easyFillRect(renderQueue, getInstances().get(1).getBounds());
 				
 			}
 		}
 		
-		gc.restore();
-		
 	}
 	
 	/**
-	 * Fills the Rectangle given on the Canvas
-	 * @param gc the GraphicsContext for the Canvas to fill the Rectangle on
-	 * @param rect the Rectangle to fill
+	 * Queues the AABB given to be filled with the Player's Color
+	 * @param renderQueue the RenderQueue for the Canvas to fill the AABB on
+	 * @param rect the AABB to fill
 	 */
-	public void easyFillRect(GraphicsContext gc, Rectangle rect) {
+	public void easyFillRect(RenderQueue renderQueue, AABB rect) {
 		
-		gc.fillRect(rect.getX(), rect.getY(), rect.getWidth(), rect.getHeight());
+		renderQueue.fillRect(RenderQueue.ENTITY_LAYER, getColor(), rect.getX(), rect.getY(), rect.getWidth(), rect.getHeight());
 		
 	}
 	
 	/**
 	 * @return the drawingRectangle
 	 */
-	public Rectangle getDrawingRectangle() {
+	public AABB getDrawingRectangle() {
 		return drawingRectangle;
 	}
 
 	/**
 	 * @param drawingRectangle the drawingRectangle to set
 	 */
-	public void setDrawingRectangle(Rectangle drawingRectangle) {
+	public void setDrawingRectangle(AABB drawingRectangle) {
 		this.drawingRectangle = drawingRectangle;
 	}
 
 	/**
-	 * Gets a Rectangle which represents only the Player's Rectangle 
-	 * that is outside of a Portal
-	 * @param player
-	 * @return
+	 * Gets an AABB which represents only the part of the Player 
+	 * that is outside of a Portal. The drawingRectangle is reused for the result.
+	 * @param player the Player(or clone) entering the Portal
+	 * @return the part of the Player outside of the Portal
 	 */
-	public Rectangle generatePlayerDrawingRectangle(Player player) {
-		
-		// TODO drawingRectangle should be a class variable in Player
-		// then the resolvePortalCollisionsMethod should change drawingRectangle
-		// when the Player is in a portal
+	public AABB generatePlayerDrawingRectangle(Player player) {
 		
-		Rectangle newDrawingRectangle;
+		AABB newDrawingRectangle = getDrawingRectangle();
 		
-		if (getLastEnteredPortal().getOpeningDirection().equals("LEFT")) {
+		if (getLastEnteredPortal().getOpeningDirection() == PortalDirection.LEFT) {
 			
-			newDrawingRectangle = new Rectangle(player.getX(), player.getY(), getLastEnteredPortal().getLeftX() - player.getX(), player.getHeight());
+			newDrawingRectangle.set(player.getX(), player.getY(), getLastEnteredPortal().getLeftX() - player.getX(), player.getHeight());
 			
-		} else if (getLastEnteredPortal().getOpeningDirection().equals("RIGHT")) {
+		} else if (getLastEnteredPortal().getOpeningDirection() == PortalDirection.RIGHT) {
 			
 			double playerRightX = player.getX() + player.getWidth();
 			
-			newDrawingRectangle = new Rectangle(getLastEnteredPortal().getRightX(), player.getY(), playerRightX - getLastEnteredPortal().getRightX(), player.getHeight());
+			newDrawingRectangle.set(getLastEnteredPortal().getRightX(), player.getY(), playerRightX - getLastEnteredPortal().getRightX(), player.getHeight());
 			
-		} else if (getLastEnteredPortal().getOpeningDirection().equals("UP")) {
+		} else if (getLastEnteredPortal().getOpeningDirection() == PortalDirection.UP) {
 			
-			newDrawingRectangle = new Rectangle(player.getX(), player.getY(), player.getWidth(), getLastEnteredPortal().getTopY() - player.getY());
+			newDrawingRectangle.set(player.getX(), player.getY(), player.getWidth(), getLastEnteredPortal().getTopY() - player.getY());
 			
 		} else {
 			
-			newDrawingRectangle = new Rectangle(player.getX(), getLastEnteredPortal().getBottomY(), player.getWidth(), player.getHeight());
+			newDrawingRectangle.set(player.getX(), getLastEnteredPortal().getBottomY(), player.getWidth(), player.getHeight());
 			
 		}
 		
-		newDrawingRectangle.setFill(getColor());
-		
 		return newDrawingRectangle;
 		
 	}
@@ -280,11 +308,8 @@ public class Player extends Entity {
 			Portal portal1 = portals.get(0); 
 			Portal portal2 = portals.get(1);
 
-			Bounds portal1Bounds = portal1.getRectangle().getLayoutBounds();
-			Bounds portal2Bounds = portal2.getRectangle().getLayoutBounds();
-
-			boolean insidePortal1 = instances.get(0).getRectangle().intersects(portal1Bounds);
-			boolean insidePortal2 = instances.get(0).getRectangle().intersects(portal2Bounds);
+			boolean insidePortal1 = instances.get(0).getBounds().intersects(portal1.getBounds());
+			boolean insidePortal2 = instances.get(0).getBounds().intersects(portal2.getBounds());
 			
 			if (insidePortal1 || insidePortal2) {
 				
@@ -327,6 +352,7 @@ public class Player extends Entity {
 
 			Player clone = getInstances().get(1);
 
+			getSimulation().countPortalTransit();
 			
 			getInstances().get(0).translateVelocities(enterPortal, exitPortal);
 			
@@ -350,7 +376,7 @@ public class Player extends Entity {
 
 		boolean shouldEnterPortal = false;
 
-		boolean isEnteringHorizontalPortal = enterPortal.getOpeningDirection().equals("UP") || enterPortal.getOpeningDirection().equals("DOWN");
+		boolean isEnteringHorizontalPortal = enterPortal.getOpeningDirection().isHorizontal();
 
 		if (isEnteringHorizontalPortal) {
 
@@ -383,7 +409,7 @@ public class Player extends Entity {
 	 */
 	public void bounceInsidePortal(Portal enterPortal) {
 
-		boolean isEnteringHorizontalPortal = enterPortal.getOpeningDirection().equals("UP") || enterPortal.getOpeningDirection().equals("DOWN");
+		boolean isEnteringHorizontalPortal = enterPortal.getOpeningDirection().isHorizontal();
 
 		if (isEnteringHorizontalPortal) {
 
@@ -434,103 +460,18 @@ public class Player extends Entity {
 
 		if (getInstances().size() < 2) {
 
-			getInstances().add(new Player(-100, -100, getWidth(), getHeight(), getColor(), gameObject));
-			getInstances().get(1).setColor(Color.BLUE);
+			getInstances().add(getClone());
 
 		}
 
-		String enterPortalDirection = enterPortal.getOpeningDirection();
-		String exitPortalDirection = exitPortal.getOpeningDirection();
-
-		boolean isEnteringHorizontalPortal = enterPortalDirection.equals("UP") || enterPortalDirection.equals("DOWN");
-		boolean isExitingHorizontalPortal = exitPortalDirection.equals("UP") || exitPortalDirection.equals("DOWN");
+		PortalTransform transform = PortalTransform.get(enterPortal.getOpeningDirection(), exitPortal.getOpeningDirection());
 
+		// How far the Player is along the enter Portal's opening and how far it has gone into the Portal
+		double distanceAlongEnterPortal = enterPortal.getOpeningDirection().getDistanceAlong(enterPortal, this);
 		double distanceIntoEnterPortal = calculateDistanceIntoPortal(enterPortal);
 
-		double cloneX;
-		double cloneY;
-
-		int safetyMargin = 0; // TODO Rename/label
-
-		if (isEnteringHorizontalPortal) {
-
-			double distanceToEnterPortalLeftSide = Math.abs(enterPortal.getLeftX() - getX());
-
-			// If the Player is entering a horizontal portal and exiting through a horizontal portal
-
-			if (isExitingHorizontalPortal) {
-
-				cloneX = exitPortal.getLeftX() + distanceToEnterPortalLeftSide;
-
-				if (exitPortal.getOpeningDirection().equals("UP")) {
-
-					cloneY = exitPortal.getTopY() - distanceIntoEnterPortal - safetyMargin;
-
-				} else {
-
-					// If the Player enters a horizontal portal and exits through a down-opening portal
-
-					cloneY = exitPortal.getBottomY() + distanceIntoEnterPortal + safetyMargin - getHeight();
-
-				}
-
-
-			} else {
-
-				// If the Player is entering a horizontal portal and exiting through a vertical portal
-				cloneY = exitPortal.getTopY() + distanceToEnterPortalLeftSide;
-
-				if (exitPortal.getOpeningDirection().equals("RIGHT")) {
-
-					cloneX = exitPortal.getRightX() + distanceIntoEnterPortal - getWidth() + safetyMargin;
-
-				} else {
-
-					cloneX = exitPortal.getLeftX() - distanceIntoEnterPortal - safetyMargin;
-
-				}
-
-			}
-
-		} else {
-
-			// If the player entered through a vertical portal
-
-			double distanceToEnterPortalTopSide = Math.abs(enterPortal.getTopY() - getY());
-
-			if (isExitingHorizontalPortal) {
-
-				cloneX = exitPortal.getLeftX() + distanceToEnterPortalTopSide;
-
-				if (exitPortal.getOpeningDirection().equals("UP")) {
-
-					cloneY = exitPortal.getTopY() - distanceIntoEnterPortal - safetyMargin;
-
-				} else {
-
-					cloneY = exitPortal.getBottomY() + distanceIntoEnterPortal + safetyMargin - getHeight();
-
-				}
-
-			} else {
-
-				// If the Player enters through a vertical portal and exits through a vertical portal
-
-				cloneY = exitPortal.getTopY() + distanceToEnterPortalTopSide;
-
-				if (exitPortal.getOpeningDirection().equals("RIGHT")) {
-
-					cloneX = exitPortal.getRightX() + distanceIntoEnterPortal - getWidth() + safetyMargin ;
-
-				} else {
-
-					cloneX = exitPortal.getLeftX() - distanceIntoEnterPortal - safetyMargin;
-
-				}
-
-			}
-
-		}
+		double cloneX = transform.getCloneX(exitPortal, distanceAlongEnterPortal, distanceIntoEnterPortal, getWidth());
+		double cloneY = transform.getCloneY(exitPortal, distanceAlongEnterPortal, distanceIntoEnterPortal, getHeight());
 
 		getInstances().get(1).setLocation(cloneX, cloneY);
 
@@ -545,72 +486,13 @@ public class Player extends Entity {
 	 */
 	public void translateVelocities(Portal enterPortal, Portal exitPortal) {
 
-		String enterPortalDirection = enterPortal.getOpeningDirection();
-		String exitPortalDirection = exitPortal.getOpeningDirection();
-		boolean isEnteringHorizontalPortal = enterPortalDirection.equals("UP") || enterPortalDirection.equals("DOWN");
-		boolean isExitingHorizontalPortal = exitPortalDirection.equals("UP") || exitPortalDirection.equals("DOWN");
-
-		if (enterPortalDirection.equals(exitPortalDirection)) {
-
-			if (isEnteringHorizontalPortal) {
-
-				setyVelocity(getyVelocity() * -1);
-
-			} else {
-
-				setxVelocity(getxVelocity() * -1);
-
-			}
-
-		} else {
-
-			if (isEnteringHorizontalPortal == isExitingHorizontalPortal) {
-
-				// If the player is entering and exiting through Portals of the same
-				// alignment(horizontal/vertical) but different opening directions,
-				// leave the Player's velocities unchanged
-				// ex. If the player enters a right-opening Portal and exits a 
-				// left-opening Portal, the player's velocities do not need to be
-				// changed.
-
-			} else {
-
-				// If the Player enters a horizontal Portal and exits through a vertical Portal,
-				// or if the Player enters a vertical Portal and exits a horizontal Portal
-
-				String combination = enterPortalDirection + exitPortalDirection;
-
-				boolean simpleSwap = ( combination.contains("LEFT") && combination.contains("DOWN") ) || 
-						( combination.contains("RIGHT") && combination.contains("UP") );
+		PortalTransform transform = PortalTransform.get(enterPortal.getOpeningDirection(), exitPortal.getOpeningDirection());
 
-				double oldXVelocity = getxVelocity();
-				double oldYVelocity = getyVelocity();
-
-
-				if (simpleSwap) {
-
-					setxVelocity(oldYVelocity);
-					setyVelocity(oldXVelocity);
-
-				} else {
-
-					if (enterPortalDirection.equals("LEFT") || enterPortalDirection.equals("RIGHT")) {
-
-						setxVelocity(oldYVelocity);
-						setyVelocity(oldXVelocity * -1);
-
-					} else {
-
-						setxVelocity(oldYVelocity * -1);
-						setyVelocity(oldXVelocity);
-
-					}
-
-				}
+		double oldXVelocity = getxVelocity();
+		double oldYVelocity = getyVelocity();
 
-
-			}
-		}
+		setxVelocity(transform.transformXVelocity(oldXVelocity, oldYVelocity));
+		setyVelocity(transform.transformYVelocity(oldXVelocity, oldYVelocity));
 
 	}
 
@@ -626,35 +508,7 @@ public class Player extends Entity {
 	 */
 	public double calculateDistanceIntoPortal(Portal portal) {
 
-		double distance = -1;
-		if (portal.getOpeningDirection().equals("LEFT")) {
-
-			// player -> | 
-
-			double playerRightX = getX() + getWidth();
-
-			distance = Math.abs(portal.getLeftX() - playerRightX);
-
-
-		} else if (portal.getOpeningDirection().equals("RIGHT")) {
-
-			// | <- player
-			double playerLeftX = getX();
-
-			distance = Math.abs(playerLeftX - portal.getRightX());
-
-		} else if (portal.getOpeningDirection().equals("UP")) {
-
-			double playerBottomY = getY() + getHeight();
-
-			distance = Math.abs(portal.getTopY() - playerBottomY);
-
-		} else if (portal.getOpeningDirection().equals("DOWN")) {
-
-			double playerTopY = getY();
-
-			distance = Math.abs(portal.getBottomY() - playerTopY);
-		}
+		double distance = portal.getOpeningDirection().getDistanceInto(portal, this);
 
 		return distance;
 
@@ -727,16 +581,16 @@ public class Player extends Entity {
 	}
 	
 	@Override
-	public void resolveTopCollision(Rectangle rectangle) {
+	public void resolveTopCollision(AABB platform) {
 
 		setyVelocity(getyVelocity() * -1);
 
 	}
 
 	@Override
-	public void resolveBottomCollision(Rectangle rectangle) {
+	public void resolveBottomCollision(AABB platform) {
 
-		setY(rectangle.getY() - getHeight());
+		setY(platform.getY() - getHeight());
 		setyVelocity(0);
 		setxVelocity(getxVelocity() * .95);
 		setJumpReady(true);
@@ -744,14 +598,14 @@ public class Player extends Entity {
 	}
 	
 	@Override
-	public void resolveLeftCollision(Rectangle rectangle) {
+	public void resolveLeftCollision(AABB platform) {
 
 		setxVelocity(getxVelocity() * -1);
 
 	}
 
 	@Override
-	public void resolveRightCollision(Rectangle rectangle) {
+	public void resolveRightCollision(AABB platform) {
 
 		setxVelocity(getxVelocity() * -1);
 
@@ -798,19 +652,132 @@ public class Player extends Entity {
 	}
 
 	/**
-	 * Gets the PortalGame instance held by the Player
-	 * @return the PortalGame instance
+	 * Gets the Player's clone, creating it the first time it is needed. The clone
+	 * is only in instances while the Player is going through a Portal.
+	 * @return the clone
+	 */
+	public Player getClone() {
+		
+		if (clone == null) {
+			
+			clone = new Player(-100, -100, getWidth(), getHeight(), Color.BLUE, getSimulation());
+			
+		}
+		
+		return clone;
+		
+	}
+	
+	/**
+	 * Writes the position, velocities, and Portal state of the Player to a buffer,
+	 * including its Portals and clone
+	 * @param buffer the buffer to write to
+	 */
+	public void writeState(ByteBuffer buffer) {
+		
+		buffer.putDouble(getX());
+		buffer.putDouble(getY());
+		buffer.putDouble(getxVelocity());
+		buffer.putDouble(getyVelocity());
+		buffer.put((byte) (isJumpReady() ? 1 : 0));
+		buffer.put((byte) (isInsidePortal() ? 1 : 0));
+		
+		// The last entered and exited Portals are stored as indices in portals
+		buffer.put((byte) getPortals().indexOf(getLastEnteredPortal()));
+		buffer.put((byte) getPortals().indexOf(getLastExitedPortal()));
+		
+		buffer.put((byte) getPortals().size());
+		for (int i = 0; i < getPortals().size(); i++) {
+			
+			getPortals().get(i).writeState(buffer);
+			
+		}
+		
+		boolean hasClone = getInstances().size() > 1;
+		buffer.put((byte) (hasClone ? 1 : 0));
+		if (hasClone) {
+			
+			buffer.putDouble(getInstances().get(1).getX());
+			buffer.putDouble(getInstances().get(1).getY());
+			
+		}
+		
+	}
+	
+	/**
+	 * Reads a state written by writeState from a buffer. The Player's existing Portals
+	 * and clone are reused, so new objects are only created if the state has more of
+	 * them than the Player does.
+	 * @param buffer the buffer to read from
+	 */
+	public void readState(ByteBuffer buffer) {
+		
+		setX(buffer.getDouble());
+		setY(buffer.getDouble());
+		setxVelocity(buffer.getDouble());
+		setyVelocity(buffer.getDouble());
+		setJumpReady(buffer.get() == 1);
+		setInsidePortal(buffer.get() == 1);
+		
+		int lastEnteredPortalIndex = buffer.get();
+		int lastExitedPortalIndex = buffer.get();
+		
+		int portalCount = buffer.get();
+		while (getPortals().size() > portalCount) {
+			
+			getPortals().remove(getPortals().size() - 1);
+			
+		}
+		for (int i = 0; i < portalCount; i++) {
+			
+			if (i == getPortals().size()) {
+				
+				getPortals().add(new Portal("A", 0, 0, 0, getSimulation()));
+				
+			}
+			
+			getPortals().get(i).readState(buffer);
+			
+		}
+		
+		setLastEnteredPortal(lastEnteredPortalIndex < 0 ? null : getPortals().get(lastEnteredPortalIndex));
+		setLastExitedPortal(lastExitedPortalIndex < 0 ? null : getPortals().get(lastExitedPortalIndex));
+		
+		boolean hasClone = buffer.get() == 1;
+		if (hasClone) {
+			
+			if (getInstances().size() < 2) {
+				
+				getInstances().add(getClone());
+				
+			}
+			
+			double cloneX = buffer.getDouble();
+			double cloneY = buffer.getDouble();
+			getInstances().get(1).setLocation(cloneX, cloneY);
+			
+		} else if (getInstances().size() > 1) {
+			
+			getInstances().remove(1);
+			
+		}
+		
+	}
+
+	/**
+	 * Gets the Simulation the Player is a part of
+	 * @return the Simulation
 	 */
-	public PortalGame getGameObject() {
-		return gameObject;
+	public Simulation getSimulation() {
+		return simulation;
 	}
 
 	/**
-	 * Sets the PortalGame instance of the Player
-	 * @param gameObject new PortalGame instance
+	 * Sets the Simulation the Player is a part of
+	 * @param simulation the new Simulation
 	 */
-	public void setGameObject(PortalGame gameObject) {
-		this.gameObject = gameObject;
+	public void setSimulation(Simulation simulation) {
+		this.simulation = simulation;
 	}
 	
 }
@@ -1,10 +1,7 @@
 
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
 
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
-import javafx.scene.shape.Circle;
-import javafx.scene.shape.Rectangle;
 
 public class Portal {
 
@@ -20,15 +17,25 @@ public class Portal {
 	private double velocity = 10; 
 	private double direction;
 
-	private String openingDirection = null;
+	private PortalDirection openingDirection = null;
 
-	private PortalGame gameObject; 
+	private Simulation simulation; 
 
 	private double horizontalPortalWidth = 120;
 	private double verticalPortalWidth = 10;
 	private double horizontalPortalHeight = verticalPortalWidth;
 	private double verticalPortalHeight = horizontalPortalWidth;
 
+	private AABB bounds = new AABB();
+
+	// Where the airborne Portal will land, found when it is launched
+	private RaycastHit target = new RaycastHit();
+	private AABB targetPlatform = null;
+	private double distanceTraveled = 0;
+
+	// The number of bytes writeState writes
+	public static final int STATE_SIZE = 1 + 7 * 8 + 1 + 1 + RaycastHit.STATE_SIZE;
+
 
 	public Portal() {}
 
@@ -43,9 +50,10 @@ public class Portal {
 	 * @param height the height of the Portal
 	 * @param velocity the magnitude of the Portal's velocity
 	 * @param direction the direction of the Portal's velocity(in degrees)
+	 * @param simulation the Simulation the Portal is a part of
 	 */
 	public Portal(String portalType, double centerX, double centerY, double width, double height, double velocity,
-			double direction, PortalGame gameObject) {
+			double direction, Simulation simulation) {
 
 		setPortalType(portalType);
 		setCenterX(centerX);
@@ -55,7 +63,7 @@ public class Portal {
 		setVelocity(velocity);
 		setDirection(direction);
 
-		this.gameObject = gameObject;
+		this.simulation = simulation;
 
 		if (getPortalType().equals("A")) {
 
@@ -76,15 +84,16 @@ public class Portal {
 	 * @param centerX the center x coordinate of the Portal
 	 * @param centerY the center y coordinate of the Portal
 	 * @param direction the direction of the Portal's velocity
+	 * @param simulation the Simulation the Portal is a part of
 	 */
-	public Portal(String portalType, double centerX, double centerY, double direction, PortalGame gameObject) {
+	public Portal(String portalType, double centerX, double centerY, double direction, Simulation simulation) {
 
 		setPortalType(portalType);
 		setCenterX(centerX);
 		setCenterY(centerY);
 		setDirection(direction);
 
-		this.gameObject = gameObject;
+		this.simulation = simulation;
 
 		if (getPortalType().equals("A")) {
 
@@ -99,55 +108,83 @@ public class Portal {
 	}
 
 	/**
-	 * Updates the Portal's position if it is airborne, and checks if the Portal
-	 * is colliding with any of the platforms in the current level.
+	 * Launches the Portal again from (centerX, centerY), putting it back in the state
+	 * a new Portal is created in, so the same Portal can be reused for every launch
+	 * @param centerX the center x coordinate of the Portal
+	 * @param centerY the center y coordinate of the Portal
+	 * @param direction the direction of the Portal's velocity
 	 */
-	public void update() {
-
-		if (getVelocity() > 0) {
+	public void relaunch(double centerX, double centerY, double direction) {
 
-			setCenterX(getCenterX() + (Math.cos(Math.toRadians(getDirection()))) * getVelocity() * -1);
-			setCenterY(getCenterY() + (Math.sin(Math.toRadians(getDirection()))) * getVelocity() * -1);
-
-			checkCollisions(gameObject.getLevelManager().getCurrentLevel().getPlatforms());
+		setCenterX(centerX);
+		setCenterY(centerY);
+		setDirection(direction);
+		setWidth(100);
+		setHeight(4);
+		setVelocity(10);
+		setPlacedOnWall(false);
+		setOpeningDirection(null);
 
-		}
+		target.clear();
+		targetPlatform = null;
+		distanceTraveled = 0;
 
 	}
 
 	/**
-	 * Draws the Portal. If the Portal is airborne, a Circle is drawn, and if
-	 * the Portal is stationary a Rectangle is drawn. 
-	 * @param gc the GraphicsContext of the Canvas to draw the Portal on
+	 * Finds the platform the Portal will land on by casting a ray from the Portal's
+	 * center in the direction of its velocity. This only needs to be done once, when
+	 * the Portal is launched, since platforms don't move.
+	 * @param platformGrid the PlatformGrid of the current Level
 	 */
-	public void draw(GraphicsContext gc) {
+	public void findTarget(PlatformGrid platformGrid) {
 
-		gc.setFill(getColor());
+		double directionX = Math.cos(Math.toRadians(getDirection())) * -1;
+		double directionY = Math.sin(Math.toRadians(getDirection())) * -1;
 
-		if (velocity > 0) {
+		if (platformGrid.raycast(getCenterX(), getCenterY(), directionX, directionY, target)) {
 
-			gc.fillOval(getCenterX() - getAirborneRadius(), getCenterY() - getAirborneRadius(), getAirborneRadius() * 2, getAirborneRadius() * 2);
+			targetPlatform = platformGrid.getPlatform(target.getPlatformIndex());
+
+		} else {
+
+			targetPlatform = null;
 
-		} else if (isPlacedOnWall()) {
-			gc.fillRect(getCenterX() - getWidth() / 2, getCenterY() - getHeight() / 2, getWidth(), getHeight());
 		}
 
+		distanceTraveled = 0;
+
 	}
 
 	/**
-	 * Checks for a collision between the airborne Portal object and one of the game platforms
-	 * @param rectangles the platform objects in the game
-	 * @return true if there is a collision, false otherwise
+	 * Updates the Portal's position if it is airborne. Once the Portal reaches the
+	 * target found by findTarget, it is placed on the target platform.
 	 */
-	public void checkCollisions(ArrayList<Rectangle> rectangles) {
+	public void update() {
 
-		for (Rectangle rectangle : rectangles) {
+		if (getVelocity() > 0) {
+
+			if (targetPlatform != null && distanceTraveled + getVelocity() >= target.getDistance()) {
+
+				setCenterX(target.getX());
+				setCenterY(target.getY());
 
-			Circle centerPoint = new Circle(getCenterX(), getCenterY(), 1);
+				if (target.getOpeningDirection() != null) {
 
-			if (centerPoint.intersects(rectangle.getLayoutBounds())) {
+					placeOnWall(targetPlatform, target.getOpeningDirection());
 
-				stickToWall(rectangle);
+				} else {
+
+					// The Portal was launched from inside the platform
+					stickToWall(targetPlatform);
+
+				}
+
+			} else {
+
+				setCenterX(getCenterX() + (Math.cos(Math.toRadians(getDirection()))) * getVelocity() * -1);
+				setCenterY(getCenterY() + (Math.sin(Math.toRadians(getDirection()))) * getVelocity() * -1);
+				distanceTraveled += getVelocity();
 
 			}
 
@@ -156,13 +193,27 @@ public class Portal {
 	}
 
 	/**
-	 * Adjusts the position, dimensions, and velocity of the Portal
-	 * so that it will be stationary on the wall it collided with
-	 * @param rectangle the Rectangle of the wall to stick the Portal on
+	 * Queues the Portal to be drawn. If the Portal is airborne, a Circle is drawn, and if
+	 * the Portal is stationary a Rectangle is drawn. 
+	 * @param renderQueue the RenderQueue of the Canvas to draw the Portal on
 	 */
-	public void stickToWall(Rectangle rectangle) {
+	public void draw(RenderQueue renderQueue) {
 
-		setVelocity(0);
+		if (velocity > 0) {
+
+			renderQueue.fillOval(RenderQueue.PORTAL_LAYER, getColor(), getCenterX() - getAirborneRadius(), getCenterY() - getAirborneRadius(), getAirborneRadius() * 2, getAirborneRadius() * 2);
+
+		} else if (isPlacedOnWall()) {
+			renderQueue.fillRect(RenderQueue.PORTAL_LAYER, getColor(), getCenterX() - getWidth() / 2, getCenterY() - getHeight() / 2, getWidth(), getHeight());
+		}
+
+	}
+
+	/**
+	 * Sticks the Portal to the side of a wall closest to the Portal's center
+	 * @param rectangle the AABB of the wall to stick the Portal on
+	 */
+	public void stickToWall(AABB rectangle) {
 
 		double leftVerticalX = rectangle.getX();
 		double rightVerticalX = rectangle.getX() + rectangle.getWidth();
@@ -185,14 +236,11 @@ public class Portal {
 			// If the portal collided with one of the vertical(left or right) sides of the platform
 			if (distanceToLeftVertical < distanceToRightVertical) {
 
-				setCenterX(leftVerticalX);
-				setOpeningDirection("LEFT");
-
+				placeOnWall(rectangle, PortalDirection.LEFT);
 
 			} else {
 
-				setCenterX(rightVerticalX);
-				setOpeningDirection("RIGHT");
+				placeOnWall(rectangle, PortalDirection.RIGHT);
 
 			}
 
@@ -203,21 +251,51 @@ public class Portal {
 
 			if (distanceToTopHorizontal < distanceToBottomHorizontal) {
 
-				setCenterY(topHorizontalY);
-				setOpeningDirection("UP");
+				placeOnWall(rectangle, PortalDirection.UP);
 
 			} else {
 
-				setCenterY(bottomHorizontalY);
-				setOpeningDirection("DOWN");
+				placeOnWall(rectangle, PortalDirection.DOWN);
 
 			}
 		}
 
+	}
+
+	/**
+	 * Adjusts the position, dimensions, and velocity of the Portal
+	 * so that it will be stationary on the given side of a wall
+	 * @param rectangle the AABB of the wall to stick the Portal on
+	 * @param openingDirection the side of the wall, given as the direction the Portal opens to
+	 */
+	public void placeOnWall(AABB rectangle, PortalDirection openingDirection) {
+
+		setVelocity(0);
+
+		if (openingDirection == PortalDirection.LEFT) {
+
+			setCenterX(rectangle.getX());
+
+		} else if (openingDirection == PortalDirection.RIGHT) {
+
+			setCenterX(rectangle.getX() + rectangle.getWidth());
+
+		} else if (openingDirection == PortalDirection.UP) {
+
+			setCenterY(rectangle.getY());
+
+		} else {
+
+			setCenterY(rectangle.getY() + rectangle.getHeight());
+
+		}
+
+		setOpeningDirection(openingDirection);
+
 		adjustSize();
 		
 		boolean portalFitsOnPlatform = true;
-		boolean isHorizontalPortal = getOpeningDirection().equals("UP") || getOpeningDirection().equals("DOWN");
+		boolean isHorizontalPortal = getOpeningDirection().isHorizontal();
 		
 		// Check if the Portal fits on the platform
 		if (isHorizontalPortal) {
@@ -255,17 +333,17 @@ public class Portal {
 
 	/**
 	 * Adjusts the width and height of the rectangle to match its opening orientation
-	 * Example: A portal with a "DOWN" opening orientation should have a longer width
+	 * Example: A portal with a DOWN opening orientation should have a longer width
 	 * than height since it is flat
 	 */
 	public void adjustSize() {
 
-		if (getOpeningDirection().equals("UP") || getOpeningDirection().equals("DOWN")) {
+		if (getOpeningDirection().isHorizontal()) {
 
 			setWidth(horizontalPortalWidth);
 			setHeight(horizontalPortalHeight);
 
-		} else if (getOpeningDirection().equals("LEFT") || getOpeningDirection().equals("RIGHT")) {
+		} else {
 
 			setWidth(verticalPortalWidth);
 			setHeight(verticalPortalHeight);
@@ -274,9 +352,65 @@ public class Portal {
 
 	}
 
-	public Rectangle getRectangle() {
+	/**
+	 * Writes the position, size, velocity, and target of the Portal to a buffer
+	 * @param buffer the buffer to write to
+	 */
+	public void writeState(ByteBuffer buffer) {
+
+		buffer.put((byte) (getPortalType().equals("A") ? 0 : 1));
+		buffer.putDouble(centerX);
+		buffer.putDouble(centerY);
+		buffer.putDouble(width);
+		buffer.putDouble(height);
+		buffer.putDouble(velocity);
+		buffer.putDouble(direction);
+		buffer.putDouble(distanceTraveled);
+		buffer.put((byte) (placedOnWall ? 1 : 0));
+		buffer.put((byte) (openingDirection == null ? -1 : openingDirection.ordinal()));
+		target.writeState(buffer);
+
+	}
+
+	/**
+	 * Reads a Portal written by writeState from a buffer
+	 * @param buffer the buffer to read from
+	 */
+	public void readState(ByteBuffer buffer) {
+
+		setPortalType(buffer.get() == 0 ? "A" : "B");
+		setColor(getPortalType().equals("A") ? Color.ORANGE : Color.BLUE);
+		centerX = buffer.getDouble();
+		centerY = buffer.getDouble();
+		width = buffer.getDouble();
+		height = buffer.getDouble();
+		velocity = buffer.getDouble();
+		direction = buffer.getDouble();
+		distanceTraveled = buffer.getDouble();
+		placedOnWall = buffer.get() == 1;
+		openingDirection = PortalDirection.fromOrdinal(buffer.get());
+		target.readState(buffer);
+
+		if (target.isHit()) {
+
+			targetPlatform = simulation.getLevel().getPlatformGrid().getPlatform(target.getPlatformIndex());
+
+		} else {
+
+			targetPlatform = null;
+
+		}
+
+	}
+
+	/**
+	 * Gets an AABB which contains the dimensions of the Portal. The same AABB
+	 * is returned(and updated) every time this method is called.
+	 * @return an AABB representation of the Portal
+	 */
+	public AABB getBounds() {
 
-		return new Rectangle(getLeftX(), getTopY(), getWidth(), getHeight());
+		return bounds.set(getLeftX(), getTopY(), getWidth(), getHeight());
 
 	}
 
@@ -476,7 +610,7 @@ public class Portal {
 	 * Gets the direction that the Portal opens to(where the Player exits)
 	 * @return the opening direction
 	 */
-	public String getOpeningDirection() {
+	public PortalDirection getOpeningDirection() {
 		return openingDirection;
 	}
 
@@ -484,7 +618,7 @@ public class Portal {
 	 * Sets the direction of the Portal's opening
 	 * @param openingDirection the new opening direction
 	 */
-	public void setOpeningDirection(String openingDirection) {
+	public void setOpeningDirection(PortalDirection openingDirection) {
 		this.openingDirection = openingDirection;
 	}
 
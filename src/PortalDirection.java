@@ -0,0 +1,107 @@
+
+/**
+ * The direction a placed Portal opens to(the direction the Player exits it in).
+ * UP and DOWN Portals lie flat on a floor or ceiling and are called horizontal
+ * Portals; LEFT and RIGHT Portals stand on a wall and are called vertical Portals.
+ */
+public enum PortalDirection {
+
+	LEFT(false, -1, 0),
+	RIGHT(false, 1, 0),
+	UP(true, 0, -1),
+	DOWN(true, 0, 1);
+
+	private static final PortalDirection[] VALUES = values();
+
+	private final boolean horizontal;
+	private final double normalX;
+	private final double normalY;
+
+	private PortalDirection(boolean horizontal, double normalX, double normalY) {
+
+		this.horizontal = horizontal;
+		this.normalX = normalX;
+		this.normalY = normalY;
+
+	}
+
+	/**
+	 * Gets the PortalDirection with the given ordinal
+	 * @param ordinal the ordinal, or a negative number for no direction
+	 * @return the PortalDirection, or null if the ordinal is negative
+	 */
+	public static PortalDirection fromOrdinal(int ordinal) {
+
+		return ordinal < 0 ? null : VALUES[ordinal];
+
+	}
+
+	/**
+	 * Calculates how far into a Portal opening in this direction an Entity has traveled.
+	 * The distance is the absolute difference between the x/y coordinate of the opening
+	 * side of the Portal and the Entity's respective x/y coordinate farthest past that side.
+	 * For example, for a left-opening Portal the distance between the Portal's left
+	 * x coordinate and the Entity's right x coordinate is calculated.
+	 * @param portal the Portal the Entity is entering
+	 * @param entity the Entity entering the Portal
+	 * @return the distance the Entity has traveled into the Portal, in pixels
+	 */
+	public double getDistanceInto(Portal portal, Entity entity) {
+
+		if (horizontal) {
+
+			return Math.abs(portal.getCenterY() + normalY * portal.getHeight() / 2
+					- (entity.getY() + (1 - normalY) / 2 * entity.getHeight()));
+
+		}
+
+		return Math.abs(portal.getCenterX() + normalX * portal.getWidth() / 2
+				- (entity.getX() + (1 - normalX) / 2 * entity.getWidth()));
+
+	}
+
+	/**
+	 * Calculates how far along the opening of a Portal opening in this direction an
+	 * Entity is, measured from the Portal's left side(horizontal Portals) or top side
+	 * (vertical Portals)
+	 * @param portal the Portal the Entity is entering
+	 * @param entity the Entity entering the Portal
+	 * @return the distance along the Portal's opening, in pixels
+	 */
+	public double getDistanceAlong(Portal portal, Entity entity) {
+
+		if (horizontal) {
+
+			return Math.abs(portal.getLeftX() - entity.getX());
+
+		}
+
+		return Math.abs(portal.getTopY() - entity.getY());
+
+	}
+
+	/**
+	 * Checks if Portals opening in this direction lie flat(open UP or DOWN)
+	 * @return true for UP and DOWN, false for LEFT and RIGHT
+	 */
+	public boolean isHorizontal() {
+		return horizontal;
+	}
+
+	/**
+	 * Gets the x component of the unit vector pointing out of the Portal's opening
+	 * @return the x component
+	 */
+	public double getNormalX() {
+		return normalX;
+	}
+
+	/**
+	 * Gets the y component of the unit vector pointing out of the Portal's opening
+	 * @return the y component
+	 */
+	public double getNormalY() {
+		return normalY;
+	}
+
+}
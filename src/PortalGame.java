@@ -1,4 +1,12 @@
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
 import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.event.EventHandler;
@@ -10,7 +18,6 @@ import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
-import javafx.scene.paint.Color;
 import javafx.stage.Stage;
 
 /*
@@ -41,7 +48,62 @@ public class PortalGame extends Application {
 
 	private GraphicsContext gc;
 	
-	private Player player;
+	// Everything drawn in a frame is queued here first, and drawn sorted by layer and Color
+	private RenderQueue renderQueue = new RenderQueue();
+	
+	// The platforms and goal are drawn once for each Level on a Canvas above the main one.
+	// Once the next Level has been built, they are drawn ahead of time on a second, hidden
+	// Canvas, which is swapped in when that Level is opened.
+	private Canvas staticCanvas;
+	private GraphicsContext staticGc;
+	private Level staticCanvasLevel = null; // the Level drawn on staticCanvas
+	private Canvas nextStaticCanvas;
+	private GraphicsContext nextStaticGc;
+	private Level nextStaticCanvasLevel = null; // the Level drawn on nextStaticCanvas
+	private long staticLayersPreRendered = 0;
+	private long staticLayersDrawnOnOpen = 0;
+	
+	private DirtyRegion dirtyRegion = null; // only set if the game was started with --render=dirty
+	
+	// The pause, level completed, and fail overlays are drawn on a Canvas above the others
+	private Canvas overlayCanvas;
+	private GraphicsContext overlayGc;
+	private GameState overlayState = GameState.PLAYING; // the GameState drawn on overlayCanvas
+	
+	private GameState gameState = GameState.PLAYING;
+	
+	// The frame time HUD is drawn on a Canvas above everything else, and only every few frames
+	private static final int HUD_REFRESH_FRAMES = 15;
+	private FrameStats frameStats = new FrameStats();
+	private Canvas hudCanvas;
+	private GraphicsContext hudGc;
+	private boolean hudVisible = false;
+	private int hudFramesUntilDraw = 0;
+	
+	private Path frameTimesPath = null; // only set if the game was started with --frame-times=<file>
+	
+	// Set if the game was started with --diagnostics, to print its stats when it exits
+	private boolean diagnostics = false;
+	
+	// Published over JMX while the game is running
+	private EngineMetrics engineMetrics = new EngineMetrics();
+	
+	// The time from a restart being asked for to the first frame drawn after it
+	private long restartRequestTime = -1; // System.nanoTime() when it was asked for, or -1 if none is waiting
+	private boolean restartSimulated = false;
+	private int restartFrames = 0; // the frames drawn since it was asked for
+	private long restartCount = 0;
+	private long totalRestartNanos = 0;
+	private long maxRestartNanos = 0;
+	private int maxRestartFrames = 0;
+	
+	private Simulation simulation;
+	
+	private InputFrame input = new InputFrame();
+	
+	private boolean rewindKeyHeld = false;
+	
+	private InputRecorder inputRecorder = null; // only set if the game was started with --record=<file>
 	
 	private LevelManager levelManager;
 	private MenuManager menuManager;
@@ -52,24 +114,56 @@ public class PortalGame extends Application {
 
 	public void init() throws Exception {
 		
-		player = new Player(WIDTH / 2, HEIGHT / 2, 40, 40, Color.AQUA, this);
-		player.setxVelocity(0);
-		player.setyVelocity(0);
+		simulation = new Simulation(WIDTH, HEIGHT);
+		simulation.setRewindBuffer(new RewindBuffer());
 		
-		animator = new AnimationTimer() {
-			@Override
-			public void handle(long arg0) {
-				
-				tickGame();
-				
-			}
-		}; // animator is started by MenuManager
+		animator = new GameLoop(this); // animator is started by MenuManager
 		
 		//animator.start();
 		
 		levelManager = new LevelManager(this);
+		levelManager.setLevelPreloader(new LevelPreloader());
+		
+		String levelPackPath = getParameters().getNamed().get("levels");
+		if (levelPackPath != null) {
+			
+			levelManager.loadLevelPack(new LevelPack(Paths.get(levelPackPath)));
+			
+		}
+		
+		if ("allocations".equals(getParameters().getNamed().get("profile"))) {
+			
+			simulation.setAllocationProfiler(new AllocationProfiler());
+			
+		}
+		
+		if ("dirty".equals(getParameters().getNamed().get("render"))) {
+			
+			dirtyRegion = new DirtyRegion(WIDTH, HEIGHT);
+			
+		}
+		
+		diagnostics = getParameters().getUnnamed().contains("--diagnostics");
+		
+		String frameTimesPath = getParameters().getNamed().get("frame-times");
+		if (frameTimesPath != null) {
+			
+			this.frameTimesPath = Paths.get(frameTimesPath);
+			
+		}
+		
 		menuManager = new MenuManager(this);
 		
+		try {
+			
+			ManagementFactory.getPlatformMBeanServer().registerMBean(engineMetrics, new ObjectName(EngineMetrics.OBJECT_NAME));
+			
+		} catch (JMException e) {
+			
+			System.err.println("Couldn't publish the engine metrics: " + e.getMessage());
+			
+		}
+		
 	}
 
 	public void start(Stage stage) throws Exception {
@@ -77,25 +171,268 @@ public class PortalGame extends Application {
 		setStage(stage);
 		prepareWindow();	
 		
+		String recordPath = getParameters().getNamed().get("record");
+		if (recordPath != null) {
+			
+			inputRecorder = new InputRecorder(Paths.get(recordPath), WIDTH, HEIGHT, getSimulation().getRewindBuffer(),
+					levelManager.getLevelPack());
+			
+			String checksumInterval = getParameters().getNamed().get("checksum-interval");
+			if (checksumInterval != null) {
+				
+				inputRecorder.setChecksumInterval(Integer.parseInt(checksumInterval));
+				
+			}
+			
+		}
+		
 		menuManager.showMainMenu();
 		
 		
 	}
 	
 	/**
-	 * Updates objects involved in the game
+	 * Updates objects involved in the game by one fixed-length tick, then
+	 * stops the Simulation and shows the level completed or fail overlay if
+	 * the level has ended
 	 */
 	public void tickGame() {
 		
 		// NOTE: Game loop
 		
-		gc.clearRect(0, 0, WIDTH, HEIGHT); // clear the screen
-
-		// draw the objects
-		player.update(gc);
+		long tickStart = System.nanoTime();
+		long tickStartAllocatedBytes = engineMetrics.getAllocatedBytes();
+		
+		getInput().setRewindPressed(rewindKeyHeld);
+		
+		if (inputRecorder != null) {
+			
+			try {
+				
+				inputRecorder.recordTick(getInput());
+				
+			} catch (IOException e) {
+				
+				stopRecording(e);
+				
+			}
+			
+		}
 		
-		levelManager.update(gc);
+		if (getInput().isRestartPressed() && restartRequestTime >= 0) {
+			
+			restartSimulated = true;
+			
+		}
 		
+		getSimulation().step(getInput());
+		getInput().clear();
+		
+		if (inputRecorder != null) {
+			
+			try {
+				
+				inputRecorder.recordResult(getSimulation());
+				
+			} catch (IOException e) {
+				
+				stopRecording(e);
+				
+			}
+			
+		}
+		
+		engineMetrics.recordTick(getSimulation(), levelManager.getCurrentLevelIndex(), tickStart, tickStartAllocatedBytes);
+		
+		Level level = getSimulation().getLevel();
+		
+		if (level.isPlayerTouchingGoal()) {
+			
+			setGameState(GameState.LEVEL_COMPLETED);
+			
+		} else if (level.isPlayerTouchingHazard()) {
+			
+			setGameState(GameState.FAILED);
+			
+		}
+		
+	}
+	
+	/**
+	 * Draws the game and the overlay of its GameState. Nothing moves while the game
+	 * isn't being played, so the objects are only drawn once after it stops.
+	 */
+	public void drawGame() {
+		
+		if (gameState != overlayState) {
+			
+			overlayGc.clearRect(0, 0, WIDTH, HEIGHT);
+			menuManager.drawOverlay(overlayGc, gameState);
+			overlayState = gameState;
+			
+		} else if (!gameState.isSimulating()) {
+			
+			return;
+			
+		}
+		
+		drawObjects();
+		
+		if (restartRequestTime >= 0) {
+			
+			restartFrames++;
+			
+			if (restartSimulated) {
+				
+				long latency = System.nanoTime() - restartRequestTime;
+				
+				restartCount++;
+				totalRestartNanos += latency;
+				maxRestartNanos = Math.max(maxRestartNanos, latency);
+				maxRestartFrames = Math.max(maxRestartFrames, restartFrames);
+				
+				restartRequestTime = -1;
+				restartSimulated = false;
+				
+			}
+			
+		}
+		
+	}
+	
+	/**
+	 * Draws the platforms and goal of the next Level on the hidden static Canvas, once
+	 * that Level has been built and if it isn't drawn there already
+	 */
+	private void preRenderNextStaticLayer() {
+		
+		Level nextLevel = levelManager.peekLevel(levelManager.getCurrentLevelIndex() + 1);
+		
+		if (nextLevel == null || nextLevel == nextStaticCanvasLevel) {
+			
+			return;
+			
+		}
+		
+		nextStaticGc.clearRect(0, 0, WIDTH, HEIGHT);
+		nextLevel.drawStaticGeometry(renderQueue);
+		renderQueue.flush(nextStaticGc);
+		nextStaticCanvasLevel = nextLevel;
+		staticLayersPreRendered++;
+		
+	}
+	
+	/**
+	 * Shows the hidden static Canvas, which holds the current Level, in place of the
+	 * one holding the previous Level
+	 */
+	private void swapStaticCanvases() {
+		
+		Canvas canvas = staticCanvas;
+		GraphicsContext gc = staticGc;
+		Level level = staticCanvasLevel;
+		
+		staticCanvas = nextStaticCanvas;
+		staticGc = nextStaticGc;
+		staticCanvasLevel = nextStaticCanvasLevel;
+		
+		nextStaticCanvas = canvas;
+		nextStaticGc = gc;
+		nextStaticCanvasLevel = level;
+		
+		staticCanvas.setVisible(true);
+		nextStaticCanvas.setVisible(false);
+		
+	}
+	
+	/**
+	 * Draws the objects involved in the game. If the game was started with
+	 * --render=dirty, only the parts of the screen where something moved are
+	 * cleared and drawn again.
+	 */
+	private void drawObjects() {
+		
+		// the platforms and goal only need to be drawn again when the Level changes
+		if (levelManager.getCurrentLevel() != staticCanvasLevel) {
+			
+			if (levelManager.getCurrentLevel() == nextStaticCanvasLevel) {
+				
+				swapStaticCanvases();
+				
+			} else {
+				
+				staticGc.clearRect(0, 0, WIDTH, HEIGHT);
+				levelManager.drawCurrentLevelStaticGeometry(renderQueue);
+				renderQueue.flush(staticGc);
+				staticCanvasLevel = levelManager.getCurrentLevel();
+				staticLayersDrawnOnOpen++;
+				
+			}
+			
+			if (dirtyRegion != null) {
+				
+				dirtyRegion.invalidate();
+				
+			}
+			
+		} else {
+			
+			preRenderNextStaticLayer();
+			
+		}
+		
+		// queue the objects
+		getPlayer().draw(renderQueue);
+		getPlayer().drawPortals(renderQueue);
+		
+		levelManager.drawCurrentLevel(renderQueue);
+		
+		if (dirtyRegion == null) {
+			
+			gc.clearRect(0, 0, WIDTH, HEIGHT); // clear the screen
+			renderQueue.flush(gc);
+			return;
+			
+		}
+		
+		dirtyRegion.beginFrame();
+		dirtyRegion.add(renderQueue);
+		dirtyRegion.computeDirtyRectangles();
+		
+		if (dirtyRegion.isFullRedraw()) {
+			
+			gc.clearRect(0, 0, WIDTH, HEIGHT);
+			renderQueue.flush(gc);
+			
+		} else if (dirtyRegion.getDirtyCount() > 0) {
+			
+			// everything is drawn again, but the clip keeps it to the dirty rectangles
+			gc.save();
+			gc.beginPath();
+			
+			for (int i = 0; i < dirtyRegion.getDirtyCount(); i++) {
+				
+				gc.rect(dirtyRegion.getDirtyX(i), dirtyRegion.getDirtyY(i), dirtyRegion.getDirtyWidth(i), dirtyRegion.getDirtyHeight(i));
+				
+			}
+			
+			gc.clip();
+			
+			for (int i = 0; i < dirtyRegion.getDirtyCount(); i++) {
+				
+				gc.clearRect(dirtyRegion.getDirtyX(i), dirtyRegion.getDirtyY(i), dirtyRegion.getDirtyWidth(i), dirtyRegion.getDirtyHeight(i));
+				
+			}
+			
+			renderQueue.flush(gc);
+			
+			gc.restore();
+			
+		} else {
+			
+			renderQueue.clear();
+			
+		}
 		
 	}
 
@@ -190,10 +527,263 @@ public class PortalGame extends Application {
 
 		gc = canvas.getGraphicsContext2D();
 		
+		// The platforms and goal were always drawn over everything else, so their
+		// Canvas goes on top. Mouse events go to the scene, so it doesn't block them.
+		staticCanvas = new Canvas(getStage().getWidth(), getStage().getHeight());
+		staticCanvas.setMouseTransparent(true);
+		
+		root.getChildren().add(staticCanvas);
+		
+		staticGc = staticCanvas.getGraphicsContext2D();
+		
+		nextStaticCanvas = new Canvas(getStage().getWidth(), getStage().getHeight());
+		nextStaticCanvas.setMouseTransparent(true);
+		nextStaticCanvas.setVisible(false);
+		
+		root.getChildren().add(nextStaticCanvas);
+		
+		nextStaticGc = nextStaticCanvas.getGraphicsContext2D();
+		
+		overlayCanvas = new Canvas(getStage().getWidth(), getStage().getHeight());
+		overlayCanvas.setMouseTransparent(true);
+		
+		root.getChildren().add(overlayCanvas);
+		
+		overlayGc = overlayCanvas.getGraphicsContext2D();
+		
+		hudCanvas = new Canvas(getStage().getWidth(), getStage().getHeight());
+		hudCanvas.setMouseTransparent(true);
+		
+		root.getChildren().add(hudCanvas);
+		
+		hudGc = hudCanvas.getGraphicsContext2D();
+		
 		getStage().show();
 		
 	}
 	
+	/**
+	 * Closes the input recording, if there is one, and stops preloading Levels when
+	 * the window is closed. If the game was started with --diagnostics, it prints how
+	 * Levels were loaded and how long restarts and frames took. The frame times are
+	 * written to a CSV file if one was given. The engine metrics are no longer
+	 * published afterwards.
+	 */
+	@Override
+	public void stop() throws Exception {
+		
+		if (inputRecorder != null) {
+			
+			inputRecorder.close();
+			
+		}
+		
+		LevelCache levelCache = levelManager.getLevelCache();
+		LevelPreloader levelPreloader = levelManager.getLevelPreloader();
+		levelPreloader.shutdown();
+		
+		if (diagnostics) {
+			
+			printDiagnostics(levelCache, levelPreloader);
+			
+		}
+		
+		if (simulation.getAllocationProfiler() != null) {
+			
+			simulation.getAllocationProfiler().printReport(System.out);
+			
+		}
+		
+		try {
+			
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(EngineMetrics.OBJECT_NAME));
+			
+		} catch (JMException e) {
+			
+			// it was never published
+			
+		}
+		
+		if (frameTimesPath != null) {
+			
+			try {
+				
+				frameStats.writeCsv(frameTimesPath);
+				
+			} catch (IOException e) {
+				
+				System.err.println("Couldn't write frame times: " + e.getMessage());
+				
+			}
+			
+		}
+		
+	}
+	
+	/**
+	 * Prints how Levels were loaded, how long restarts took, and how long frames took
+	 * @param levelCache the LevelCache of the LevelManager
+	 * @param levelPreloader the LevelPreloader of the LevelManager
+	 */
+	private void printDiagnostics(LevelCache levelCache, LevelPreloader levelPreloader) {
+		
+		System.out.printf("Level cache: %d hits, %d misses; preloader: %d ready, %d waited for, %d discarded; "
+				+ "static layers: %d drawn ahead, %d drawn on open%n", levelCache.getHits(), levelCache.getMisses(),
+				levelPreloader.getReadyHits(), levelPreloader.getWaitingHits(), levelPreloader.getDiscarded(),
+				staticLayersPreRendered, staticLayersDrawnOnOpen);
+		
+		if (restartCount > 0) {
+			
+			System.out.printf("Restarts: %d, %.1f ms average and %.1f ms max to the first frame, at most %d frame(s)%n",
+					restartCount, totalRestartNanos / 1e6 / restartCount, maxRestartNanos / 1e6, maxRestartFrames);
+			
+		}
+		
+		System.out.println(frameStats.getSummary());
+		
+	}
+	
+	/**
+	 * Draws the frame time HUD if it's showing, refreshing it every HUD_REFRESH_FRAMES frames
+	 * so it can be read
+	 */
+	public void drawHud() {
+		
+		if (hudVisible && --hudFramesUntilDraw <= 0) {
+			
+			frameStats.draw(hudGc);
+			hudFramesUntilDraw = HUD_REFRESH_FRAMES;
+			
+		}
+		
+	}
+	
+	/**
+	 * Shows the frame time HUD if it's hidden, or hides it if it's showing
+	 */
+	public void toggleHud() {
+		
+		hudVisible = !hudVisible;
+		hudFramesUntilDraw = 0;
+		
+		if (!hudVisible) {
+			
+			frameStats.clearHud(hudGc);
+			
+		}
+		
+	}
+	
+	/**
+	 * Restarts the current Level on the next tick and goes back to playing it. The
+	 * restart is simulated in the next frame, and the time until that frame is drawn
+	 * is measured.
+	 */
+	public void restartLevel() {
+		
+		getInput().setRestartPressed(true);
+		setGameState(GameState.PLAYING);
+		
+		if (restartRequestTime < 0) {
+			
+			restartRequestTime = System.nanoTime();
+			restartFrames = 0;
+			
+		}
+		
+	}
+	
+	/**
+	 * Records that a Level was loaded, if input is being recorded
+	 * @param levelIndex the index of the Level
+	 */
+	public void recordLevelLoad(int levelIndex) {
+		
+		if (inputRecorder != null) {
+			
+			try {
+				
+				inputRecorder.recordLevelLoad(levelIndex);
+				
+			} catch (IOException e) {
+				
+				stopRecording(e);
+				
+			}
+			
+		}
+		
+	}
+	
+	/**
+	 * Stops recording input after the replay file couldn't be written to, so
+	 * the game can keep running
+	 * @param e the exception thrown while writing
+	 */
+	private void stopRecording(IOException e) {
+		
+		System.err.println("Stopped recording input: " + e.getMessage());
+		inputRecorder = null;
+		
+	}
+	
+	/**
+	 * Gets the GameState, which decides if the Simulation advances
+	 * @return the GameState
+	 */
+	public GameState getGameState() {
+		return gameState;
+	}
+
+	/**
+	 * Sets the GameState. Its overlay is drawn with the next frame.
+	 * @param gameState the new GameState
+	 */
+	public void setGameState(GameState gameState) {
+		this.gameState = gameState;
+	}
+	
+	/**
+	 * Gets the EngineMetrics published over JMX
+	 * @return the EngineMetrics
+	 */
+	public EngineMetrics getEngineMetrics() {
+		return engineMetrics;
+	}
+	
+	/**
+	 * Gets the FrameStats which the GameLoop records the time of each frame in
+	 * @return the FrameStats
+	 */
+	public FrameStats getFrameStats() {
+		return frameStats;
+	}
+	
+	/**
+	 * Gets the number of times a restart has been drawn
+	 * @return the number of restarts
+	 */
+	public long getRestartCount() {
+		return restartCount;
+	}
+	
+	/**
+	 * Gets the longest time from a restart being asked for to the first frame drawn after it
+	 * @return the longest restart latency in nanoseconds
+	 */
+	public long getMaxRestartNanos() {
+		return maxRestartNanos;
+	}
+	
+	/**
+	 * Gets the most frames drawn from a restart being asked for up to and including the
+	 * first frame which showed it
+	 * @return the most frames
+	 */
+	public int getMaxRestartFrames() {
+		return maxRestartFrames;
+	}
+
 	/**
 	 * Gets the LevelManager
 	 * @return the LevelManager
@@ -226,12 +816,28 @@ public class PortalGame extends Application {
 		this.menuManager = menuManager;
 	}
 
+	/**
+	 * Gets the Simulation which runs the game
+	 * @return the Simulation
+	 */
+	public Simulation getSimulation() {
+		return simulation;
+	}
+
+	/**
+	 * Gets the input which will be applied on the next tick
+	 * @return the InputFrame for the next tick
+	 */
+	public InputFrame getInput() {
+		return input;
+	}
+
 	/**
 	 * Gets the Player
 	 * @return the Player
 	 */
 	public Player getPlayer() {
-		return player;
+		return getSimulation().getPlayer();
 	}
 
 	/**
@@ -272,22 +878,20 @@ public class PortalGame extends Application {
 				
 				String code = arg0.getCode().toString().toUpperCase();
 				
-				if (code.equals("W")) {
-					
-					if (getPlayer().isJumpReady() && !getPlayer().isInsidePortal()) {
-						
-						getPlayer().setyVelocity(-4);
-						getPlayer().setJumpReady(false);
-					}
+				// Moving is ignored while the game is paused or over, so it isn't applied afterwards
+				boolean playing = getGameState().isSimulating();
+				
+				if (code.equals("W") && playing) {
 					
+					getInput().setJumpPressed(true);
 					
-				} else if (code.equals("A")) {
+				} else if (code.equals("A") && playing) {
 					
-					player.setxVelocity(player.getxVelocity() - 2);
+					getInput().setLeftPresses(getInput().getLeftPresses() + 1);
 					
-				} else if (code.equals("D")) {
+				} else if (code.equals("D") && playing) {
 					
-					player.setxVelocity(player.getxVelocity() + 2);
+					getInput().setRightPresses(getInput().getRightPresses() + 1);
 					
 				} else if (code.equals("DIGIT1")) {
 					
@@ -296,13 +900,42 @@ public class PortalGame extends Application {
 				
 				if (code.equals("F")) {
 					
-					System.out.println(player);
+					System.out.println(getPlayer());
 					
 				}
 				if (code.equals("P")) {
 					
+					if (getGameState() == GameState.PLAYING) {
+						
+						setGameState(GameState.PAUSED);
+						
+					} else if (getGameState() == GameState.PAUSED) {
+						
+						setGameState(GameState.PLAYING);
+						
+					}
+					
+				}
+				if (code.equals("F3")) {
+					
+					toggleHud();
+					
+				}
+				if (code.equals("ESCAPE")) {
+					
 					menuManager.showMainMenu();
-					//animator.stop();
+					
+				}
+				if (code.equals("L") && !getGameState().isSimulating()) {
+					
+					getAnimator().stop();
+					menuManager.showLevels();
+					
+				}
+				if (code.equals("ENTER") && getGameState() == GameState.LEVEL_COMPLETED
+						&& getLevelManager().getCurrentLevelIndex() + 1 < getLevelManager().getLevelCount()) {
+					
+					getLevelManager().switchLevel(getLevelManager().getCurrentLevelIndex() + 1);
 					
 				}
 				if (code.equals("R")) {
@@ -312,12 +945,24 @@ public class PortalGame extends Application {
 				} 
 				if (code.equals("SPACE")) {
 					
-					getLevelManager().getCurrentLevel().restartLevel();
+					restartLevel();
 					
+				}
+				if (code.equals("Q")) {
+					
+					rewindKeyHeld = true;
+					
+				}
+				
+			} else if (arg0.getEventType() == KeyEvent.KEY_RELEASED) {
+				
+				if (arg0.getCode().toString().toUpperCase().equals("Q")) {
+					
+					rewindKeyHeld = false;
 					
 				}
 				
-			} 
+			}
 		}
 
 	}
@@ -332,29 +977,25 @@ public class PortalGame extends Application {
 
 		public void handle(MouseEvent arg0) {
 			
-			if (arg0.getEventType().equals(MouseEvent.MOUSE_CLICKED)) {
+			if (arg0.getEventType().equals(MouseEvent.MOUSE_CLICKED) && getGameState().isSimulating()) {
 				
 				Point2D clickPoint = new Point2D(arg0.getX(), arg0.getY());
 				
-				double angle = Math.toDegrees(calculateAngleBetween(player.getCenterPoint(), clickPoint));
+				double angle = Math.toDegrees(calculateAngleBetween(getPlayer().getCenterPoint(), clickPoint));
 				
 				if (arg0.getButton() == MouseButton.PRIMARY) {
 
 					// If the left click button is pressed, launch a portal
 					String clickType = "LEFT";
 
-					if (!player.isInsidePortal()) {
-						player.launchPortal(clickType, angle);
-					}
+					getInput().launchPortal(clickType, angle);
 				}
 				if (arg0.getButton() == MouseButton.SECONDARY) {
 
 					// If the right click button is pressed, launch a portal
 					String clickType = "RIGHT";
 
-					if (!player.isInsidePortal()) {
-						player.launchPortal(clickType, angle);
-					}
+					getInput().launchPortal(clickType, angle);
 				}
 			}
 		}
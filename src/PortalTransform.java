@@ -0,0 +1,210 @@
+
+/**
+ * Describes how the Player's position and velocities change when it travels from
+ * a Portal opening in one direction to a Portal opening in another. A PortalTransform
+ * is made once for each of the 16 pairs of PortalDirections, so traveling through a
+ * Portal only needs a table lookup and some multiplication.
+ */
+public class PortalTransform {
+
+	private static final PortalTransform[][] TRANSFORMS = createTransforms();
+
+	// New velocities are xVelocity' = xFromX * xVelocity + xFromY * yVelocity
+	// and yVelocity' = yFromX * xVelocity + yFromY * yVelocity
+	private final double xFromX;
+	private final double xFromY;
+	private final double yFromX;
+	private final double yFromY;
+
+	// The clone's x coordinate is exitPortal.centerX + exitWidthScale * exitPortal.width
+	// + alongScaleX * distanceAlong + intoScaleX * distanceInto + widthScale * player.width
+	// (and likewise for the y coordinate)
+	private final double exitWidthScale;
+	private final double alongScaleX;
+	private final double intoScaleX;
+	private final double widthScale;
+	private final double exitHeightScale;
+	private final double alongScaleY;
+	private final double intoScaleY;
+	private final double heightScale;
+
+	private PortalTransform(PortalDirection enterDirection, PortalDirection exitDirection) {
+
+		// Velocities
+		if (enterDirection == exitDirection) {
+
+			// Entering and exiting the same kind of Portal reverses the velocity
+			// running through the Portal
+			xFromX = enterDirection.isHorizontal() ? 1 : -1;
+			yFromY = enterDirection.isHorizontal() ? -1 : 1;
+			xFromY = 0;
+			yFromX = 0;
+
+		} else if (enterDirection.isHorizontal() == exitDirection.isHorizontal()) {
+
+			// ex. If the player enters a right-opening Portal and exits a
+			// left-opening Portal, the player's velocities do not need to be changed.
+			xFromX = 1;
+			yFromY = 1;
+			xFromY = 0;
+			yFromX = 0;
+
+		} else {
+
+			// If the Player enters a horizontal Portal and exits through a vertical Portal,
+			// or if the Player enters a vertical Portal and exits a horizontal Portal,
+			// the velocities are swapped(and one is reversed unless it is a LEFT/DOWN or RIGHT/UP pair)
+			boolean simpleSwap = isPair(enterDirection, exitDirection, PortalDirection.LEFT, PortalDirection.DOWN)
+					|| isPair(enterDirection, exitDirection, PortalDirection.RIGHT, PortalDirection.UP);
+
+			xFromX = 0;
+			yFromY = 0;
+
+			if (simpleSwap) {
+
+				xFromY = 1;
+				yFromX = 1;
+
+			} else if (!enterDirection.isHorizontal()) {
+
+				xFromY = 1;
+				yFromX = -1;
+
+			} else {
+
+				xFromY = -1;
+				yFromX = 1;
+
+			}
+
+		}
+
+		// Clone position, which only depends on the exit Portal
+		if (exitDirection.isHorizontal()) {
+
+			// The clone sits above(UP) or below(DOWN) the exit Portal, as far from its
+			// left side as the Player is from the enter Portal's side
+			exitWidthScale = -0.5;
+			alongScaleX = 1;
+			intoScaleX = 0;
+			widthScale = 0;
+			exitHeightScale = exitDirection.getNormalY() * 0.5;
+			alongScaleY = 0;
+			intoScaleY = exitDirection.getNormalY();
+			heightScale = exitDirection == PortalDirection.DOWN ? -1 : 0;
+
+		} else {
+
+			exitWidthScale = exitDirection.getNormalX() * 0.5;
+			alongScaleX = 0;
+			intoScaleX = exitDirection.getNormalX();
+			widthScale = exitDirection == PortalDirection.RIGHT ? -1 : 0;
+			exitHeightScale = -0.5;
+			alongScaleY = 1;
+			intoScaleY = 0;
+			heightScale = 0;
+
+		}
+
+	}
+
+	/**
+	 * Creates the table of PortalTransforms, indexed by the ordinals of the
+	 * enter and exit PortalDirections
+	 * @return the table
+	 */
+	private static PortalTransform[][] createTransforms() {
+
+		PortalDirection[] directions = PortalDirection.values();
+		PortalTransform[][] transforms = new PortalTransform[directions.length][directions.length];
+
+		for (PortalDirection enterDirection : directions) {
+
+			for (PortalDirection exitDirection : directions) {
+
+				transforms[enterDirection.ordinal()][exitDirection.ordinal()] =
+						new PortalTransform(enterDirection, exitDirection);
+
+			}
+
+		}
+
+		return transforms;
+
+	}
+
+	private static boolean isPair(PortalDirection direction1, PortalDirection direction2,
+			PortalDirection pairDirection1, PortalDirection pairDirection2) {
+
+		return (direction1 == pairDirection1 && direction2 == pairDirection2)
+				|| (direction1 == pairDirection2 && direction2 == pairDirection1);
+
+	}
+
+	/**
+	 * Gets the PortalTransform for traveling between Portals opening in the given directions
+	 * @param enterDirection the opening direction of the Portal being entered
+	 * @param exitDirection the opening direction of the Portal being exited
+	 * @return the PortalTransform
+	 */
+	public static PortalTransform get(PortalDirection enterDirection, PortalDirection exitDirection) {
+
+		return TRANSFORMS[enterDirection.ordinal()][exitDirection.ordinal()];
+
+	}
+
+	/**
+	 * Calculates the x velocity after traveling through the Portals
+	 * @param xVelocity the x velocity before
+	 * @param yVelocity the y velocity before
+	 * @return the new x velocity
+	 */
+	public double transformXVelocity(double xVelocity, double yVelocity) {
+
+		return xFromX * xVelocity + xFromY * yVelocity;
+
+	}
+
+	/**
+	 * Calculates the y velocity after traveling through the Portals
+	 * @param xVelocity the x velocity before
+	 * @param yVelocity the y velocity before
+	 * @return the new y velocity
+	 */
+	public double transformYVelocity(double xVelocity, double yVelocity) {
+
+		return yFromX * xVelocity + yFromY * yVelocity;
+
+	}
+
+	/**
+	 * Calculates the left x coordinate of the clone coming out of the exit Portal
+	 * @param exitPortal the Portal being exited
+	 * @param distanceAlong how far along the enter Portal's opening the Player is
+	 * @param distanceInto how far into the enter Portal the Player has traveled
+	 * @param width the width of the Player
+	 * @return the left x coordinate of the clone
+	 */
+	public double getCloneX(Portal exitPortal, double distanceAlong, double distanceInto, double width) {
+
+		return exitPortal.getCenterX() + exitWidthScale * exitPortal.getWidth()
+				+ alongScaleX * distanceAlong + intoScaleX * distanceInto + widthScale * width;
+
+	}
+
+	/**
+	 * Calculates the top y coordinate of the clone coming out of the exit Portal
+	 * @param exitPortal the Portal being exited
+	 * @param distanceAlong how far along the enter Portal's opening the Player is
+	 * @param distanceInto how far into the enter Portal the Player has traveled
+	 * @param height the height of the Player
+	 * @return the top y coordinate of the clone
+	 */
+	public double getCloneY(Portal exitPortal, double distanceAlong, double distanceInto, double height) {
+
+		return exitPortal.getCenterY() + exitHeightScale * exitPortal.getHeight()
+				+ alongScaleY * distanceAlong + intoScaleY * distanceInto + heightScale * height;
+
+	}
+
+}
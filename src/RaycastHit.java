@@ -0,0 +1,135 @@
+import java.nio.ByteBuffer;
+
+/**
+ * The result of casting a ray against the platforms of a PlatformGrid: the platform
+ * that was hit, the point where it was hit, and the side of the platform it was hit on
+ */
+public class RaycastHit {
+
+	private boolean hit = false;
+	private int platformIndex = -1;
+	private double distance;
+	private double x;
+	private double y;
+	private PortalDirection openingDirection = null;
+
+	// The number of bytes writeState writes
+	public static final int STATE_SIZE = 1 + 4 + 3 * 8 + 1;
+
+	public RaycastHit() {}
+
+	/**
+	 * Removes the stored hit
+	 */
+	public void clear() {
+
+		hit = false;
+		platformIndex = -1;
+		distance = 0;
+		x = 0;
+		y = 0;
+		openingDirection = null;
+
+	}
+
+	/**
+	 * Stores a hit
+	 * @param platformIndex the index of the platform that was hit
+	 * @param distance the distance along the ray to the hit
+	 * @param originX the x coordinate the ray started at
+	 * @param originY the y coordinate the ray started at
+	 * @param directionX the x component of the ray's direction
+	 * @param directionY the y component of the ray's direction
+	 * @param openingDirection the direction a Portal on the side that was hit would open to
+	 */
+	public void set(int platformIndex, double distance, double originX, double originY,
+			double directionX, double directionY, PortalDirection openingDirection) {
+
+		this.hit = true;
+		this.platformIndex = platformIndex;
+		this.distance = distance;
+		this.x = originX + directionX * distance;
+		this.y = originY + directionY * distance;
+		this.openingDirection = openingDirection;
+
+	}
+
+	/**
+	 * Writes the stored hit to a buffer
+	 * @param buffer the buffer to write to
+	 */
+	public void writeState(ByteBuffer buffer) {
+
+		buffer.put((byte) (hit ? 1 : 0));
+		buffer.putInt(platformIndex);
+		buffer.putDouble(distance);
+		buffer.putDouble(x);
+		buffer.putDouble(y);
+		buffer.put((byte) (openingDirection == null ? -1 : openingDirection.ordinal()));
+
+	}
+
+	/**
+	 * Reads a hit written by writeState from a buffer
+	 * @param buffer the buffer to read from
+	 */
+	public void readState(ByteBuffer buffer) {
+
+		hit = buffer.get() == 1;
+		platformIndex = buffer.getInt();
+		distance = buffer.getDouble();
+		x = buffer.getDouble();
+		y = buffer.getDouble();
+		openingDirection = PortalDirection.fromOrdinal(buffer.get());
+
+	}
+
+	/**
+	 * Checks if the ray hit a platform
+	 * @return true if a platform was hit, false otherwise
+	 */
+	public boolean isHit() {
+		return hit;
+	}
+
+	/**
+	 * Gets the index of the platform that was hit
+	 * @return the platform index
+	 */
+	public int getPlatformIndex() {
+		return platformIndex;
+	}
+
+	/**
+	 * Gets the distance along the ray to the hit
+	 * @return the distance
+	 */
+	public double getDistance() {
+		return distance;
+	}
+
+	/**
+	 * Gets the x coordinate of the hit
+	 * @return the x coordinate
+	 */
+	public double getX() {
+		return x;
+	}
+
+	/**
+	 * Gets the y coordinate of the hit
+	 * @return the y coordinate
+	 */
+	public double getY() {
+		return y;
+	}
+
+	/**
+	 * Gets the direction a Portal on the side that was hit would open to
+	 * @return LEFT, RIGHT, UP, or DOWN, or null if the ray started inside the platform
+	 */
+	public PortalDirection getOpeningDirection() {
+		return openingDirection;
+	}
+
+}
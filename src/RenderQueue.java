@@ -0,0 +1,407 @@
+import java.util.Arrays;
+import java.util.HashMap;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Paint;
+
+/**
+ * Gathers the shapes drawn in a frame so they can be drawn together. When the queue
+ * is flushed, the shapes are sorted by layer and then by fill, so each run of shapes
+ * with the same fill is drawn after a single setFill. Only the fill of the
+ * GraphicsContext is changed, so it's put back afterwards instead of saving and
+ * restoring the whole GraphicsContext, which allocates a copy of its state.
+ *
+ * Layers are drawn from the lowest to the highest, so a shape is always drawn over the
+ * shapes of lower layers. Within a layer, shapes with the same fill keep the order they
+ * were queued in, but shapes with different fills can be drawn in any order, so shapes
+ * that overlap and should be drawn in order need different layers.
+ */
+public class RenderQueue {
+
+	// The layers of the moving objects
+	public static final int ENTITY_LAYER = 0;
+	public static final int PORTAL_LAYER = 1;
+	public static final int HAZARD_LAYER = 2;
+
+	// The layers of the parts of a Level which don't move
+	public static final int GOAL_LAYER = 3;
+	public static final int PLATFORM_LAYER = 4;
+
+	public static final int RECTANGLE = 0;
+	public static final int OVAL = 1;
+
+	// Fills are numbered the first time they're seen. Once there are more than this
+	// many numbered fills, the numbering starts over when the queue is next emptied,
+	// so it can't grow forever.
+	private static final int MAX_FILL_IDS = 1 << 16;
+
+	private static final int RECENT_FILLS = 64; // a power of two
+
+	private int size = 0;
+	private double[] x = new double[64];
+	private double[] y = new double[64];
+	private double[] width = new double[64];
+	private double[] height = new double[64];
+	private byte[] shape = new byte[64];
+	private byte[] layer = new byte[64];
+	private Paint[] fill = new Paint[64];
+	private int[] fillId = new int[64];
+
+	// The queue indices of the shapes in drawing order, and the number of shapes in each
+	// layer and fill, used to sort them with a counting sort
+	private int[] drawOrder = new int[64];
+	private int[] bucketStarts = new int[256];
+	private int maxLayer = 0;
+
+	// Shapes are usually queued in drawing order already, in which case they aren't sorted
+	private boolean inOrder = true;
+
+	private HashMap<Paint, Integer> fillIds = new HashMap<>();
+
+	// The ids of recently seen Paint instances, so a few fills which take turns don't
+	// need a lookup in fillIds for every shape
+	private Paint[] recentFills = new Paint[RECENT_FILLS];
+	private int[] recentFillIds = new int[RECENT_FILLS];
+
+	private int lastCommandCount = 0;
+	private int lastFillChanges = 0;
+
+	/**
+	 * Queues a filled rectangle
+	 * @param layer the layer to draw it in
+	 * @param fill the Paint to fill it with
+	 * @param x the left x coordinate of the rectangle
+	 * @param y the top y coordinate of the rectangle
+	 * @param width the width of the rectangle
+	 * @param height the height of the rectangle
+	 */
+	public void fillRect(int layer, Paint fill, double x, double y, double width, double height) {
+
+		add(RECTANGLE, layer, fill, x, y, width, height);
+
+	}
+
+	/**
+	 * Queues a run of filled rectangles stored in columns, such as the Hazards of a HazardStore
+	 * @param layer the layer to draw them in
+	 * @param fill the Paint to fill each rectangle with
+	 * @param x the left x coordinate of each rectangle
+	 * @param y the top y coordinate of each rectangle
+	 * @param width the width of each rectangle
+	 * @param height the height of each rectangle
+	 * @param count the number of rectangles, starting from the first of each column
+	 */
+	public void fillRects(int layer, Paint[] fill, double[] x, double[] y, double[] width, double[] height, int count) {
+
+		while (size + count > this.x.length) {
+
+			grow();
+
+		}
+
+		System.arraycopy(x, 0, this.x, size, count);
+		System.arraycopy(y, 0, this.y, size, count);
+		System.arraycopy(width, 0, this.width, size, count);
+		System.arraycopy(height, 0, this.height, size, count);
+		System.arraycopy(fill, 0, this.fill, size, count);
+		Arrays.fill(this.shape, size, size + count, (byte) RECTANGLE);
+		Arrays.fill(this.layer, size, size + count, (byte) layer);
+
+		for (int i = size; i < size + count; i++) {
+
+			setFillId(i);
+
+		}
+
+		size += count;
+
+	}
+
+	/**
+	 * Queues a filled oval
+	 * @param layer the layer to draw it in
+	 * @param fill the Paint to fill it with
+	 * @param x the left x coordinate of the oval's bounds
+	 * @param y the top y coordinate of the oval's bounds
+	 * @param width the width of the oval
+	 * @param height the height of the oval
+	 */
+	public void fillOval(int layer, Paint fill, double x, double y, double width, double height) {
+
+		add(OVAL, layer, fill, x, y, width, height);
+
+	}
+
+	private void add(int shape, int layer, Paint fill, double x, double y, double width, double height) {
+
+		if (size == this.x.length) {
+
+			grow();
+
+		}
+
+		this.x[size] = x;
+		this.y[size] = y;
+		this.width[size] = width;
+		this.height[size] = height;
+		this.shape[size] = (byte) shape;
+		this.layer[size] = (byte) layer;
+		this.fill[size] = fill;
+
+		setFillId(size);
+
+		size++;
+
+	}
+
+	/**
+	 * Numbers the fill of a queued shape, and checks if it's still in drawing order
+	 * @param i the index of the shape
+	 */
+	private void setFillId(int i) {
+
+		// Shapes are usually queued in runs with the same fill, so the lookup is often skipped
+		if (i > 0 && (fill[i - 1] == fill[i] || fill[i] != null && fill[i].equals(fill[i - 1]))) {
+
+			fillId[i] = fillId[i - 1];
+
+		} else {
+
+			fillId[i] = getFillId(fill[i]);
+
+		}
+
+		maxLayer = Math.max(maxLayer, layer[i]);
+
+		if (i > 0 && (layer[i] < layer[i - 1] || layer[i] == layer[i - 1] && fillId[i] < fillId[i - 1])) {
+
+			inOrder = false;
+
+		}
+
+	}
+
+	private int getFillId(Paint fill) {
+
+		int slot = System.identityHashCode(fill) & (RECENT_FILLS - 1);
+
+		if (recentFills[slot] == fill && fill != null) {
+
+			return recentFillIds[slot];
+
+		}
+
+		Integer id = fillIds.get(fill);
+
+		if (id == null) {
+
+			id = fillIds.size();
+			fillIds.put(fill, id);
+
+		}
+
+		recentFills[slot] = fill;
+		recentFillIds[slot] = id;
+
+		return id;
+
+	}
+
+	private void grow() {
+
+		int capacity = x.length * 2;
+
+		x = Arrays.copyOf(x, capacity);
+		y = Arrays.copyOf(y, capacity);
+		width = Arrays.copyOf(width, capacity);
+		height = Arrays.copyOf(height, capacity);
+		shape = Arrays.copyOf(shape, capacity);
+		layer = Arrays.copyOf(layer, capacity);
+		fill = Arrays.copyOf(fill, capacity);
+		fillId = Arrays.copyOf(fillId, capacity);
+		drawOrder = Arrays.copyOf(drawOrder, capacity);
+
+	}
+
+	/**
+	 * Draws every queued shape, sorted by layer and fill, and empties the queue
+	 * @param gc the GraphicsContext of the Canvas to draw the shapes on
+	 */
+	public void flush(GraphicsContext gc) {
+
+		if (!inOrder) {
+
+			sort();
+
+		}
+
+		int commands = 0;
+		int fillChanges = 0;
+		int currentFillId = -1;
+
+		Paint previousFill = gc.getFill();
+
+		for (int k = 0; k < size; k++) {
+
+			int i = inOrder ? k : drawOrder[k];
+
+			if (fillId[i] != currentFillId) {
+
+				gc.setFill(fill[i]);
+				currentFillId = fillId[i];
+				fillChanges++;
+				commands++;
+
+			}
+
+			if (shape[i] == RECTANGLE) {
+
+				gc.fillRect(x[i], y[i], width[i], height[i]);
+
+			} else {
+
+				gc.fillOval(x[i], y[i], width[i], height[i]);
+
+			}
+
+			commands++;
+
+		}
+
+		gc.setFill(previousFill);
+
+		lastCommandCount = commands;
+		lastFillChanges = fillChanges;
+
+		clear();
+
+	}
+
+	/**
+	 * Sorts the shapes by layer and fill into drawOrder. There are only a few layers and
+	 * fills, so each shape is counted into a bucket for its layer and fill, which keeps
+	 * the shapes of each bucket in the order they were queued.
+	 */
+	private void sort() {
+
+		int fills = fillIds.size();
+		int buckets = (maxLayer + 1) * fills;
+
+		if (bucketStarts.length < buckets + 1) {
+
+			bucketStarts = new int[Math.max(buckets + 1, bucketStarts.length * 2)];
+
+		} else {
+
+			Arrays.fill(bucketStarts, 0, buckets + 1, 0);
+
+		}
+
+		for (int i = 0; i < size; i++) {
+
+			bucketStarts[layer[i] * fills + fillId[i] + 1]++;
+
+		}
+		for (int b = 1; b <= buckets; b++) {
+
+			bucketStarts[b] += bucketStarts[b - 1];
+
+		}
+		for (int i = 0; i < size; i++) {
+
+			drawOrder[bucketStarts[layer[i] * fills + fillId[i]]++] = i;
+
+		}
+
+	}
+
+	/**
+	 * Empties the queue without drawing anything
+	 */
+	public void clear() {
+
+		Arrays.fill(fill, 0, size, null);
+		size = 0;
+		inOrder = true;
+		maxLayer = 0;
+
+		if (fillIds.size() > MAX_FILL_IDS) {
+
+			fillIds.clear();
+			Arrays.fill(recentFills, null);
+
+		}
+
+	}
+
+	/**
+	 * Gets the number of queued shapes
+	 * @return the number of shapes
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the left x coordinate of a queued shape's bounds
+	 * @param i the index of the shape, in the order it was queued
+	 * @return the left x coordinate
+	 */
+	public double getX(int i) {
+		return x[i];
+	}
+
+	/**
+	 * Gets the top y coordinate of a queued shape's bounds
+	 * @param i the index of the shape, in the order it was queued
+	 * @return the top y coordinate
+	 */
+	public double getY(int i) {
+		return y[i];
+	}
+
+	/**
+	 * Gets the width of a queued shape
+	 * @param i the index of the shape, in the order it was queued
+	 * @return the width
+	 */
+	public double getWidth(int i) {
+		return width[i];
+	}
+
+	/**
+	 * Gets the height of a queued shape
+	 * @param i the index of the shape, in the order it was queued
+	 * @return the height
+	 */
+	public double getHeight(int i) {
+		return height[i];
+	}
+
+	/**
+	 * Gets the Paint a queued shape is filled with
+	 * @param i the index of the shape, in the order it was queued
+	 * @return the Paint
+	 */
+	public Paint getFill(int i) {
+		return fill[i];
+	}
+
+	/**
+	 * Gets the number of fills and fill changes the last flush made, not counting
+	 * putting back the fill the GraphicsContext had before
+	 * @return the number of calls
+	 */
+	public int getLastCommandCount() {
+		return lastCommandCount;
+	}
+
+	/**
+	 * Gets the number of times the last flush changed the fill
+	 * @return the number of fill changes
+	 */
+	public int getLastFillChanges() {
+		return lastFillChanges;
+	}
+
+}
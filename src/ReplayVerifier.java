@@ -0,0 +1,269 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Plays every replay file(*.rpl) in a directory without a window, spread over all
+ * cores, and reports the replays which no longer play the same way they were
+ * recorded: the tick their state first stopped matching, the goals they no longer
+ * reach, and the Hazards they now hit. Each replay is played in its own Simulation.
+ *
+ * Replays are played with the built in Levels, or with the Levels of a level pack
+ * given with --levels=&lt;pack file&gt;. A replay recorded with other Levels fails.
+ *
+ * Usage: ReplayVerifier [--levels=&lt;pack file&gt;] &lt;replay directory&gt; [threads]
+ * The exit code is 0 if every replay passed, 1 if any failed, and 2 for bad arguments.
+ */
+public class ReplayVerifier {
+
+	public static final String REPLAY_EXTENSION = ".rpl";
+
+	public static void main(String[] args) throws Exception {
+
+		LevelPack levelPack = null;
+		int firstArg = 0;
+
+		if (args.length > 0 && args[0].startsWith("--levels=")) {
+
+			levelPack = new LevelPack(Paths.get(args[0].substring("--levels=".length())));
+			firstArg = 1;
+
+		}
+
+		if (args.length < firstArg + 1) {
+
+			System.err.println("Usage: ReplayVerifier [--levels=<pack file>] <replay directory> [threads]");
+			System.exit(2);
+
+		}
+
+		Path directory = Paths.get(args[firstArg]);
+		int threads = args.length > firstArg + 1 ? Integer.parseInt(args[firstArg + 1])
+				: Runtime.getRuntime().availableProcessors();
+
+		List<Path> replays;
+		try (Stream<Path> files = Files.list(directory)) {
+
+			replays = files.filter(path -> path.toString().endsWith(REPLAY_EXTENSION)).sorted()
+					.collect(Collectors.toList());
+
+		}
+
+		long start = System.nanoTime();
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Future<Result>> futures = new ArrayList<>();
+
+		LevelPack levels = levelPack;
+		for (Path replay : replays) {
+
+			futures.add(pool.submit(() -> verify(replay, levels)));
+
+		}
+
+		int failed = 0;
+		long totalTicks = 0;
+
+		// Results are printed in file order as they finish
+		for (Future<Result> future : futures) {
+
+			Result result = future.get();
+			System.out.println(result);
+
+			totalTicks += result.getTicks();
+			if (!result.isPassed()) {
+
+				failed++;
+
+			}
+
+		}
+
+		pool.shutdown();
+
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%d replays, %d failed, %d ticks in %.2f s (%.0f ticks/s on %d threads)%n",
+				replays.size(), failed, totalTicks, seconds, totalTicks / seconds, threads);
+
+		System.exit(failed > 0 ? 1 : 0);
+
+	}
+
+	/**
+	 * Plays a replay file in a new Simulation and compares it to the recording
+	 * @param replay the replay file
+	 * @param levelPack the level pack to play the replay with, or null for the built in Levels
+	 * @return the Result of playing the replay
+	 */
+	public static Result verify(Path replay, LevelPack levelPack) {
+
+		Result result = new Result(replay);
+		long start = System.nanoTime();
+
+		try (InputPlayer player = new InputPlayer(replay)) {
+
+			Simulation simulation = new Simulation(player.getWidth(), player.getHeight());
+			simulation.setRewindBuffer(player.createRewindBuffer());
+			LevelManager levelManager = new LevelManager(simulation);
+
+			player.checkLevelPack(levelPack);
+			if (levelPack != null) {
+
+				levelManager.loadLevelPack(levelPack);
+
+			}
+
+			result.ticks = player.playToEnd(simulation, levelManager);
+			result.divergedTick = player.getDivergedTick();
+
+			for (Long tick : player.getRecordedGoalTicks()) {
+
+				if (!player.getPlayedGoalTicks().contains(tick)) {
+
+					result.lostGoalTicks.add(tick);
+
+				}
+
+			}
+
+			for (Long tick : player.getPlayedHazardTicks()) {
+
+				if (!player.getRecordedHazardTicks().contains(tick)) {
+
+					result.newHazardTicks.add(tick);
+
+				}
+
+			}
+
+		} catch (IOException | RuntimeException e) {
+
+			result.error = e.toString();
+
+		}
+
+		result.nanos = System.nanoTime() - start;
+
+		return result;
+
+	}
+
+	/**
+	 * The result of playing one replay file
+	 */
+	public static class Result {
+
+		private Path replay;
+		private long ticks = 0;
+		private long nanos = 0;
+		private long divergedTick = -1;
+		private List<Long> lostGoalTicks = new ArrayList<>();
+		private List<Long> newHazardTicks = new ArrayList<>();
+		private String error = null;
+
+		Result(Path replay) {
+
+			this.replay = replay;
+
+		}
+
+		/**
+		 * Checks if the replay played the same way it was recorded
+		 * @return true if the replay passed, false otherwise
+		 */
+		public boolean isPassed() {
+
+			return error == null && divergedTick < 0 && lostGoalTicks.isEmpty() && newHazardTicks.isEmpty();
+
+		}
+
+		@Override
+		public String toString() {
+
+			String summary = String.format("%s %s (%d ticks, %.1f ms)", isPassed() ? "PASS" : "FAIL",
+					replay.getFileName(), ticks, nanos / 1e6);
+
+			if (error != null) {
+
+				summary += "\n    error: " + error;
+
+			}
+			if (divergedTick >= 0) {
+
+				summary += "\n    diverged at tick " + divergedTick;
+
+			}
+			if (!lostGoalTicks.isEmpty()) {
+
+				summary += "\n    no longer reaches the goal at tick(s) " + lostGoalTicks;
+
+			}
+			if (!newHazardTicks.isEmpty()) {
+
+				summary += "\n    now hits a Hazard at tick(s) " + newHazardTicks;
+
+			}
+
+			return summary;
+
+		}
+
+		/**
+		 * Gets the replay file
+		 * @return the path of the replay file
+		 */
+		public Path getReplay() {
+			return replay;
+		}
+
+		/**
+		 * Gets the number of ticks played
+		 * @return the number of ticks
+		 */
+		public long getTicks() {
+			return ticks;
+		}
+
+		/**
+		 * Gets the first tick whose state didn't match the recording
+		 * @return the tick, or -1 if the replay never diverged
+		 */
+		public long getDivergedTick() {
+			return divergedTick;
+		}
+
+		/**
+		 * Gets the recorded ticks on which the Player reached the goal, but no longer does
+		 * @return the ticks
+		 */
+		public List<Long> getLostGoalTicks() {
+			return lostGoalTicks;
+		}
+
+		/**
+		 * Gets the ticks on which the Player now hits a Hazard, but didn't in the recording
+		 * @return the ticks
+		 */
+		public List<Long> getNewHazardTicks() {
+			return newHazardTicks;
+		}
+
+		/**
+		 * Gets the error which stopped the replay from being played
+		 * @return the error, or null if there wasn't one
+		 */
+		public String getError() {
+			return error;
+		}
+
+	}
+
+}
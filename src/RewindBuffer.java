@@ -0,0 +1,486 @@
+import java.util.Arrays;
+
+/**
+ * Keeps the recent history of a Simulation so that it can be rewound one tick at a
+ * time. The newest state is kept whole, and every older tick is stored as the
+ * difference(XOR) between its state and the state of the tick after it, so walking
+ * backwards only needs the newest state and the differences. Between two ticks most
+ * bytes of a state don't change, so the zero bytes of each difference are run-length
+ * encoded. The differences are stored in a ring buffer of a fixed number of bytes;
+ * when it is full, or there are more than maxTicks of them, the oldest are dropped.
+ * After the first few ticks no new objects are created while recording or rewinding.
+ *
+ * Everything the RewindBuffer holds fits in its capacity: the newest state, the
+ * buffers used to capture states and encode differences, and the ring buffer, which
+ * gets what is left. To leave most of it to the ring buffer, a state can take at most
+ * 1/STATE_SHARE of the capacity. Rewinding is turned off for a Level whose state is
+ * bigger than that, and turned back on when the next Level is loaded.
+ */
+public class RewindBuffer {
+
+	// 10 seconds of ticks, using at most 2 MB
+	public static final int DEFAULT_CAPACITY_BYTES = 2 * 1024 * 1024;
+	public static final int DEFAULT_MAX_TICKS = 600;
+
+	// The bytes before and after each record which store the record's length
+	private static final int RECORD_OVERHEAD = 8;
+
+	// The largest state is this fraction of the capacity
+	public static final int STATE_SHARE = 32;
+
+	private int capacityBytes;
+	private int maxStateBytes;
+
+	private byte[] ring;
+	private int maxTicks;
+
+	// Set when the current Level's state is too big to record
+	private boolean stateTooBig = false;
+
+	// The oldest record starts at tail, and the next record will be written at head
+	private int head = 0;
+	private int tail = 0;
+	private int usedBytes = 0;
+	private int recordCount = 0;
+
+	// The newest state
+	private byte[] current = new byte[0];
+	private int currentLength = 0;
+	private boolean hasCurrent = false;
+
+	// Reused to capture and restore states and to encode records
+	private SimulationSnapshot snapshot = new SimulationSnapshot();
+	private byte[] record = new byte[0];
+	private int recordPosition;
+
+	public RewindBuffer() {
+
+		this(DEFAULT_CAPACITY_BYTES, DEFAULT_MAX_TICKS);
+
+	}
+
+	/**
+	 * Creates a RewindBuffer which uses a fixed amount of memory for its history
+	 * @param capacityBytes the most bytes the RewindBuffer uses, including the newest state
+	 * and the buffers for capturing and encoding states
+	 * @param maxTicks the largest number of ticks that can be rewound
+	 */
+	public RewindBuffer(int capacityBytes, int maxTicks) {
+
+		this.capacityBytes = capacityBytes;
+		this.maxTicks = maxTicks;
+
+		maxStateBytes = capacityBytes / STATE_SHARE;
+
+		// The newest state, the captured state, and a record take up to 5 states
+		ring = new byte[Math.max(0, capacityBytes - 5 * maxStateBytes - 16)];
+
+	}
+
+	/**
+	 * Removes the history and the newest state. This should be done when a new
+	 * Level is loaded, since states from another Level can't be restored.
+	 */
+	public void clear() {
+
+		head = 0;
+		tail = 0;
+		usedBytes = 0;
+		recordCount = 0;
+		currentLength = 0;
+		hasCurrent = false;
+		stateTooBig = false;
+
+	}
+
+	/**
+	 * Records the current state of a Simulation as the newest tick of the history.
+	 * Nothing is recorded if the state of its Level is too big.
+	 * @param simulation the Simulation to record
+	 */
+	public void record(Simulation simulation) {
+
+		if (stateTooBig) {
+
+			return;
+
+		}
+
+		int stateSize = Player.MAX_STATE_SIZE + simulation.getLevel().getStateSize();
+
+		if (stateSize > maxStateBytes) {
+
+			System.err.printf("Rewinding is off for this Level: its state takes %d bytes, but a %d byte RewindBuffer "
+					+ "only has room for states of up to %d bytes%n", stateSize, capacityBytes, maxStateBytes);
+
+			clear();
+			stateTooBig = true;
+			return;
+
+		}
+
+		snapshot.capture(simulation);
+
+		byte[] state = snapshot.getBuffer().array();
+		int stateLength = snapshot.size();
+
+		if (hasCurrent) {
+
+			int recordLength = encodeDifference(state, stateLength);
+			push(recordLength);
+
+		}
+
+		if (current.length < stateLength) {
+
+			current = new byte[stateLength];
+
+		}
+
+		System.arraycopy(state, 0, current, 0, stateLength);
+		currentLength = stateLength;
+		hasCurrent = true;
+
+	}
+
+	/**
+	 * Rewinds a Simulation by one tick, setting its state to the tick
+	 * before the newest one and removing the newest one from the history
+	 * @param simulation the Simulation to rewind
+	 * @return true if the Simulation was rewound, false if the history is empty
+	 */
+	public boolean rewind(Simulation simulation) {
+
+		if (recordCount == 0) {
+
+			return false;
+
+		}
+
+		int recordLength = pop();
+		applyDifference(recordLength);
+
+		snapshot.load(current, currentLength);
+		snapshot.restore(simulation);
+
+		return true;
+
+	}
+
+	/**
+	 * Encodes the difference between the newest state and a new state into record. The
+	 * record starts with the newest state's length, followed by runs of zero bytes
+	 * (given by their length) and runs of non-zero bytes(given by their length and then
+	 * the bytes). If the states have different lengths, the shorter one is treated as
+	 * if it ended with zeros.
+	 * @param state the new state
+	 * @param stateLength the length of the new state
+	 * @return the length of the record
+	 */
+	private int encodeDifference(byte[] state, int stateLength) {
+
+		int length = Math.max(currentLength, stateLength);
+
+		// The worst case is one run of non-zero bytes for every two bytes of state. A run's
+		// length takes one byte for every 7 bits, which is never more than 1 + length / 127
+		// bytes, so all the lengths together take at most length + 4 bytes.
+		int maxRecordLength = 3 * length + 16;
+		if (record.length < maxRecordLength) {
+
+			record = new byte[maxRecordLength];
+
+		}
+
+		int position = writeVarInt(record, 0, currentLength);
+		int i = 0;
+
+		while (i < length) {
+
+			int zeroStart = i;
+			while (i < length && difference(state, stateLength, i) == 0) {
+
+				i++;
+
+			}
+
+			int literalStart = i;
+			while (i < length && difference(state, stateLength, i) != 0) {
+
+				i++;
+
+			}
+
+			position = writeVarInt(record, position, literalStart - zeroStart);
+			position = writeVarInt(record, position, i - literalStart);
+
+			for (int j = literalStart; j < i; j++) {
+
+				record[position++] = difference(state, stateLength, j);
+
+			}
+
+		}
+
+		return position;
+
+	}
+
+	/**
+	 * Gets a byte of the difference between the newest state and a new state
+	 * @param state the new state
+	 * @param stateLength the length of the new state
+	 * @param i the index of the byte
+	 * @return the XOR of the byte in both states
+	 */
+	private byte difference(byte[] state, int stateLength, int i) {
+
+		byte currentByte = i < currentLength ? current[i] : 0;
+		byte stateByte = i < stateLength ? state[i] : 0;
+
+		return (byte) (currentByte ^ stateByte);
+
+	}
+
+	/**
+	 * Applies the difference stored in record to the newest state,
+	 * turning it into the state of the tick before
+	 * @param recordLength the length of the record
+	 */
+	private void applyDifference(int recordLength) {
+
+		recordPosition = 0;
+		int previousLength = readVarInt();
+
+		if (current.length < previousLength) {
+
+			current = Arrays.copyOf(current, previousLength);
+
+		}
+
+		if (previousLength > currentLength) {
+
+			// The bytes past the end of the newest state count as zeros
+			Arrays.fill(current, currentLength, previousLength, (byte) 0);
+
+		}
+
+		int i = 0;
+		while (recordPosition < recordLength) {
+
+			i += readVarInt();
+			int literalLength = readVarInt();
+
+			for (int j = 0; j < literalLength; j++) {
+
+				current[i++] ^= record[recordPosition++];
+
+			}
+
+		}
+
+		currentLength = previousLength;
+
+	}
+
+	/**
+	 * Adds the record to the ring buffer, dropping the oldest records if there
+	 * isn't room for it. If the record is bigger than the whole ring buffer, the
+	 * history is emptied instead, since the ticks before it couldn't be reached.
+	 * @param recordLength the length of the record
+	 */
+	private void push(int recordLength) {
+
+		int size = recordLength + RECORD_OVERHEAD;
+
+		if (size > ring.length) {
+
+			head = 0;
+			tail = 0;
+			usedBytes = 0;
+			recordCount = 0;
+			return;
+
+		}
+
+		while (recordCount > 0 && (usedBytes + size > ring.length || recordCount >= maxTicks)) {
+
+			dropOldest();
+
+		}
+
+		writeRingInt(head, recordLength);
+		for (int i = 0; i < recordLength; i++) {
+
+			ring[(head + 4 + i) % ring.length] = record[i];
+
+		}
+		writeRingInt((head + 4 + recordLength) % ring.length, recordLength);
+
+		head = (head + size) % ring.length;
+		usedBytes += size;
+		recordCount++;
+
+	}
+
+	/**
+	 * Removes the newest record from the ring buffer and copies it into record
+	 * @return the length of the record
+	 */
+	private int pop() {
+
+		int recordLength = readRingInt(Math.floorMod(head - 4, ring.length));
+		int start = Math.floorMod(head - recordLength - RECORD_OVERHEAD, ring.length);
+
+		for (int i = 0; i < recordLength; i++) {
+
+			record[i] = ring[(start + 4 + i) % ring.length];
+
+		}
+
+		head = start;
+		usedBytes -= recordLength + RECORD_OVERHEAD;
+		recordCount--;
+
+		return recordLength;
+
+	}
+
+	/**
+	 * Removes the oldest record from the ring buffer
+	 */
+	private void dropOldest() {
+
+		int recordLength = readRingInt(tail);
+
+		tail = (tail + recordLength + RECORD_OVERHEAD) % ring.length;
+		usedBytes -= recordLength + RECORD_OVERHEAD;
+		recordCount--;
+
+	}
+
+	private void writeRingInt(int position, int value) {
+
+		for (int i = 0; i < 4; i++) {
+
+			ring[(position + i) % ring.length] = (byte) (value >>> (24 - 8 * i));
+
+		}
+
+	}
+
+	private int readRingInt(int position) {
+
+		int value = 0;
+
+		for (int i = 0; i < 4; i++) {
+
+			value = (value << 8) | (ring[(position + i) % ring.length] & 0xFF);
+
+		}
+
+		return value;
+
+	}
+
+	/**
+	 * Writes a non-negative int using 7 bits per byte, so small values take one byte
+	 * @param bytes the array to write to
+	 * @param position the index to write at
+	 * @param value the value to write
+	 * @return the index after the written bytes
+	 */
+	private static int writeVarInt(byte[] bytes, int position, int value) {
+
+		while ((value & ~0x7F) != 0) {
+
+			bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+
+		}
+
+		bytes[position++] = (byte) value;
+
+		return position;
+
+	}
+
+	/**
+	 * Reads an int written by writeVarInt from record at recordPosition,
+	 * and moves recordPosition past it
+	 * @return the value read
+	 */
+	private int readVarInt() {
+
+		int value = 0;
+		int shift = 0;
+		byte b;
+
+		do {
+
+			b = record[recordPosition++];
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+
+		} while ((b & 0x80) != 0);
+
+		return value;
+
+	}
+
+	/**
+	 * Gets the number of ticks that can currently be rewound
+	 * @return the number of ticks
+	 */
+	public int getTickCount() {
+		return recordCount;
+	}
+
+	/**
+	 * Gets the number of bytes of the ring buffer in use
+	 * @return the number of bytes used
+	 */
+	public int getUsedBytes() {
+		return usedBytes;
+	}
+
+	/**
+	 * Gets the most bytes the RewindBuffer uses
+	 * @return the capacity, in bytes
+	 */
+	public int getCapacityBytes() {
+		return capacityBytes;
+	}
+
+	/**
+	 * Gets the number of bytes of the ring buffer the history is stored in
+	 * @return the size of the ring buffer, in bytes
+	 */
+	public int getRingBytes() {
+		return ring.length;
+	}
+
+	/**
+	 * Gets the biggest state that can be recorded
+	 * @return the size of the biggest state, in bytes
+	 */
+	public int getMaxStateBytes() {
+		return maxStateBytes;
+	}
+
+	/**
+	 * Checks if rewinding is off for the current Level, because its state is too big
+	 * @return true if the current Level's state is too big to record, false otherwise
+	 */
+	public boolean isStateTooBig() {
+		return stateTooBig;
+	}
+
+	/**
+	 * Gets the largest number of ticks that can be rewound
+	 * @return the maximum number of ticks
+	 */
+	public int getMaxTicks() {
+		return maxTicks;
+	}
+
+}
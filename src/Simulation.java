@@ -0,0 +1,336 @@
+
+import javafx.scene.paint.Color;
+
+/**
+ * The game simulation, which holds the Player(and its Portals) and the current
+ * Level. The Simulation has no connection to the window, so it can be stepped
+ * by the GameLoop or run on its own without a Stage.
+ */
+public class Simulation {
+
+	private int width;
+	private int height;
+
+	private Player player;
+
+	private Level level;
+
+	private long tickCount = 0;
+
+	// Counted for EngineMetrics; they aren't part of the state, so snapshots don't hold them
+	private long collisionTests = 0;
+	private long portalTransits = 0;
+
+	// Measures the allocations of each phase of a tick, or null if they aren't being measured
+	private AllocationProfiler allocationProfiler = null;
+
+	// The state of the current Level when it was loaded, restored by restartLevel
+	private SimulationSnapshot startSnapshot = new SimulationSnapshot();
+
+	// The recent history of the current Level, or null if rewinding is turned off, which it is
+	// unless a RewindBuffer is set, so headless Simulations don't pay for recording every tick
+	private RewindBuffer rewindBuffer = null;
+
+	/**
+	 * Creates a Simulation for a game area with the given width and height
+	 * @param width the width of the game area
+	 * @param height the height of the game area
+	 */
+	public Simulation(int width, int height) {
+
+		setWidth(width);
+		setHeight(height);
+
+		player = new Player(width / 2, height / 2, 40, 40, Color.AQUA, this);
+		player.setxVelocity(0);
+		player.setyVelocity(0);
+
+	}
+
+	/**
+	 * Advances the Simulation by one tick. The given input is applied first,
+	 * then the Player, its Portals, and the Level are updated. If the input is
+	 * rewinding, the Simulation goes back one tick instead.
+	 * @param input the input for this tick
+	 */
+	public void step(InputFrame input) {
+
+		if (getAllocationProfiler() != null) {
+
+			stepProfiled(input);
+
+		} else if (input.isRewindPressed() && getRewindBuffer() != null) {
+
+			getRewindBuffer().rewind(this);
+
+		} else {
+
+			applyInput(input);
+
+			getPlayer().update();
+
+			getLevel().update();
+
+			if (getRewindBuffer() != null) {
+
+				getRewindBuffer().record(this);
+
+			}
+
+		}
+
+		tickCount++;
+
+	}
+
+	/**
+	 * Advances the Simulation by one tick like step does, counting the allocations of
+	 * each phase in the AllocationProfiler
+	 * @param input the input for this tick
+	 */
+	private void stepProfiled(InputFrame input) {
+
+		if (input.isRewindPressed() && getRewindBuffer() != null) {
+
+			getAllocationProfiler().begin(AllocationProfiler.REWIND);
+			getRewindBuffer().rewind(this);
+			getAllocationProfiler().end(AllocationProfiler.REWIND);
+
+			getAllocationProfiler().countTick();
+			return;
+
+		}
+
+		getAllocationProfiler().begin(AllocationProfiler.PLAYER_UPDATE);
+		applyInput(input);
+		getPlayer().update();
+		getAllocationProfiler().end(AllocationProfiler.PLAYER_UPDATE);
+
+		getAllocationProfiler().begin(AllocationProfiler.LEVEL_UPDATE);
+		getLevel().update();
+		getAllocationProfiler().end(AllocationProfiler.LEVEL_UPDATE);
+
+		if (getRewindBuffer() != null) {
+
+			getAllocationProfiler().begin(AllocationProfiler.REWIND);
+			getRewindBuffer().record(this);
+			getAllocationProfiler().end(AllocationProfiler.REWIND);
+
+		}
+
+		getAllocationProfiler().countTick();
+
+	}
+
+	/**
+	 * Applies the input given to the Player and the Level
+	 * @param input the input to apply
+	 */
+	public void applyInput(InputFrame input) {
+
+		if (input.isRestartPressed()) {
+
+			restartLevel();
+
+		}
+
+		int horizontalPresses = input.getRightPresses() - input.getLeftPresses();
+		if (horizontalPresses != 0) {
+
+			getPlayer().setxVelocity(getPlayer().getxVelocity() + 2 * horizontalPresses);
+
+		}
+
+		if (input.isJumpPressed() && getPlayer().isJumpReady() && !getPlayer().isInsidePortal()) {
+
+			getPlayer().setyVelocity(-4);
+			getPlayer().setJumpReady(false);
+
+		}
+
+		if (input.getPortalClickType() != null && !getPlayer().isInsidePortal()) {
+
+			getPlayer().launchPortal(input.getPortalClickType(), input.getPortalAngle());
+
+		}
+
+	}
+
+	/**
+	 * Makes the given Level the current Level and starts it from the beginning
+	 * @param level the new current Level
+	 */
+	public void loadLevel(Level level) {
+
+		setLevel(level);
+		getLevel().restartLevel();
+		saveSnapshot(startSnapshot);
+
+		if (getRewindBuffer() != null) {
+
+			getRewindBuffer().clear();
+			getRewindBuffer().record(this);
+
+		}
+
+	}
+
+	/**
+	 * Restarts the current Level by restoring the state it was loaded with
+	 */
+	public void restartLevel() {
+
+		restoreSnapshot(startSnapshot);
+
+	}
+
+	/**
+	 * Copies the current state of the Simulation into a snapshot
+	 * @param snapshot the SimulationSnapshot to copy the state into
+	 */
+	public void saveSnapshot(SimulationSnapshot snapshot) {
+
+		snapshot.capture(this);
+
+	}
+
+	/**
+	 * Sets the state of the Simulation to the state in a snapshot taken
+	 * on the current Level
+	 * @param snapshot the SimulationSnapshot to restore
+	 */
+	public void restoreSnapshot(SimulationSnapshot snapshot) {
+
+		snapshot.restore(this);
+
+	}
+
+	/**
+	 * Gets the width of the game area
+	 * @return the width
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Sets the width of the game area
+	 * @param width the new width
+	 */
+	public void setWidth(int width) {
+		this.width = width;
+	}
+
+	/**
+	 * Gets the height of the game area
+	 * @return the height
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Sets the height of the game area
+	 * @param height the new height
+	 */
+	public void setHeight(int height) {
+		this.height = height;
+	}
+
+	/**
+	 * Gets the Player
+	 * @return the Player
+	 */
+	public Player getPlayer() {
+		return player;
+	}
+
+	/**
+	 * Gets the current Level
+	 * @return the current Level
+	 */
+	public Level getLevel() {
+		return level;
+	}
+
+	/**
+	 * Sets the current Level
+	 * @param level the new current Level
+	 */
+	public void setLevel(Level level) {
+		this.level = level;
+	}
+
+	/**
+	 * Gets the RewindBuffer holding the recent history of the current Level
+	 * @return the RewindBuffer, or null if rewinding is turned off
+	 */
+	public RewindBuffer getRewindBuffer() {
+		return rewindBuffer;
+	}
+
+	/**
+	 * Sets the RewindBuffer to record the history of the current Level in.
+	 * The history is only recorded from the next time a Level is loaded.
+	 * @param rewindBuffer the new RewindBuffer, or null to turn rewinding off
+	 */
+	public void setRewindBuffer(RewindBuffer rewindBuffer) {
+		this.rewindBuffer = rewindBuffer;
+	}
+
+	/**
+	 * Gets the number of ticks the Simulation has been stepped
+	 * @return the tick count
+	 */
+	public long getTickCount() {
+		return tickCount;
+	}
+
+	/**
+	 * Gets the AllocationProfiler which measures the allocations of each phase of a tick
+	 * @return the AllocationProfiler, or null if allocations aren't being measured
+	 */
+	public AllocationProfiler getAllocationProfiler() {
+		return allocationProfiler;
+	}
+
+	/**
+	 * Sets the AllocationProfiler which measures the allocations of each phase of a tick
+	 * @param allocationProfiler the new AllocationProfiler, or null to stop measuring them
+	 */
+	public void setAllocationProfiler(AllocationProfiler allocationProfiler) {
+		this.allocationProfiler = allocationProfiler;
+	}
+
+	/**
+	 * Adds to the number of platforms the Player has been checked for collisions against
+	 * @param collisionTests the number of platforms checked
+	 */
+	public void addCollisionTests(int collisionTests) {
+		this.collisionTests += collisionTests;
+	}
+
+	/**
+	 * Gets the number of platforms the Player has been checked for collisions against
+	 * @return the number of collision tests
+	 */
+	public long getCollisionTests() {
+		return collisionTests;
+	}
+
+	/**
+	 * Counts the Player going all the way through a Portal
+	 */
+	public void countPortalTransit() {
+		portalTransits++;
+	}
+
+	/**
+	 * Gets the number of times the Player has gone all the way through a Portal
+	 * @return the number of portal transits
+	 */
+	public long getPortalTransits() {
+		return portalTransits;
+	}
+
+}
@@ -0,0 +1,119 @@
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * A copy of everything in a Simulation which changes while a Level is played: the
+ * Player's position, velocities, and flags, its Portals and clone, and the positions
+ * and velocities of the Level's Hazards. The state is written into a ByteBuffer which
+ * is reused by every capture, so a SimulationSnapshot can be captured and restored
+ * over and over without creating new objects. A snapshot can only be restored to the
+ * Level it was captured from.
+ */
+public class SimulationSnapshot {
+
+	private ByteBuffer buffer;
+
+	private CRC32 crc = new CRC32();
+
+	public SimulationSnapshot() {
+
+		this(0);
+
+	}
+
+	/**
+	 * Creates a SimulationSnapshot with a buffer large enough for a Level
+	 * with the given number of Hazards
+	 * @param hazardCapacity the number of Hazards to make room for
+	 */
+	public SimulationSnapshot(int hazardCapacity) {
+
+		buffer = ByteBuffer.allocate(Player.MAX_STATE_SIZE + 2 + 4 + hazardCapacity * 4 * 8);
+
+	}
+
+	/**
+	 * Copies the current state of a Simulation into the snapshot. The buffer
+	 * is only replaced if it is too small for the current Level.
+	 * @param simulation the Simulation to capture
+	 */
+	public void capture(Simulation simulation) {
+
+		int requiredSize = Player.MAX_STATE_SIZE + simulation.getLevel().getStateSize();
+
+		if (buffer.capacity() < requiredSize) {
+
+			buffer = ByteBuffer.allocate(requiredSize);
+
+		}
+
+		buffer.clear();
+		simulation.getPlayer().writeState(buffer);
+		simulation.getLevel().writeState(buffer);
+		buffer.flip();
+
+	}
+
+	/**
+	 * Sets the state of a Simulation to the state in the snapshot
+	 * @param simulation the Simulation to restore
+	 */
+	public void restore(Simulation simulation) {
+
+		buffer.rewind();
+		simulation.getPlayer().readState(buffer);
+		simulation.getLevel().readState(buffer);
+
+	}
+
+	/**
+	 * Replaces the captured state with a state previously copied out of a snapshot's buffer
+	 * @param state the array holding the state
+	 * @param length the length of the state, in bytes
+	 */
+	public void load(byte[] state, int length) {
+
+		if (buffer.capacity() < length) {
+
+			buffer = ByteBuffer.allocate(length);
+
+		}
+
+		buffer.clear();
+		buffer.put(state, 0, length);
+		buffer.flip();
+
+	}
+
+	/**
+	 * Calculates a checksum of the captured state, which can be compared to tell
+	 * if two Simulations are in the same state
+	 * @return the CRC32 of the state
+	 */
+	public int checksum() {
+
+		crc.reset();
+		crc.update(buffer.array(), 0, buffer.limit());
+
+		return (int) crc.getValue();
+
+	}
+
+	/**
+	 * Gets the buffer holding the captured state. The state runs from
+	 * position 0 to the buffer's limit.
+	 * @return the buffer
+	 */
+	public ByteBuffer getBuffer() {
+		return buffer;
+	}
+
+	/**
+	 * Gets the number of bytes of captured state
+	 * @return the size of the state, in bytes
+	 */
+	public int size() {
+		return buffer.limit();
+	}
+
+}